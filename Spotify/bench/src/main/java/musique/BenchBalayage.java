@@ -0,0 +1,98 @@
+package musique;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Prédicats, comptes et sommes de ScanColonnes sur des colonnes synthétiques
+ * (années, codes de type, durées) : boucles scalaires contre noyaux de l'API Vector. Les noyaux
+ * vectoriels ne sont mesurés que si le module jdk.incubator.vector est chargé.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class BenchBalayage {
+
+    @State(Scope.Benchmark)
+    public static class Colonnes {
+        @Param({"100000", "1200000"})
+        int taille;
+
+        @Param({"scalaires", "vectoriels"})
+        String noyaux;
+
+        ScanColonnes.Noyaux k;
+        short[] annee;
+        int[] type;
+        int[] duree;
+        long[] mots;
+        long[] selection; // Environ une ligne sur deux
+
+        @Setup(Level.Trial)
+        public void remplir() {
+            k = noyaux.equals("scalaires") ? ScanColonnes.SCALAIRES : ScanColonnes.VECTORIELS;
+            if (k == null) {
+                throw new IllegalStateException("Module jdk.incubator.vector absent : noyaux vectoriels indisponibles");
+            }
+            Random r = new Random(42);
+            annee = new short[taille];
+            type = new int[taille];
+            duree = new int[taille];
+            for (int i = 0; i < taille; i++) {
+                annee[i] = (short) (1950 + r.nextInt(75));
+                type[i] = r.nextInt(3);
+                duree[i] = 60_000 + r.nextInt(400_000);
+            }
+            mots = new long[ScanColonnes.nbMots(taille)];
+            selection = new long[mots.length];
+            for (int w = 0; w < selection.length; w++) {
+                selection[w] = r.nextLong();
+            }
+            if ((taille & 63) != 0) {
+                selection[selection.length - 1] &= (1L << taille) - 1;
+            }
+        }
+    }
+
+    @Benchmark
+    public long[] plageAnnee(Colonnes c) {
+        c.k.plage(c.annee, 0, c.taille, (short) 2000, (short) 2010, c.mots);
+        return c.mots;
+    }
+
+    @Benchmark
+    public long[] egalType(Colonnes c) {
+        c.k.egal(c.type, 0, c.taille, 1, c.mots);
+        return c.mots;
+    }
+
+    @Benchmark
+    public int compter(Colonnes c) {
+        return c.k.compter(c.selection, 0);
+    }
+
+    @Benchmark
+    public long sommeAnnee(Colonnes c) {
+        return c.k.somme(c.annee, 0, c.taille, c.selection);
+    }
+
+    @Benchmark
+    public long sommeDuree(Colonnes c) {
+        return c.k.somme(c.duree, 0, c.taille, c.selection);
+    }
+}
@@ -0,0 +1,67 @@
+package musique;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Chargement d'un palier : lecture classique (charger), lecteur mappé seul,
+ * et relecture de l'instantané binaire.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class BenchChargement {
+
+    /** Instantané du CSV, écrit une fois avant les mesures. */
+    @State(Scope.Benchmark)
+    public static class AvecInstantane {
+        @Setup(Level.Trial)
+        public void ecrire(Jeu jeu) throws Exception {
+            List<Song> copies = new ArrayList<>(jeu.chansons.size());
+            for (Song s : jeu.chansons) {
+                copies.add(new Song(s)); // Jeu.chansons sert aux autres mesures : pas d'ids écrits dedans
+            }
+            IndexChansons index = new IndexChansons();
+            index.ajouterTous(copies);
+            Instantane.ecrire(jeu.csv, copies, index, null);
+        }
+    }
+
+    @Benchmark
+    public Musique charger(Jeu jeu) throws Exception {
+        Musique m = jeu.nouvelle();
+        m.charger(jeu.csv);
+        return m;
+    }
+
+    /** LecteurCsv seul, vers la List choisie (sans index). */
+    @Benchmark
+    public List<Song> lectureMappee(Jeu jeu) throws Exception {
+        List<Song> liste = jeu.backend.equals("ArrayList") ? new ArrayList<>() : new LinkedList<>();
+        LecteurCsv.lire(jeu.csv, liste::add);
+        return liste;
+    }
+
+    @Benchmark
+    public Musique chargerInstantane(Jeu jeu, AvecInstantane instantane) throws Exception {
+        Musique m = jeu.nouvelle();
+        m.chargerInstantane(jeu.csv);
+        return m;
+    }
+}
@@ -0,0 +1,84 @@
+package musique;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filtres (vues non destructives) : chaque appel filtre puis rétablit la vue
+ * complète, la même Musique sert donc à toutes les mesures. Le cache des
+ * requêtes (CacheResultats) est vidé avant chaque appel, sauf pour
+ * requeteComposeeEnCache qui mesure une sélection retrouvée dans le cache.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class BenchFiltre {
+
+    @State(Scope.Thread)
+    public static class Chargee {
+        Musique m;
+
+        @Setup(Level.Trial)
+        public void remplir(Jeu jeu) {
+            m = jeu.remplie();
+        }
+    }
+
+    /** Même Musique, cache vidé avant chaque appel : la sélection est recalculée. */
+    @State(Scope.Thread)
+    public static class SansCache extends Chargee {
+        @Setup(Level.Invocation)
+        public void viderCache() {
+            m.viderCache();
+        }
+    }
+
+    @Benchmark
+    public Musique filtreAnnee(SansCache c) {
+        c.m.filter("2019", 8);
+        c.m.reinitialiserVue();
+        return c.m;
+    }
+
+    @Benchmark
+    public Musique filtreArtiste(SansCache c) {
+        c.m.filtreJava("artiste", "drake");
+        c.m.reinitialiserVue();
+        return c.m;
+    }
+
+    @Benchmark
+    public Musique filtreTitreCourt(SansCache c) {
+        c.m.filtreJava("titre", "lo");
+        c.m.reinitialiserVue();
+        return c.m;
+    }
+
+    @Benchmark
+    public Musique requeteComposee(SansCache c) {
+        c.m.requete("annee>=2000 ET (artiste~weeknd OU pop>=80) ET NON type=single");
+        c.m.reinitialiserVue();
+        return c.m;
+    }
+
+    /** Après le premier appel, la sélection vient du cache. */
+    @Benchmark
+    public Musique requeteComposeeEnCache(Chargee c) {
+        c.m.requete("annee>=2000 ET (artiste~weeknd OU pop>=80) ET NON type=single");
+        c.m.reinitialiserVue();
+        return c.m;
+    }
+}
@@ -0,0 +1,49 @@
+package musique;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Opérations en O(n²) (tri sélection, suppression un à un sur ArrayList),
+ * mesurées sur les petits paliers uniquement.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class BenchQuadratique {
+
+    @State(Scope.Thread)
+    public static class Liste {
+        Musique m;
+
+        @Setup(Level.Invocation)
+        public void remplir(PetitJeu jeu) {
+            m = jeu.remplie();
+        }
+    }
+
+    @Benchmark
+    public Musique triSelection(Liste l) {
+        l.m.triSelection();
+        return l.m;
+    }
+
+    @Benchmark
+    public Musique suppressionUnAUn(Liste l) {
+        l.m.suppressionUnAUn();
+        return l.m;
+    }
+}
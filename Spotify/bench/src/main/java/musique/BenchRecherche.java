@@ -0,0 +1,54 @@
+package musique;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Recherche par titre : table de hachage et dichotomie, titre présent ou absent. */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class BenchRecherche {
+
+    @State(Scope.Thread)
+    public static class Chargee {
+        Musique m;
+        String present;
+
+        @Setup(Level.Trial)
+        public void remplir(Jeu jeu) {
+            m = jeu.remplie();
+            present = jeu.chansons.get(jeu.chansons.size() / 2).trackName;
+        }
+    }
+
+    @Benchmark
+    public Musique searchPresent(Chargee c) {
+        c.m.search(c.present);
+        return c.m;
+    }
+
+    @Benchmark
+    public Musique searchAbsent(Chargee c) {
+        c.m.search("titre absent du catalogue");
+        return c.m;
+    }
+
+    @Benchmark
+    public Musique dichotomiquePresent(Chargee c) {
+        c.m.rechercheDichotomique(c.present);
+        return c.m;
+    }
+}
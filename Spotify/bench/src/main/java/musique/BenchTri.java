@@ -0,0 +1,84 @@
+package musique;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tris de Musique. Chaque appel part d'une liste neuve dans l'ordre du CSV
+ * (préparée hors mesure). Le tri fusion parallèle est mesuré seul, sur un
+ * tableau, sans la référence séquentielle que le menu peut afficher.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class BenchTri {
+
+    private static final Comparator<Song> PAR_POPULARITE = Comparator.comparingInt(s -> s.albumPopularity);
+
+    @State(Scope.Thread)
+    public static class Liste {
+        Musique m;
+
+        @Setup(Level.Invocation)
+        public void remplir(Jeu jeu) {
+            m = jeu.remplie();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Tableau {
+        Song[] chansons;
+
+        @Setup(Level.Invocation)
+        public void remplir(Jeu jeu) {
+            chansons = jeu.chansons.toArray(new Song[0]);
+        }
+    }
+
+    @Benchmark
+    public Musique triFusion(Liste l) {
+        l.m.triFusion();
+        return l.m;
+    }
+
+    @Benchmark
+    public Song[] triFusionParallele(Tableau t) {
+        ForkJoinPool.commonPool().invoke(new TriFusionParallele(t.chansons, PAR_POPULARITE,
+                TriFusionParallele.SEUIL_SEQUENTIEL_DEFAUT, true));
+        return t.chansons;
+    }
+
+    @Benchmark
+    public Musique sortTitre(Liste l) {
+        l.m.sort(0);
+        return l.m;
+    }
+
+    @Benchmark
+    public Musique sortPopularite(Liste l) {
+        l.m.sort(1);
+        return l.m;
+    }
+
+    /** Calcul de la permutation seulement : elle n'est appliquée à la liste qu'au besoin. */
+    @Benchmark
+    public Musique triPermutation(Liste l) {
+        l.m.triPermutation("annee desc, popularite desc, titre");
+        return l.m;
+    }
+}
@@ -0,0 +1,36 @@
+package musique;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Point d'entrée du jar de benchmarks : mêmes options que org.openjdk.jmh.Main,
+ * avec le profileur gc (taux d'allocation, gc.alloc.rate.norm) toujours actif.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions ligne = new CommandLineOptions(args);
+        if (ligne.shouldHelp() || ligne.shouldList() || ligne.shouldListWithParams()
+                || ligne.shouldListProfilers() || ligne.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(ligne);
+        boolean gc = false;
+        for (ProfilerConfig p : ligne.getProfilers()) {
+            gc |= p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName());
+        }
+        if (!gc) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,149 @@
+package musique;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Données des benchmarks.
+ *
+ * Pour chaque palier de menuCharger (100, 1000, 10000, 100000, FULL), le CSV
+ * réel de ../src est utilisé s'il existe (dossier modifiable avec
+ * -Dmusique.donnees=...), sinon un CSV synthétique de même forme est généré
+ * une fois par JVM : 25 colonnes, artistes en 13-24, champs entre guillemets,
+ * dates complètes ou réduites à l'année.
+ */
+final class Donnees {
+
+    static final int TAILLE_FULL = 438_948;
+
+    private static final Map<String, String> fichiers = new HashMap<>();
+    private static PrintStream console;
+
+    private Donnees() {
+    }
+
+    /** Chemin du CSV du palier (réel ou synthétique). */
+    static synchronized String csv(String taille) throws IOException {
+        String chemin = fichiers.get(taille);
+        if (chemin == null) {
+            int index = taille.equals("FULL") ? 5 : String.valueOf(Integer.parseInt(taille)).length() - 2;
+            Path reel = Path.of(System.getProperty("musique.donnees", "..")).resolve(Musique.FICHIERS[index]);
+            if (Files.isRegularFile(reel)) {
+                chemin = reel.toString();
+            } else {
+                Path synthetique = Files.createTempFile("spotify_" + taille + "_", ".csv");
+                synthetique.toFile().deleteOnExit();
+                Path.of(synthetique + Instantane.EXTENSION).toFile().deleteOnExit();
+                ecrireSynthetique(synthetique, taille.equals("FULL") ? TAILLE_FULL : Integer.parseInt(taille), 42);
+                chemin = synthetique.toString();
+            }
+            fichiers.put(taille, chemin);
+        }
+        return chemin;
+    }
+
+    /** Chansons du CSV, lues une fois pour préparer les états. */
+    static List<Song> chansons(String csv) throws IOException {
+        List<Song> chansons = new ArrayList<>();
+        LecteurCsv.lire(csv, chansons::add);
+        return chansons;
+    }
+
+    /** Les méthodes de Musique affichent leurs résultats : la console est coupée pendant la mesure. */
+    static synchronized void couperConsole() {
+        if (console == null) {
+            console = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    static synchronized void retablirConsole() {
+        if (console != null) {
+            System.setOut(console);
+            console = null;
+        }
+    }
+
+    // ========== CSV SYNTHÉTIQUE ==========
+
+    private static final String[] MOTS = {"Love", "Night", "Fire", "Blue", "Heart", "Dance", "Sky", "City",
+                                          "Rain", "Café", "Noël", "Été", "Dream", "Gold", "Summer", "Moon"};
+    private static final String[] ARTISTES = {"Drake", "The Weeknd", "Taylor Swift", "Adele", "Bad Bunny",
+                                              "Dua Lipa", "Eminem", "Stromae", "Angèle", "Orelsan",
+                                              "Daft Punk", "Aya Nakamura", "Billie Eilish", "Coldplay"};
+    private static final String[] TYPES = {"album", "single", "compilation"};
+    private static final String[] SUFFIXES = {" EP", " Deluxe", " Vol. 1", ", Live", " (Remastered)"};
+
+    static void ecrireSynthetique(Path fichier, int n, long graine) throws IOException {
+        Random r = new Random(graine);
+        try (BufferedWriter out = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            out.write("track_name,track_id,track_number,duration_ms,album_type,artists,total_tracks,album_name,"
+                    + "release_date,label,album_popularity,album_id,artist_id");
+            for (int k = 0; k < 12; k++) {
+                out.write(",artist_" + k);
+            }
+            out.write("\r\n");
+
+            StringBuilder ligne = new StringBuilder();
+            for (int i = 0; i < n; i++) {
+                ligne.setLength(0);
+                champ(ligne, mots(r, 1 + r.nextInt(3)));
+                ligne.append(",id").append(i).append(',').append(1 + r.nextInt(20));
+                ligne.append(',').append(30_000 + r.nextInt(400_000));
+                ligne.append(',').append(TYPES[r.nextInt(TYPES.length)]);
+                int nbArtistes = r.nextInt(8) == 0 ? 0 : 1 + r.nextInt(3);
+                String[] artistes = new String[nbArtistes];
+                for (int k = 0; k < nbArtistes; k++) {
+                    artistes[k] = ARTISTES[r.nextInt(ARTISTES.length)];
+                }
+                ligne.append(',');
+                champ(ligne, String.join(", ", artistes));
+                ligne.append(',').append(1 + r.nextInt(30)).append(',');
+                champ(ligne, mots(r, 1 + r.nextInt(2)) + SUFFIXES[r.nextInt(SUFFIXES.length)]);
+                int annee = 1960 + r.nextInt(65);
+                ligne.append(',').append(annee);
+                if (r.nextInt(5) != 0) {
+                    ligne.append(String.format("-%02d-%02d", 1 + r.nextInt(12), 1 + r.nextInt(28)));
+                }
+                ligne.append(",label,").append(r.nextInt(101)).append(",alb").append(i % 5000).append(",art");
+                for (int k = 0; k < 12; k++) {
+                    ligne.append(',');
+                    if (k < nbArtistes) {
+                        champ(ligne, artistes[k]);
+                    }
+                }
+                ligne.append("\r\n");
+                out.append(ligne);
+            }
+        }
+    }
+
+    private static String mots(Random r, int nb) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < nb; k++) {
+            if (k > 0) {
+                sb.append(' ');
+            }
+            sb.append(MOTS[r.nextInt(MOTS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static void champ(StringBuilder ligne, String v) {
+        if (v.indexOf(',') >= 0 || v.indexOf('"') >= 0) {
+            ligne.append('"').append(v.replace("\"", "\"\"")).append('"');
+        } else {
+            ligne.append(v);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package musique;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Paramètres communs : palier de données (ceux de menuCharger) et
+ * implémentation de List (constructeur Musique(boolean useArrayList)).
+ */
+@State(Scope.Benchmark)
+public class Jeu {
+
+    @Param({"100", "1000", "10000", "100000", "FULL"})
+    public String taille;
+
+    @Param({"ArrayList", "LinkedList"})
+    public String backend;
+
+    String csv;
+    List<Song> chansons;
+
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        csv = Donnees.csv(taille);
+        chansons = Donnees.chansons(csv);
+        Donnees.couperConsole();
+    }
+
+    @TearDown(Level.Trial)
+    public void terminer() {
+        Donnees.retablirConsole();
+    }
+
+    Musique nouvelle() {
+        return new Musique(backend.equals("ArrayList"));
+    }
+
+    /** Musique contenant les chansons du palier (indexées), sans relire le CSV. */
+    Musique remplie() {
+        Musique m = nouvelle();
+        m.ajouterChansons(chansons);
+        return m;
+    }
+}
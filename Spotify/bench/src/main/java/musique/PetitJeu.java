@@ -0,0 +1,44 @@
+package musique;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Comme Jeu, limité aux petits paliers pour les opérations quadratiques
+ * (tri sélection, suppression un à un sur ArrayList).
+ */
+@State(Scope.Benchmark)
+public class PetitJeu {
+
+    @Param({"100", "1000", "10000"})
+    public String taille;
+
+    @Param({"ArrayList", "LinkedList"})
+    public String backend;
+
+    List<Song> chansons;
+
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        chansons = Donnees.chansons(Donnees.csv(taille));
+        Donnees.couperConsole();
+    }
+
+    @TearDown(Level.Trial)
+    public void terminer() {
+        Donnees.retablirConsole();
+    }
+
+    Musique remplie() {
+        Musique m = new Musique(backend.equals("ArrayList"));
+        m.ajouterChansons(chansons);
+        return m;
+    }
+}
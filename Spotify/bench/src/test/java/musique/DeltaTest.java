@@ -0,0 +1,186 @@
+package musique;
+
+import static musique.LecteurCsvTest.ENTETE;
+import static musique.LecteurCsvTest.ligne;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Ajouts en fin de fichier et CSV delta (upsert / delete) appliqués à une Musique chargée. */
+class DeltaTest {
+
+    @TempDir
+    Path dossier;
+
+    private PrintStream console;
+
+    @BeforeEach
+    void couperConsole() {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @AfterEach
+    void retablirConsole() {
+        System.setOut(console);
+    }
+
+    private Path ecrire(String nom, String contenu) throws IOException {
+        Path fichier = dossier.resolve(nom);
+        Files.writeString(fichier, contenu, StandardCharsets.UTF_8);
+        return fichier;
+    }
+
+    private static String chanson(String titre, String album, int pop, String artiste) {
+        return ligne(titre, "1000", "album", album, "2020-01-01", String.valueOf(pop), artiste) + "\n";
+    }
+
+    private static String resume(Musique m) {
+        List<String> lignes = new ArrayList<>();
+        for (Song s : m.premieres(Integer.MAX_VALUE)) {
+            lignes.add(s.trackName + "/" + s.albumPopularity);
+        }
+        return String.join(" ", lignes);
+    }
+
+    private Musique chargee() throws Exception {
+        Path csv = ecrire("source.csv", ENTETE + "\n"
+                + chanson("Un", "A", 10, "X")
+                + chanson("Deux", "B", 20, "Y")
+                + chanson("Trois", "C", 30, "Z"));
+        Musique m = new Musique(Structures.Structure.ARRAYLIST);
+        m.chargerMappe(csv.toString());
+        return m;
+    }
+
+    @Test
+    void chansonsPartageesEntreInstances() throws Exception {
+        List<Song> lues = new ArrayList<>();
+        LecteurCsv.lire(ecrire("source.csv", ENTETE + "\n"
+                + chanson("Un", "A", 10, "X")
+                + chanson("Deux", "B", 20, "Y")
+                + chanson("Trois", "C", 30, "Z")).toString(), lues::add);
+        Musique m = new Musique(Structures.Structure.ARRAYLIST);
+        m.ajouterChansons(lues);
+        Musique autre = new Musique(Structures.Structure.ARRAYLIST);
+        autre.ajouterChansons(lues.subList(2, 3)); // Trois y aurait l'id 0
+        assertNull(lues.get(2).cleTitre); // Les chansons de l'appelant ne sont pas indexées
+
+        m.appliquerDelta(ecrire("delta.csv", ENTETE + ",operation\n"
+                + chanson("Trois", "C", 0, "Z").strip() + ",delete\n").toString());
+        assertEquals("Un/10 Deux/20", resume(m));
+        assertEquals("Trois/30", resume(autre));
+    }
+
+    @Test
+    void upsertsEtSuppressions() throws Exception {
+        Musique m = chargee();
+        Path delta = ecrire("delta.csv", ENTETE + ",operation\n"
+                + chanson("Deux", "B", 25, "Y").strip() + ",upsert\n"
+                + chanson("Quatre", "D", 40, "W").strip() + ",\n"
+                + chanson("Un", "A", 0, "X").strip() + ",delete\n"
+                + chanson("Inconnue", "Q", 0, "Q").strip() + ",delete\n");
+        m.appliquerDelta(delta.toString());
+
+        assertEquals("Deux/25 Trois/30 Quatre/40", resume(m));
+        assertNull(m.chercher("Un"));
+        assertEquals(25, m.chercher("deux").albumPopularity);
+    }
+
+    @Test
+    void deltaGardeLOrdreDeTriEtLaVue() throws Exception {
+        Musique m = chargee();
+        m.triPermutation("popularite desc");
+        m.requete("pop>=20");
+        Path delta = ecrire("delta.csv", ENTETE + ",operation\n"
+                + chanson("Un", "A", 35, "X").strip() + ",upsert\n"
+                + chanson("Cinq", "E", 5, "V").strip() + ",upsert\n"
+                + chanson("Trois", "C", 0, "Z").strip() + ",delete\n");
+        m.appliquerDelta(delta.toString());
+
+        assertEquals("Un/35 Deux/20", resume(m));
+        m.reinitialiserVue();
+        assertEquals("Un/35 Deux/20 Cinq/5", resume(m));
+    }
+
+    @Test
+    void ajoutsEnFinDeFichier() throws Exception {
+        Musique m = chargee();
+        Path csv = dossier.resolve("source.csv");
+        Files.writeString(csv, chanson("Quatre", "D", 40, "W"), StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        m.chargerAjouts(csv.toString());
+
+        assertEquals("Un/10 Deux/20 Trois/30 Quatre/40", resume(m));
+    }
+
+    @Test
+    void rechargementCompletRemplaceLeFichier() throws Exception {
+        Musique m = chargee();
+        Path csv = dossier.resolve("source.csv");
+        m.chargerMappe(csv.toString());
+        m.charger(csv.toString());
+        assertEquals("Un/10 Deux/20 Trois/30", resume(m));
+
+        Path autre = ecrire("autre.csv", ENTETE + "\n" + chanson("Quatre", "D", 40, "W"));
+        m.chargerMappe(autre.toString());
+        assertEquals("Un/10 Deux/20 Trois/30 Quatre/40", resume(m));
+    }
+
+    @Test
+    void rechargementApresPermutationEnAttente() throws Exception {
+        Musique m = chargee();
+        m.triPermutation("popularite desc"); // Appliquée à la liste seulement à la demande
+        m.chargerMappe(dossier.resolve("source.csv").toString());
+        assertEquals(3, m.nbChansons());
+        assertEquals("Un/10 Deux/20 Trois/30", resume(m));
+
+        m.filtreJava("titre", "trois");
+        assertEquals("Trois/30", resume(m));
+    }
+
+    @Test
+    void doublonRestantGardeSonIdentite() throws Exception {
+        Path csv = ecrire("doublons.csv", ENTETE + "\n"
+                + chanson("Un", "A", 10, "X")
+                + chanson("Deux", "B", 20, "Y")
+                + chanson("Un", "A", 11, "X"));
+        Musique m = new Musique(Structures.Structure.ARRAYLIST);
+        m.chargerMappe(csv.toString());
+
+        m.appliquerDelta(ecrire("delta1.csv", ENTETE + ",operation\n"
+                + chanson("Un", "A", 0, "X").strip() + ",delete\n").toString());
+        assertEquals("Un/10 Deux/20", resume(m));
+
+        m.appliquerDelta(ecrire("delta2.csv", ENTETE + ",operation\n"
+                + chanson("Un", "A", 50, "X").strip() + ",upsert\n").toString());
+        assertEquals("Un/50 Deux/20", resume(m));
+    }
+
+    @Test
+    void ajoutsApresInstantane() throws Exception {
+        chargee(); // Écrit aussi l'instantané de source.csv
+        Path csv = dossier.resolve("source.csv");
+        Musique m = new Musique(Structures.Structure.ARRAYLIST);
+        m.chargerInstantane(csv.toString());
+        Files.writeString(csv, chanson("Quatre", "D", 40, "W"), StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        m.chargerAjouts(csv.toString());
+
+        assertEquals("Un/10 Deux/20 Trois/30 Quatre/40", resume(m));
+    }
+}
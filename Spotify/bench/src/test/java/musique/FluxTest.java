@@ -0,0 +1,109 @@
+package musique;
+
+import static musique.LecteurCsvTest.ENTETE;
+import static musique.LecteurCsvTest.ligne;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tri externe : les lignes produites sont celles de la source, toutes colonnes comprises. */
+class FluxTest {
+
+    @TempDir
+    Path dossier;
+
+    private PrintStream console;
+
+    @BeforeEach
+    void couperConsole() {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @AfterEach
+    void retablirConsole() {
+        System.setOut(console);
+    }
+
+    @Test
+    void triExterneGardeToutesLesColonnes() throws Exception {
+        List<String> lignes = new ArrayList<>();
+        int[] popularites = new int[50];
+        for (int i = 0; i < popularites.length; i++) {
+            popularites[i] = (i * 37) % 10; // Beaucoup d'égalités
+            // Colonnes 1, 2, 5, 6, 9, 11 et 12 ne sont pas dans Song : elles doivent survivre
+            lignes.add(ligne("\"Titre, " + i + "\"", String.valueOf(1000 + i), "album", "Album " + (i % 7),
+                    "2020-01-01", String.valueOf(popularites[i]), "Artiste " + i, "\"Invité \"\"" + i + "\"\"\""));
+        }
+        Path source = dossier.resolve("source.csv");
+        Files.writeString(source, ENTETE + "\n" + String.join("\n", lignes) + "\n", StandardCharsets.UTF_8);
+        Path sortie = dossier.resolve("trie.csv");
+
+        Musique.fluxTrier(source.toString(), null, "popularite desc", sortie.toString(), 8); // 7 fichiers temporaires
+
+        List<String> attendu = new ArrayList<>(List.of(ENTETE));
+        IntStream.range(0, lignes.size()).boxed()
+                .sorted(Comparator.comparingInt((Integer i) -> popularites[i]).reversed()) // Stable
+                .forEach(i -> attendu.add(lignes.get(i)));
+        assertEquals(attendu, Files.readAllLines(sortie, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void triExterneGardeLesColonnesEnPlus() throws Exception {
+        // Colonnes au-delà des 25 connues (ex. export enrichi) : réécrites telles quelles
+        String longue = ligne("Longue", "1000", "album", "Album", "2020-01-01", "20", "A")
+                + ",extra," + String.join(",", Collections.nCopies(30, "x")) + ",\"fin, entre guillemets\"";
+        String courte = ligne("Courte", "1000", "album", "Album", "2020-01-01", "90", "B");
+        Path source = dossier.resolve("large.csv");
+        Files.writeString(source, ENTETE + "\n" + longue + "\n" + courte + "\n", StandardCharsets.UTF_8);
+        Path sortie = dossier.resolve("trie.csv");
+
+        Musique.fluxTrier(source.toString(), null, "popularite desc", sortie.toString(), 1);
+
+        assertEquals(List.of(ENTETE, courte, longue), Files.readAllLines(sortie, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void triExterneEtTopParTitre() throws Exception {
+        String[] titres = {"été", "Zoo", "abc", "Été", "éa", "b", "Abc", "zz", "eta", "ÉTÉ", "a", "Ça"};
+        List<String> lignes = new ArrayList<>();
+        for (String titre : titres) {
+            lignes.add(ligne(titre, "1000", "album", "Album", "2020-01-01", "50", "Artiste"));
+        }
+        Path source = dossier.resolve("titres.csv");
+        Files.writeString(source, ENTETE + "\n" + String.join("\n", lignes) + "\n", StandardCharsets.UTF_8);
+
+        List<String> attendu = new ArrayList<>();
+        IntStream.range(0, titres.length).boxed()
+                .sorted(Comparator.comparing((Integer i) -> Collation.DEFAUT.cle(titres[i]), Collation::comparer))
+                .forEach(i -> attendu.add(titres[i]));
+
+        Path sortie = dossier.resolve("trie.csv");
+        Musique.fluxTrier(source.toString(), null, "titre", sortie.toString(), 4);
+        List<String> lus = new ArrayList<>();
+        LecteurCsv.lire(sortie.toString(), s -> lus.add(s.trackName));
+        assertEquals(attendu, lus);
+
+        Flux.TopN top = new Flux.TopN(5, TriPermutation.analyser("titre"));
+        Flux.parcourir(source.toString(), null, top);
+        List<String> premiers = new ArrayList<>();
+        for (Song s : top.resultat()) {
+            premiers.add(s.trackName);
+        }
+        assertEquals(attendu.subList(0, 5), premiers);
+    }
+}
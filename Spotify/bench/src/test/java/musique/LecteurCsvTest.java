@@ -0,0 +1,169 @@
+package musique;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Automate du lecteur mappé : guillemets, "" échappés, retours à la ligne
+ * entre guillemets, fins de ligne Windows, enregistrements coupés par une
+ * fenêtre, et découpage de la lecture parallèle.
+ */
+class LecteurCsvTest {
+
+    static final String ENTETE = "track_name,track_id,track_number,duration_ms,album_type,artists,total_tracks,"
+            + "album_name,release_date,label,album_popularity,album_id,artist_id,a0,a1,a2,a3,a4,a5,a6,a7,a8,a9,a10,a11";
+
+    @TempDir
+    Path dossier;
+
+    /** Ligne de 25 colonnes ; les valeurs sont écrites telles quelles (déjà entre guillemets si besoin). */
+    static String ligne(String titre, String duree, String type, String album, String date, String pop, String... artistes) {
+        StringBuilder sb = new StringBuilder(titre).append(",id,1,").append(duree).append(',').append(type)
+                .append(",artistes,10,").append(album).append(',').append(date).append(",label,").append(pop)
+                .append(",alb,art");
+        for (int k = 0; k < 12; k++) {
+            sb.append(',').append(k < artistes.length ? artistes[k] : "");
+        }
+        return sb.toString();
+    }
+
+    private Path ecrire(String contenu) throws IOException {
+        Path fichier = Files.createTempFile(dossier, "lecteur", ".csv");
+        Files.writeString(fichier, contenu, StandardCharsets.UTF_8);
+        return fichier;
+    }
+
+    private static List<Song> lire(Path fichier) throws IOException {
+        List<Song> lus = new ArrayList<>();
+        LecteurCsv.lire(fichier.toString(), lus::add);
+        return lus;
+    }
+
+    @Test
+    void champsEntreGuillemets() throws IOException {
+        Path csv = ecrire(ENTETE + "\n"
+                + ligne("\"Hello, World\"", "1000", "single", "\"Album \"\"Live\"\"\"", "2020-01-02", "42", "\"Tyler, The Creator\"", "Drake") + "\n"
+                + ligne("\"Deux\nlignes\"", "2000", "album", "Plain", "1999", "7", "Adele") + "\n");
+        List<Song> lus = lire(csv);
+
+        assertEquals(2, lus.size());
+        Song s = lus.get(0);
+        assertEquals("Hello, World", s.trackName);
+        assertEquals("Album \"Live\"", s.albumName);
+        assertEquals("single", s.albumType);
+        assertEquals("2020-01-02", s.releaseDate);
+        assertEquals("1000", s.durationMs);
+        assertEquals(42, s.albumPopularity);
+        assertArrayEquals(new String[] {"Tyler, The Creator", "Drake"}, s.artists);
+        assertEquals("Deux\nlignes", lus.get(1).trackName);
+        assertEquals(1999, lus.get(1).getYear());
+    }
+
+    @Test
+    void finsDeLigneWindowsEtDernierEnregistrementSansRetour() throws IOException {
+        Path csv = ecrire(ENTETE + "\r\n"
+                + ligne("Un", "1", "album", "A", "2001", "5", "X") + "\r\n"
+                + ligne("Deux", "2", "single", "B", "2002", "99", "Y"));
+        List<Song> lus = lire(csv);
+
+        assertEquals(2, lus.size());
+        assertArrayEquals(new String[] {"X"}, lus.get(0).artists); // Pas de \r dans le dernier champ
+        assertEquals("Deux", lus.get(1).trackName);
+        assertEquals(99, lus.get(1).albumPopularity);
+    }
+
+    @Test
+    void lignesTropCourtesEtPopulariteInvalide() throws IOException {
+        Path csv = ecrire(ENTETE + "\n"
+                + "trop,court\n"
+                + ligne("Titre", "1", "album", "A", "2001", "abc", "X") + "\n"
+                + ligne("Autre", "1", "album", "A", "2001", "\"12\"", "X") + "\n");
+        List<Song> lus = lire(csv);
+
+        assertEquals(2, lus.size());
+        assertEquals(0, lus.get(0).albumPopularity);
+        assertEquals(0, lus.get(1).albumPopularity); // Entre guillemets : non lue, comme parseInt("\"12\"")
+    }
+
+    @Test
+    void enregistrementCoupeParLaFenetre() {
+        String premier = ligne("\"A, b\"", "1", "album", "\"x\ny\"", "2001", "5", "X") + "\n";
+        String second = ligne("\"C \"\"d\"\"\"", "2", "single", "Z", "2002", "6", "Y") + "\n";
+        byte[] octets = (premier + second).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.wrap(octets);
+
+        for (int coupure = 1; coupure < octets.length; coupure++) {
+            List<Song> lus = new ArrayList<>();
+            LecteurCsv lecteur = new LecteurCsv();
+            int consomme = lecteur.analyser(buf, 0, coupure, false, lus::add);
+            assertEquals(coupure < premier.length() ? 0 : premier.length(), consomme, "coupure " + coupure);
+            lecteur.analyser(buf, consomme, octets.length, true, lus::add);
+
+            assertEquals(2, lus.size(), "coupure " + coupure);
+            assertEquals("A, b", lus.get(0).trackName);
+            assertEquals("x\ny", lus.get(0).albumName);
+            assertEquals("C \"d\"", lus.get(1).trackName);
+        }
+    }
+
+    @Test
+    void transitionsCoherentesAvecLAutomate() {
+        byte[] octets = "a,\"b,\"\"c\n\",d\ne,\"\"\n\"f".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.wrap(octets);
+        for (int coupure = 0; coupure <= octets.length; coupure++) {
+            int[] effet = LecteurCsv.transitions(buf, coupure, octets.length);
+            for (int etat = 0; etat < 4; etat++) {
+                assertEquals(LecteurCsv.avancer(buf, coupure, octets.length, etat), effet[etat]);
+            }
+        }
+    }
+
+    @Test
+    void ajoutsIgnorentLaLigneEnCoursDEcriture() throws IOException {
+        String debut = ENTETE + "\n" + ligne("Un", "1", "album", "A", "2001", "5", "X") + "\n";
+        String ajout = ligne("Deux", "2", "album", "B", "2002", "6", "Y") + "\n";
+        Path csv = ecrire(debut + ajout + "Trois,incomplet");
+
+        List<Song> lus = new ArrayList<>();
+        long fin = LecteurCsv.lireAjouts(csv.toString(), debut.length(), Files.size(csv), lus::add);
+
+        assertEquals(1, lus.size());
+        assertEquals("Deux", lus.get(0).trackName);
+        assertEquals(debut.length() + ajout.length(), fin);
+    }
+
+    @Test
+    void lectureParalleleIdentiqueALaLectureSequentielle() throws IOException {
+        Random r = new Random(7);
+        StringBuilder sb = new StringBuilder(ENTETE).append("\r\n");
+        for (int i = 0; sb.length() < 6 << 20; i++) {
+            String titre = r.nextInt(10) == 0 ? "\"Titre, " + i + "\n(suite \"\"" + i + "\"\")\"" : "Titre " + i;
+            sb.append(ligne(titre, String.valueOf(i), "album", "Album " + (i % 97), "2001", String.valueOf(i % 101), "X" + (i % 13)))
+              .append(r.nextBoolean() ? "\r\n" : "\n");
+        }
+        Path csv = ecrire(sb.toString());
+
+        List<Song> sequentiel = lire(csv);
+        List<Song> parallele = new ArrayList<>();
+        int n = LecteurCsv.lireParallele(csv.toString(), 4, parallele);
+
+        assertEquals(sequentiel.size(), n);
+        assertEquals(sequentiel.size(), parallele.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(sequentiel.get(i).trackName, parallele.get(i).trackName);
+            assertEquals(sequentiel.get(i).durationMs, parallele.get(i).durationMs);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package musique;
+
+import static musique.LecteurCsvTest.ligne;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/** Critère artiste : sous-chaînes qui chevauchent deux artistes de getArtistsString(). */
+class RequeteTest {
+
+    private static Song chanson(String... artistes) {
+        return new Song(ligne("Titre", "1000", "album", "Album", "2020-01-01", "50", artistes).split(","));
+    }
+
+    @Test
+    void artisteChevauchantDeuxNoms() {
+        Song duo = chanson("The Weeknd", "Daft Punk");
+        assertTrue(Requete.artiste("weeknd, daft", true).test(duo));
+        assertTrue(Requete.artiste("d, d", true).test(duo));
+        assertTrue(Requete.artiste("daft ", true).test(duo));
+        assertFalse(Requete.artiste("daft, weeknd", true).test(duo));
+        assertFalse(Requete.artiste("weeknd, daft", false).test(duo));
+
+        IndexChansons index = new IndexChansons();
+        index.ajouter(duo);
+        assertNull(index.selection("artiste", "weeknd, daft")); // Seul test() peut répondre
+    }
+
+    @Test
+    void artisteSimple() {
+        Song duo = chanson("The Weeknd", "Daft Punk");
+        assertTrue(Requete.artiste("PUNK", true).test(duo));
+        assertTrue(Requete.artiste("daft punk", false).test(duo));
+        assertFalse(Requete.artiste("daft", false).test(duo));
+        assertTrue(Requete.artiste("unknown", true).test(chanson()));
+    }
+}
@@ -0,0 +1,99 @@
+package musique;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/** Noyaux scalaires et vectoriels comparés à un calcul ligne par ligne, fins de colonne comprises. */
+class ScanColonnesTest {
+
+    private static final int[] TAILLES = {0, 1, 63, 64, 65, 200, 1000};
+
+    @Test
+    void noyauxVectorielsCharges() {
+        // Surefire passe --add-modules jdk.incubator.vector
+        assertNotNull(ScanColonnes.VECTORIELS);
+        assertEquals("vectoriels (API Vector)", ScanColonnes.description());
+    }
+
+    @Test
+    void plage() {
+        Random r = new Random(7);
+        for (int n : TAILLES) {
+            short[] colonne = new short[n];
+            for (int i = 0; i < n; i++) {
+                colonne[i] = (short) (r.nextBoolean() ? 1990 + r.nextInt(40) : r.nextInt());
+            }
+            for (int[] b : new int[][] {{2000, 2010}, {Short.MIN_VALUE, -1}, {5, 4}, {Integer.MIN_VALUE, Integer.MAX_VALUE}}) {
+                long[] attendu = new long[ScanColonnes.nbMots(n)];
+                for (int i = 0; i < n; i++) {
+                    if (colonne[i] >= b[0] && colonne[i] <= b[1]) {
+                        attendu[i >>> 6] |= 1L << i;
+                    }
+                }
+                assertArrayEquals(attendu, ScanColonnes.plage(colonne, n, b[0], b[1]), "n=" + n);
+                short min = (short) Math.max(b[0], Short.MIN_VALUE), max = (short) Math.min(b[1], Short.MAX_VALUE);
+                if (min <= max) {
+                    long[] scalaires = new long[attendu.length];
+                    ScanColonnes.SCALAIRES.plage(colonne, 0, n, min, max, scalaires);
+                    assertArrayEquals(attendu, scalaires, "scalaires n=" + n);
+                }
+            }
+        }
+    }
+
+    @Test
+    void egal() {
+        Random r = new Random(8);
+        for (int n : TAILLES) {
+            int[] colonne = new int[n];
+            for (int i = 0; i < n; i++) {
+                colonne[i] = r.nextInt(4) - 1;
+            }
+            for (int code = -1; code <= 3; code++) {
+                long[] attendu = new long[ScanColonnes.nbMots(n)];
+                for (int i = 0; i < n; i++) {
+                    if (colonne[i] == code) {
+                        attendu[i >>> 6] |= 1L << i;
+                    }
+                }
+                assertArrayEquals(attendu, ScanColonnes.egal(colonne, n, code), "n=" + n);
+                long[] scalaires = new long[attendu.length];
+                ScanColonnes.SCALAIRES.egal(colonne, 0, n, code, scalaires);
+                assertArrayEquals(attendu, scalaires, "scalaires n=" + n);
+            }
+        }
+    }
+
+    @Test
+    void compteEtSommes() {
+        Random r = new Random(9);
+        for (int n : TAILLES) {
+            short[] courts = new short[n];
+            int[] entiers = new int[n];
+            long[] selection = new long[ScanColonnes.nbMots(n)];
+            int compte = 0;
+            long sommeCourts = 0, sommeEntiers = 0;
+            for (int i = 0; i < n; i++) {
+                courts[i] = (short) r.nextInt();
+                entiers[i] = r.nextInt(); // Négatifs et grands : les sommes ne doivent pas déborder
+                if (r.nextInt(3) > 0) {
+                    selection[i >>> 6] |= 1L << i;
+                    compte++;
+                    sommeCourts += courts[i];
+                    sommeEntiers += entiers[i];
+                }
+            }
+            assertEquals(compte, ScanColonnes.compter(selection), "n=" + n);
+            assertEquals(sommeCourts, ScanColonnes.somme(courts, n, selection), "n=" + n);
+            assertEquals(sommeEntiers, ScanColonnes.somme(entiers, n, selection), "n=" + n);
+            assertEquals(compte, ScanColonnes.SCALAIRES.compter(selection, 0), "scalaires n=" + n);
+            assertEquals(sommeCourts, ScanColonnes.SCALAIRES.somme(courts, 0, n, selection), "scalaires n=" + n);
+            assertEquals(sommeEntiers, ScanColonnes.SCALAIRES.somme(entiers, 0, n, selection), "scalaires n=" + n);
+        }
+    }
+}
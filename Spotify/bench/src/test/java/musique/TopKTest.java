@@ -0,0 +1,70 @@
+package musique;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/** Tas, quickselect et pages comparés à un tri stable décroissant. */
+class TopKTest {
+
+    /** Positions triées par clé décroissante, à égalité par position croissante. */
+    private static int[] reference(int[] cles, int k) {
+        return IntStream.range(0, cles.length).boxed()
+                .sorted(Comparator.comparingInt((Integer i) -> cles[i]).reversed().thenComparingInt(i -> i))
+                .limit(k).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] cles(long graine, int n, int borne) {
+        Random r = new Random(graine);
+        int[] cles = new int[n];
+        for (int i = 0; i < n; i++) {
+            cles[i] = r.nextInt(borne); // Beaucoup d'égalités pour une petite borne
+        }
+        return cles;
+    }
+
+    @Test
+    void tasEtQuickselect() {
+        for (int borne : new int[] {3, 101, Integer.MAX_VALUE}) {
+            int[] cles = cles(borne, 5000, borne);
+            for (int k : new int[] {0, 1, 10, 4999, 5000, 6000}) {
+                int[] attendu = reference(cles, k);
+                assertArrayEquals(attendu, TopK.tas(cles, cles.length, k), "tas k=" + k);
+                assertArrayEquals(attendu, TopK.quickselect(cles, cles.length, k), "quickselect k=" + k);
+            }
+        }
+    }
+
+    @Test
+    void clesNegativesEtExtremes() {
+        int[] cles = {0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 5, Integer.MAX_VALUE, -1};
+        assertArrayEquals(reference(cles, cles.length), TopK.tas(cles, cles.length, cles.length));
+        assertArrayEquals(reference(cles, 3), TopK.quickselect(cles, cles.length, 3));
+    }
+
+    @Test
+    void pagesDonnentLeTriComplet() {
+        int[] cles = cles(11, 3000, 50);
+        for (int taillePage : new int[] {1, 7, 50, 3000}) {
+            TopK.Pages pages = new TopK.Pages(cles, cles.length);
+            int[] lues = new int[0];
+            while (!pages.finie()) {
+                assertEquals(lues.length, pages.getSorties());
+                int[] page = pages.suivante(taillePage);
+                assertTrue(page.length > 0 && page.length <= taillePage);
+                int debut = lues.length;
+                lues = Arrays.copyOf(lues, debut + page.length);
+                System.arraycopy(page, 0, lues, debut, page.length);
+            }
+            assertArrayEquals(reference(cles, cles.length), lues, "pages de " + taillePage);
+            assertEquals(0, pages.suivante(taillePage).length);
+        }
+    }
+}
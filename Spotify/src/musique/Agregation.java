@@ -0,0 +1,407 @@
+package musique;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Regroupement et agrégats sur les chansons chargées.
+ *
+ * Syntaxe (analyser) : une dimension puis des mesures séparées par des virgules,
+ *   "annee: count, avg popularite, distinct artiste"
+ *   "artiste: count, sum duree, max popularite"
+ *   "type"                                      (count seul)
+ * Dimensions : annee, artiste, type, album, tout (un seul groupe). Une chanson
+ * à plusieurs artistes compte dans le groupe de chacun.
+ * Mesures : count, sum|min|max|avg popularite|annee|duree, distinct
+ * artiste|album|titre|type|annee (HyperLogLog, approximatif au-delà de
+ * HyperLogLog.SEUIL_CREUX valeurs par groupe).
+ *
+ * calculer() fait une seule passe parallèle : chaque tâche agrège une tranche
+ * contiguë dans sa propre table de groupes, sans synchronisation, et les
+ * tables partielles sont fusionnées à la fin. Un Cumul garde le résultat et
+ * le prolonge à chaque chargement (tableau de bord matérialisé).
+ */
+final class Agregation {
+
+    enum Dimension { ANNEE, ARTISTE, TYPE, ALBUM, TITRE, TOUT }
+
+    enum Champ { POPULARITE, ANNEE, DUREE }
+
+    enum Fonction { COUNT, SUM, MIN, MAX, AVG, DISTINCT }
+
+    /** Une colonne du résultat. */
+    static final class Mesure {
+        final Fonction fonction;
+        final Champ champ;              // SUM, MIN, MAX, AVG
+        final Dimension distinct;       // DISTINCT
+
+        Mesure(Fonction fonction, Champ champ, Dimension distinct) {
+            this.fonction = fonction;
+            this.champ = champ;
+            this.distinct = distinct;
+        }
+
+        @Override
+        public String toString() {
+            switch (fonction) {
+                case COUNT: return "count";
+                case DISTINCT: return "distinct_" + distinct.name().toLowerCase();
+                default: return fonction.name().toLowerCase() + "_" + champ.name().toLowerCase();
+            }
+        }
+    }
+
+    static final int TRANCHE_MIN = 16_384;
+
+    final Dimension dimension;
+    final List<Mesure> mesures;
+
+    private Agregation(Dimension dimension, List<Mesure> mesures) {
+        this.dimension = dimension;
+        this.mesures = mesures;
+    }
+
+    // ========== ANALYSE ==========
+
+    static Agregation analyser(String spec) {
+        String texte = spec.trim().replace('(', ' ').replace(')', ' ');
+        int fin = 0;
+        while (fin < texte.length() && texte.charAt(fin) != ':' && !Character.isWhitespace(texte.charAt(fin))) {
+            fin++;
+        }
+        if (fin == 0) {
+            throw new IllegalArgumentException("Regroupement vide (ex. \"annee: count, avg popularite\")");
+        }
+        Dimension dimension = dimension(texte.substring(0, fin));
+        String reste = texte.substring(fin).trim();
+        if (reste.startsWith(":")) {
+            reste = reste.substring(1).trim();
+        }
+
+        List<Mesure> mesures = new ArrayList<>();
+        for (String partie : reste.isEmpty() ? new String[] {"count"} : reste.split(",")) {
+            String[] mots = partie.trim().toLowerCase().split("\\s+");
+            Fonction fonction;
+            switch (mots[0]) {
+                case "count": case "nombre": fonction = Fonction.COUNT; break;
+                case "sum": case "somme": fonction = Fonction.SUM; break;
+                case "min": fonction = Fonction.MIN; break;
+                case "max": fonction = Fonction.MAX; break;
+                case "avg": case "moyenne": fonction = Fonction.AVG; break;
+                case "distinct": case "distincts": fonction = Fonction.DISTINCT; break;
+                default: throw new IllegalArgumentException("Mesure inconnue: '" + partie.trim() + "'");
+            }
+            if (fonction == Fonction.COUNT) {
+                mesures.add(new Mesure(fonction, null, null));
+                continue;
+            }
+            if (mots.length != 2) {
+                throw new IllegalArgumentException("Champ attendu après " + mots[0] + ": '" + partie.trim() + "'");
+            }
+            if (fonction == Fonction.DISTINCT) {
+                Dimension d = dimension(mots[1]);
+                if (d == Dimension.TOUT) {
+                    throw new IllegalArgumentException("distinct tout n'a pas de sens");
+                }
+                mesures.add(new Mesure(fonction, null, d));
+            } else {
+                mesures.add(new Mesure(fonction, champ(mots[1]), null));
+            }
+        }
+        return new Agregation(dimension, mesures);
+    }
+
+    private static Dimension dimension(String mot) {
+        switch (mot.toLowerCase()) {
+            case "annee": case "année": case "year": return Dimension.ANNEE;
+            case "artiste": case "artist": return Dimension.ARTISTE;
+            case "type": case "albumtype": return Dimension.TYPE;
+            case "album": return Dimension.ALBUM;
+            case "titre": case "title": return Dimension.TITRE;
+            case "tout": case "all": return Dimension.TOUT;
+            default: throw new IllegalArgumentException("Dimension inconnue: '" + mot + "'");
+        }
+    }
+
+    private static Champ champ(String mot) {
+        switch (mot) {
+            case "popularite": case "popularité": case "popularity": case "pop": return Champ.POPULARITE;
+            case "annee": case "année": case "year": return Champ.ANNEE;
+            case "duree": case "durée": case "duration": return Champ.DUREE;
+            default: throw new IllegalArgumentException("Champ numérique inconnu: '" + mot + "'");
+        }
+    }
+
+    /** Forme canonique (sert de clé aux cumuls). */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(dimension.name().toLowerCase()).append(':');
+        for (int i = 0; i < mesures.size(); i++) {
+            sb.append(i > 0 ? ", " : " ").append(mesures.get(i).toString().replace('_', ' '));
+        }
+        return sb.toString();
+    }
+
+    String[] entetes() {
+        String[] e = new String[mesures.size()];
+        for (int i = 0; i < e.length; i++) {
+            e[i] = mesures.get(i).toString();
+        }
+        return e;
+    }
+
+    // ========== GROUPES ==========
+
+    /** Accumulateurs d'un groupe, une case par mesure. */
+    final class Groupe {
+        long nombre;
+        final long[] somme = new long[mesures.size()];
+        final long[] min = new long[mesures.size()];
+        final long[] max = new long[mesures.size()];
+        final HyperLogLog[] distincts = new HyperLogLog[mesures.size()];
+
+        Groupe() {
+            for (int i = 0; i < distincts.length; i++) {
+                min[i] = Long.MAX_VALUE;
+                max[i] = Long.MIN_VALUE;
+                if (mesures.get(i).fonction == Fonction.DISTINCT) {
+                    distincts[i] = new HyperLogLog();
+                }
+            }
+        }
+
+        void ajouter(Song s) {
+            nombre++;
+            for (int i = 0; i < distincts.length; i++) {
+                Mesure m = mesures.get(i);
+                if (m.fonction == Fonction.DISTINCT) {
+                    distinctes(s, m.distinct, distincts[i]);
+                } else if (m.fonction != Fonction.COUNT) {
+                    long v = champ(s, m.champ);
+                    somme[i] += v;
+                    min[i] = Math.min(min[i], v);
+                    max[i] = Math.max(max[i], v);
+                }
+            }
+        }
+
+        void fusionner(Groupe autre) {
+            nombre += autre.nombre;
+            for (int i = 0; i < distincts.length; i++) {
+                somme[i] += autre.somme[i];
+                min[i] = Math.min(min[i], autre.min[i]);
+                max[i] = Math.max(max[i], autre.max[i]);
+                if (distincts[i] != null) {
+                    distincts[i].fusionner(autre.distincts[i]);
+                }
+            }
+        }
+
+        /** Valeur de la mesure i, formatée (moyenne à deux décimales). */
+        String valeur(int i) {
+            switch (mesures.get(i).fonction) {
+                case COUNT: return String.valueOf(nombre);
+                case SUM: return String.valueOf(somme[i]);
+                case MIN: return String.valueOf(min[i]);
+                case MAX: return String.valueOf(max[i]);
+                case AVG: return String.format(Locale.ROOT, "%.2f", (double) somme[i] / nombre);
+                default: return String.valueOf(distincts[i].estimation());
+            }
+        }
+    }
+
+    private static long champ(Song s, Champ champ) {
+        switch (champ) {
+            case POPULARITE: return s.albumPopularity;
+            case ANNEE: return s.getYear();
+            default: return TriPermutation.duree(s);
+        }
+    }
+
+    private static void distinctes(Song s, Dimension d, HyperLogLog hll) {
+        if (d == Dimension.ARTISTE) {
+            for (String a : s.artists) {
+                hll.ajouter(a);
+            }
+        } else {
+            hll.ajouter(cle(s, d));
+        }
+    }
+
+    private static String cle(Song s, Dimension d) {
+        switch (d) {
+            case ANNEE: return String.valueOf(s.getYear());
+            case TYPE: return s.albumType;
+            case ALBUM: return s.albumName;
+            case TITRE: return s.trackName;
+            default: return "Tout";
+        }
+    }
+
+    /** Ajoute la chanson à son (ou ses) groupe(s). */
+    void ajouter(Map<String, Groupe> groupes, Song s) {
+        if (dimension == Dimension.ARTISTE) {
+            if (s.artists.length == 0) {
+                groupes.computeIfAbsent("Unknown", k -> new Groupe()).ajouter(s);
+            }
+            for (String a : s.artists) {
+                groupes.computeIfAbsent(a, k -> new Groupe()).ajouter(s);
+            }
+        } else {
+            groupes.computeIfAbsent(cle(s, dimension), k -> new Groupe()).ajouter(s);
+        }
+    }
+
+    /** Fusionne la table partielle dans groupes (partielle n'est plus utilisable). */
+    static void fusionner(Map<String, Groupe> groupes, Map<String, Groupe> partielle) {
+        for (Map.Entry<String, Groupe> e : partielle.entrySet()) {
+            Groupe g = groupes.putIfAbsent(e.getKey(), e.getValue());
+            if (g != null) {
+                g.fusionner(e.getValue());
+            }
+        }
+    }
+
+    // ========== CALCUL ==========
+
+    /**
+     * Agrège les chansons en une passe : une tranche par cœur (au moins
+     * TRANCHE_MIN chansons), une table de groupes par tranche, fusion finale.
+     */
+    Map<String, Groupe> calculer(Song[] chansons) {
+        int nbTranches = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(),
+                                                    (long) chansons.length / TRANCHE_MIN));
+        if (nbTranches == 1) {
+            Map<String, Groupe> groupes = new HashMap<>();
+            for (Song s : chansons) {
+                ajouter(groupes, s);
+            }
+            return groupes;
+        }
+        List<Callable<Map<String, Groupe>>> passes = new ArrayList<>();
+        for (int t = 0; t < nbTranches; t++) {
+            int debut = (int) ((long) chansons.length * t / nbTranches);
+            int fin = (int) ((long) chansons.length * (t + 1) / nbTranches);
+            passes.add(() -> {
+                Map<String, Groupe> partielle = new HashMap<>();
+                for (int i = debut; i < fin; i++) {
+                    ajouter(partielle, chansons[i]);
+                }
+                return partielle;
+            });
+        }
+        Map<String, Groupe> groupes = null;
+        try {
+            for (Future<Map<String, Groupe>> f : ForkJoinPool.commonPool().invokeAll(passes)) {
+                if (groupes == null) {
+                    groupes = f.get();
+                } else {
+                    fusionner(groupes, f.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Agrégation interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Agrégation impossible: " + e.getCause(), e.getCause());
+        }
+        return groupes;
+    }
+
+    /**
+     * Groupes triés : par année croissante pour la dimension annee, sinon par
+     * effectif décroissant puis clé croissante.
+     */
+    List<Map.Entry<String, Groupe>> trier(Map<String, Groupe> groupes) {
+        List<Map.Entry<String, Groupe>> r = new ArrayList<>(groupes.entrySet());
+        if (dimension == Dimension.ANNEE) {
+            r.sort((a, b) -> Integer.compare(Integer.parseInt(a.getKey()), Integer.parseInt(b.getKey())));
+        } else {
+            r.sort((a, b) -> a.getValue().nombre != b.getValue().nombre
+                    ? Long.compare(b.getValue().nombre, a.getValue().nombre)
+                    : a.getKey().compareTo(b.getKey()));
+        }
+        return r;
+    }
+
+    /** Tableau console des limite premiers groupes. */
+    void afficher(List<Map.Entry<String, Groupe>> groupes, int limite) {
+        StringBuilder ligne = new StringBuilder(String.format("%-40s", dimension.name()));
+        for (String e : entetes()) {
+            ligne.append(" | ").append(String.format("%16s", e.toUpperCase()));
+        }
+        System.out.println(ligne);
+        System.out.println("-".repeat(ligne.length()));
+        int affiches = Math.min(groupes.size(), limite);
+        for (int i = 0; i < affiches; i++) {
+            Groupe g = groupes.get(i).getValue();
+            String cle = groupes.get(i).getKey();
+            ligne = new StringBuilder(String.format("%-40s", cle.length() > 40 ? cle.substring(0, 37) + "..." : cle));
+            for (int m = 0; m < mesures.size(); m++) {
+                ligne.append(" | ").append(String.format("%16s", g.valeur(m)));
+            }
+            System.out.println(ligne);
+        }
+        if (affiches < groupes.size()) {
+            System.out.println("... (" + (groupes.size() - affiches) + " autres groupes)");
+        }
+    }
+
+    // ========== CUMULS MATÉRIALISÉS ==========
+
+    /**
+     * Agrégation gardée à jour sur toute la liste : chaque chanson chargée y est
+     * ajoutée. Une suppression ne peut pas être retirée d'un min, d'un max ou
+     * d'un HyperLogLog : le cumul est alors marqué périmé et recalculé à la
+     * prochaine lecture.
+     */
+    static final class Cumul {
+        final Agregation agregation;
+        private Map<String, Groupe> groupes = new HashMap<>();
+        private boolean perime = true;
+
+        Cumul(Agregation agregation) {
+            this.agregation = agregation;
+        }
+
+        void ajouter(Song s) {
+            if (!perime) {
+                agregation.ajouter(groupes, s);
+            }
+        }
+
+        void ajouterTous(Collection<Song> chansons) {
+            if (!perime) {
+                for (Song s : chansons) {
+                    agregation.ajouter(groupes, s);
+                }
+            }
+        }
+
+        void perimer() {
+            perime = true;
+            groupes = new HashMap<>();
+        }
+
+        boolean estPerime() {
+            return perime;
+        }
+
+        /** Groupes à jour ; recalculés sur toutes si le cumul est périmé. */
+        Map<String, Groupe> groupes(Collection<Song> toutes) {
+            if (perime) {
+                groupes = agregation.calculer(toutes.toArray(new Song[0]));
+                perime = false;
+            }
+            return groupes;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package musique;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache des sélections de requêtes (filtres, requêtes composées).
+ *
+ * Clé : forme canonique de la requête (Requete.toString), repliée comme les
+ * comparaisons de texte des prédicats. Valeur : les ids sélectionnés sur tout
+ * le catalogue, au plus compact entre un int[] trié (sélections rares) et les
+ * mots du BitSet (sélections denses). Le cache est lié à une version du
+ * catalogue (IndexChansons.version) : tout ajout, retrait ou rechargement le
+ * vide au lookup suivant.
+ *
+ * Éviction LRU dans un budget en octets, avec une admission TinyLFU : quand
+ * il faut évincer, la nouvelle entrée n'entre que si elle a été demandée plus
+ * souvent que la plus ancienne (fréquences estimées par un count-min sketch
+ * de compteurs 4 bits, divisés par deux périodiquement). Une requête ponctuelle
+ * ne chasse donc pas les requêtes répétées d'un tableau de bord.
+ * Sûr entre threads (méthodes synchronisées) : le serveur le partage.
+ */
+final class CacheResultats {
+
+    static final long BUDGET_DEFAUT = 16L << 20;   // 16 Mo de sélections
+    private static final int BITS = 12;            // 2^12 compteurs par ligne du sketch
+    private static final int LARGEUR = 1 << BITS;
+    private static final int[] MULTIPLICATEURS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+    private static final int SURCOUT = 64;         // Octets comptés par entrée en plus des ids
+
+    private static final class Entree {
+        final int[] ids;            // Ids triés, ou null si mots
+        final long[] mots;          // Mots du BitSet, ou null si ids
+        final int octets;
+
+        Entree(BitSet selection) {
+            int n = selection.cardinality();
+            long[] m = selection.toLongArray();
+            if ((long) n * Integer.BYTES <= (long) m.length * Long.BYTES) {
+                ids = selection.stream().toArray();
+                mots = null;
+                octets = SURCOUT + ids.length * Integer.BYTES;
+            } else {
+                ids = null;
+                mots = m;
+                octets = SURCOUT + m.length * Long.BYTES;
+            }
+        }
+
+        /** Nouvelle copie de la sélection (l'appelant peut la modifier). */
+        BitSet selection() {
+            if (mots != null) {
+                return BitSet.valueOf(mots);
+            }
+            BitSet b = new BitSet(ids.length == 0 ? 0 : ids[ids.length - 1] + 1);
+            for (int id : ids) {
+                b.set(id);
+            }
+            return b;
+        }
+    }
+
+    private final long budget;
+    private final LinkedHashMap<String, Entree> entrees = new LinkedHashMap<>(16, 0.75f, true);
+    private final byte[] frequences = new byte[4 * LARGEUR];
+    private int incrementsDepuisDivision;
+    private long occupes;
+    private long version = -1;
+    private long succes, echecs, evictions, refus, invalidations;
+
+    CacheResultats(long budget) {
+        this.budget = budget;
+    }
+
+    /** Clé de cache d'une requête. */
+    static String cle(Requete requete) {
+        return IndexChansons.replier(requete.toString());
+    }
+
+    /**
+     * Sélection mise en cache pour la clé et cette version du catalogue, ou null.
+     * Compte un succès ou un échec.
+     */
+    synchronized BitSet chercher(String cle, long versionCatalogue) {
+        if (versionCatalogue != version) {
+            if (!entrees.isEmpty()) {
+                invalidations++;
+            }
+            vider();
+            version = versionCatalogue;
+        }
+        incrementer(cle);
+        Entree e = entrees.get(cle);
+        if (e == null) {
+            echecs++;
+            return null;
+        }
+        succes++;
+        return e.selection();
+    }
+
+    /** Met en cache la sélection calculée après un échec de chercher(). */
+    synchronized void ranger(String cle, long versionCatalogue, BitSet selection) {
+        if (versionCatalogue != version || entrees.containsKey(cle)) {
+            return;
+        }
+        Entree nouvelle = new Entree(selection);
+        if (nouvelle.octets > budget) {
+            refus++;
+            return;
+        }
+        Iterator<Map.Entry<String, Entree>> it = entrees.entrySet().iterator();
+        boolean admise = false;
+        while (occupes + nouvelle.octets > budget) {
+            Map.Entry<String, Entree> victime = it.next();
+            if (!admise && frequence(victime.getKey()) >= frequence(cle)) {
+                refus++;
+                return;
+            }
+            admise = true;
+            occupes -= victime.getValue().octets;
+            it.remove();
+            evictions++;
+        }
+        entrees.put(cle, nouvelle);
+        occupes += nouvelle.octets;
+    }
+
+    /**
+     * Sélection de la requête sur tout le catalogue : depuis le cache, ou
+     * évaluée puis rangée.
+     */
+    BitSet selection(Requete requete, IndexChansons index) {
+        String cle = cle(requete);
+        long v = index.version();
+        BitSet selection = chercher(cle, v);
+        if (selection == null) {
+            selection = requete.evaluer(index, null);
+            ranger(cle, v, selection);
+        }
+        return selection;
+    }
+
+    synchronized void vider() {
+        entrees.clear();
+        occupes = 0;
+    }
+
+    /** Ex. "12 succès / 15 (80.0 %), 4 entrées, 37 Ko sur 16384 Ko, 0 évictions, ...". */
+    synchronized String resume() {
+        long total = succes + echecs;
+        return succes + " succès / " + total
+            + (total > 0 ? String.format(" (%.1f %%)", 100.0 * succes / total) : "")
+            + ", " + entrees.size() + " entrées, " + (occupes >> 10) + " Ko sur " + (budget >> 10) + " Ko"
+            + ", " + evictions + " évictions, " + refus + " refus, " + invalidations + " invalidations";
+    }
+
+    synchronized void json(StringBuilder sb) {
+        sb.append("{\"succes\": ").append(succes)
+          .append(", \"echecs\": ").append(echecs)
+          .append(", \"entrees\": ").append(entrees.size())
+          .append(", \"octets\": ").append(occupes)
+          .append(", \"budget\": ").append(budget)
+          .append(", \"evictions\": ").append(evictions)
+          .append(", \"refus\": ").append(refus)
+          .append(", \"invalidations\": ").append(invalidations).append('}');
+    }
+
+    // ========== FRÉQUENCES (count-min sketch) ==========
+
+    private int position(String cle, int ligne) {
+        // Bits de poids fort du produit : ils dépendent de tout le hashCode
+        return ligne * LARGEUR + ((cle.hashCode() * MULTIPLICATEURS[ligne]) >>> (32 - BITS));
+    }
+
+    private void incrementer(String cle) {
+        for (int ligne = 0; ligne < 4; ligne++) {
+            int p = position(cle, ligne);
+            if (frequences[p] < 15) {
+                frequences[p]++;
+            }
+        }
+        if (++incrementsDepuisDivision >= 10 * LARGEUR) {
+            // Vieillissement : les anciennes habitudes comptent de moins en moins
+            for (int i = 0; i < frequences.length; i++) {
+                frequences[i] >>= 1;
+            }
+            incrementsDepuisDivision = 0;
+        }
+    }
+
+    private int frequence(String cle) {
+        int min = 15;
+        for (int ligne = 0; ligne < 4; ligne++) {
+            min = Math.min(min, frequences[position(cle, ligne)]);
+        }
+        return min;
+    }
+}
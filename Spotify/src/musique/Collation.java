@@ -0,0 +1,141 @@
+package musique;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Ordre des titres : clés de collation calculées une fois par titre distinct.
+ *
+ * Le titre est replié (même repli de casse que IndexChansons.replier, donc
+ * que equalsIgnoreCase), sans ses accents si demandé (décomposition NFD puis
+ * retrait des diacritiques), puis encodé en UTF-8. La clé garde les 8 premiers
+ * octets dans un long : la plupart des comparaisons se règlent par une
+ * comparaison de long non signée, le reste des octets ne départage que les
+ * titres de même début. L'ordre obtenu est celui des points de code du titre
+ * normalisé ; le tri par titre et la recherche dichotomique l'utilisent tous
+ * les deux, ils sont donc toujours d'accord.
+ *
+ * Chaque instance garde un cache titre -> clé : les titres répétés partagent
+ * leur clé et leur chaîne (interning), sans recalcul.
+ */
+final class Collation {
+
+    /** Collation par défaut (casse ignorée, accents distingués), sans cache. */
+    static final Collation DEFAUT = new Collation(false);
+
+    /** Ordre croissant des titres, par la clé déjà calculée si la chanson en a une. */
+    static final Comparator<Song> PAR_TITRE = (a, b) -> comparer(cle(a), cle(b));
+
+    /** Clé de collation d'un titre (ou d'un nom), comparable en octets non signés. */
+    static final class Cle {
+        final String original;          // Chaîne partagée par tous les titres identiques
+        final long prefixe;             // 8 premiers octets, grand-boutiste, complétés par des 0
+        final byte[] octets;            // Titre normalisé en UTF-8
+        private final int hachage;
+
+        private Cle(String original, byte[] octets) {
+            this.original = original;
+            this.octets = octets;
+            long p = 0;
+            for (int i = 0; i < 8; i++) {
+                p = p << 8 | (i < octets.length ? octets[i] & 0xFF : 0);
+            }
+            this.prefixe = p;
+            this.hachage = Arrays.hashCode(octets);
+        }
+
+        /** Égalité de collation (deux titres qui ne diffèrent que par la casse ou les accents). */
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Cle && ((Cle) o).prefixe == prefixe && Arrays.equals(((Cle) o).octets, octets);
+        }
+
+        @Override
+        public int hashCode() {
+            return hachage;
+        }
+
+        @Override
+        public String toString() {
+            return new String(octets, StandardCharsets.UTF_8);
+        }
+    }
+
+    final boolean ignorerAccents;
+    private final HashMap<String, Cle> cache = new HashMap<>();
+    private final HashMap<String, String> chaines = new HashMap<>();
+
+    Collation(boolean ignorerAccents) {
+        this.ignorerAccents = ignorerAccents;
+    }
+
+    /** Titre replié, sans accents si la collation les ignore. */
+    String normaliser(String s) {
+        String plie = IndexChansons.replier(s);
+        if (!ignorerAccents || ascii(plie)) {
+            return plie;
+        }
+        String nfd = Normalizer.normalize(plie, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(nfd.length());
+        for (int i = 0; i < nfd.length(); i++) {
+            char c = nfd.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Clé d'une chaîne de requête (pas mise en cache). */
+    Cle cle(String s) {
+        return new Cle(s, normaliser(s).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Clé d'un titre chargé, partagée avec les titres identiques déjà vus. */
+    Cle cleInterne(String titre) {
+        Cle c = cache.get(titre);
+        if (c == null) {
+            c = cle(titre);
+            cache.put(titre, c);
+        }
+        return c;
+    }
+
+    /** Exemplaire unique de la chaîne (albums, types, artistes répétés). */
+    String interner(String s) {
+        String deja = chaines.putIfAbsent(s, s);
+        return deja != null ? deja : s;
+    }
+
+    void vider() {
+        cache.clear();
+        chaines.clear();
+    }
+
+    static Cle cle(Song s) {
+        return s.cleTitre != null ? s.cleTitre : DEFAUT.cle(s.trackName);
+    }
+
+    static int comparer(Cle a, Cle b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a.prefixe != b.prefixe) {
+            return Long.compareUnsigned(a.prefixe, b.prefixe);
+        }
+        return Arrays.compareUnsigned(a.octets, Math.min(8, a.octets.length), a.octets.length,
+                                      b.octets, Math.min(8, b.octets.length), b.octets.length);
+    }
+
+    private static boolean ascii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+package musique;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Dictionnaire de chaînes : chaque valeur distincte reçoit un identifiant int
+ * (0, 1, 2...) dans l'ordre de première apparition. Les colonnes de SongTable
+ * ne stockent que ces identifiants.
+ */
+final class DictionnaireChaines {
+
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private String[] chaines = new String[64];
+    private int taille;
+    private int[] rangs;                // Rang de chaque id dans l'ordre de Collation.DEFAUT (calculé à la demande)
+
+    /** Retourne l'id de la chaîne, en l'ajoutant si elle est nouvelle. */
+    int ajouter(String s) {
+        Integer id = ids.get(s);
+        if (id != null) {
+            return id;
+        }
+        if (taille == chaines.length) {
+            chaines = Arrays.copyOf(chaines, taille * 2);
+        }
+        chaines[taille] = s;
+        ids.put(s, taille);
+        rangs = null;
+        return taille++;
+    }
+
+    /** Id de la chaîne, ou -1 si elle est absente. */
+    int chercher(String s) {
+        Integer id = ids.get(s);
+        return id != null ? id : -1;
+    }
+
+    String chaine(int id) {
+        return chaines[id];
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    /**
+     * Rang de chaque id quand les chaînes sont triées par clé de collation
+     * (casse ignorée, comme le tri par titre de Musique) : comparer deux rangs
+     * revient à comparer les chaînes, et deux chaînes égales à la casse près
+     * ont le même rang.
+     */
+    int[] rangs() {
+        if (rangs == null) {
+            Collation.Cle[] cles = new Collation.Cle[taille];
+            Integer[] tries = new Integer[taille];
+            for (int i = 0; i < taille; i++) {
+                cles[i] = Collation.DEFAUT.cle(chaines[i]);
+                tries[i] = i;
+            }
+            Arrays.sort(tries, (a, b) -> Collation.comparer(cles[a], cles[b]));
+            int[] r = new int[taille];
+            for (int i = 0, rang = -1; i < taille; i++) {
+                if (i == 0 || !cles[tries[i]].equals(cles[tries[i - 1]])) {
+                    rang++;
+                }
+                r[tries[i]] = rang;
+            }
+            rangs = r;
+        }
+        return rangs;
+    }
+}
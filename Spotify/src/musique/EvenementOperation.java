@@ -0,0 +1,35 @@
+package musique;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événement JFR émis à la fin de chaque opération mesurée (voir Metriques).
+ * Visible dans JDK Mission Control ou avec
+ *   jfr print --events musique.Operation enregistrement.jfr
+ */
+@Name("musique.Operation")
+@Label("Opération Musique")
+@Category("Musique")
+@Description("Chargement, tri, filtre ou recherche exécuté par Musique ou SongTable")
+final class EvenementOperation extends jdk.jfr.Event {
+
+    @Label("Opération")
+    String operation;
+
+    @Label("Lignes lues")
+    long lignesLues;
+
+    @Label("Lignes produites")
+    long lignesEmises;
+
+    @Label("Comparaisons")
+    long comparaisons;
+
+    @Label("Octets alloués")
+    @DataAmount
+    long octetsAlloues;
+}
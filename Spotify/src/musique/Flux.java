@@ -0,0 +1,540 @@
+package musique;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Mode flux : les chansons du CSV traversent une chaîne d'étapes (filtre,
+ * agrégat, top-N, tri externe) sans jamais être rangées dans une liste.
+ *
+ * La lecture passe par LecteurCsv (fenêtres mappées de 1 Go) : la mémoire
+ * utilisée dépend des étapes (N chansons pour un top-N, une entrée par groupe
+ * pour un agrégat, un bloc pour le tri externe), pas de la taille du fichier.
+ * Le tri externe trie des blocs en mémoire, les déverse dans des fichiers
+ * temporaires puis les fusionne (k voies, plusieurs passes si nécessaire).
+ */
+final class Flux {
+
+    private Flux() {
+    }
+
+    /**
+     * Lit tout le CSV et envoie à l'étape chaque chanson acceptée par le filtre.
+     * @param filtre requête à satisfaire, ou null pour tout garder
+     * @return le nombre de chansons transmises
+     */
+    static long parcourir(String path, Requete filtre, Consumer<Song> etape) throws IOException {
+        return parcourir(path, filtre, etape, false);
+    }
+
+    /**
+     * @param champs true pour garder toutes les colonnes de chaque chanson
+     *               (Song.allFields), à réécrire par EcritureCsv
+     */
+    static long parcourir(String path, Requete filtre, Consumer<Song> etape, boolean champs) throws IOException {
+        long[] transmises = {0};
+        Consumer<Song> sortie = s -> {
+            if (filtre == null || filtre.test(s)) {
+                transmises[0]++;
+                etape.accept(s);
+            }
+        };
+        if (champs) {
+            LecteurCsv.lireComplet(path, sortie);
+        } else {
+            LecteurCsv.lire(path, sortie);
+        }
+        return transmises[0];
+    }
+
+    /** Première ligne du CSV (en-tête), recopiée telle quelle dans les fichiers produits. */
+    static String entete(String path) throws IOException {
+        try (BufferedReader r = Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8)) {
+            String ligne = r.readLine();
+            return ligne != null ? ligne : "";
+        }
+    }
+
+    // ========== TOP-N ==========
+
+    /**
+     * Clé de collation du titre, calculée une fois quand la chanson entre
+     * dans une étape triée par titre : une chanson lue par le flux n'est pas
+     * indexée, et Collation.cle la recalculerait à chaque comparaison.
+     */
+    private static void cleTitre(Song s) {
+        if (s.cleTitre == null) {
+            s.cleTitre = Collation.DEFAUT.cle(s.trackName);
+        }
+    }
+
+    private static boolean parTitre(List<TriPermutation.Cle> cles) {
+        for (TriPermutation.Cle c : cles) {
+            if (c.critere == TriPermutation.Critere.TITRE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Les N premières chansons selon les clés, en O(N) mémoire (tas des N
+     * meilleures, la moins bonne en tête). À égalité, la première lue gagne,
+     * comme avec un tri stable suivi d'une coupe.
+     */
+    static final class TopN implements Consumer<Song> {
+        private final int n;
+        private final Comparator<Song> ordre;
+        private final boolean parTitre;
+        private final PriorityQueue<Entree> tas;
+        private long lues;
+
+        TopN(int n, List<TriPermutation.Cle> cles) {
+            if (n <= 0) {
+                throw new IllegalArgumentException("N doit être positif");
+            }
+            this.n = n;
+            this.ordre = TriPermutation.comparateur(cles);
+            this.parTitre = parTitre(cles);
+            this.tas = new PriorityQueue<>(n, (a, b) -> b.compareTo(a, ordre));
+        }
+
+        @Override
+        public void accept(Song s) {
+            if (parTitre) {
+                cleTitre(s);
+            }
+            long rang = lues++;
+            if (tas.size() < n) {
+                tas.add(new Entree(s, rang));
+            } else if (ordre.compare(s, tas.peek().chanson) < 0) { // Strictement meilleure que la pire
+                tas.poll();
+                tas.add(new Entree(s, rang));
+            }
+        }
+
+        /** Résultat trié (meilleure en premier). */
+        List<Song> resultat() {
+            Entree[] entrees = tas.toArray(new Entree[0]);
+            Arrays.sort(entrees, (a, b) -> a.compareTo(b, ordre));
+            List<Song> resultat = new ArrayList<>(entrees.length);
+            for (Entree e : entrees) {
+                resultat.add(e.chanson);
+            }
+            return resultat;
+        }
+
+        private static final class Entree {
+            final Song chanson;
+            final long rang;
+
+            Entree(Song chanson, long rang) {
+                this.chanson = chanson;
+                this.rang = rang;
+            }
+
+            int compareTo(Entree autre, Comparator<Song> ordre) {
+                int c = ordre.compare(chanson, autre.chanson);
+                return c != 0 ? c : Long.compare(rang, autre.rang);
+            }
+        }
+    }
+
+    // ========== AGRÉGAT ==========
+
+    /**
+     * Nombre de chansons et popularité moyenne par groupe (type, année, artiste
+     * ou album). Une chanson compte pour chacun de ses artistes.
+     */
+    static final class Agregat implements Consumer<Song> {
+        private final String critere;
+        private final HashMap<String, long[]> groupes = new HashMap<>(); // {nombre, somme des popularités}
+
+        Agregat(String critere) {
+            switch (critere) {
+                case "type": case "annee": case "artiste": case "album": break;
+                default: throw new IllegalArgumentException("Critère de regroupement inconnu: '" + critere + "'");
+            }
+            this.critere = critere;
+        }
+
+        @Override
+        public void accept(Song s) {
+            switch (critere) {
+                case "type": compter(s.albumType, s); break;
+                case "annee": compter(String.valueOf(s.getYear()), s); break;
+                case "album": compter(s.albumName, s); break;
+                default:
+                    if (s.artists.length == 0) {
+                        compter("Unknown", s);
+                    }
+                    for (String a : s.artists) {
+                        compter(a, s);
+                    }
+            }
+        }
+
+        private void compter(String cle, Song s) {
+            long[] g = groupes.computeIfAbsent(cle, k -> new long[2]);
+            g[0]++;
+            g[1] += s.albumPopularity;
+        }
+
+        int nbGroupes() {
+            return groupes.size();
+        }
+
+        /** Groupes par effectif décroissant (puis clé croissante). */
+        List<Map.Entry<String, long[]>> resultat() {
+            List<Map.Entry<String, long[]>> r = new ArrayList<>(groupes.entrySet());
+            r.sort((a, b) -> a.getValue()[0] != b.getValue()[0]
+                    ? Long.compare(b.getValue()[0], a.getValue()[0])
+                    : a.getKey().compareTo(b.getKey()));
+            return r;
+        }
+    }
+
+    // ========== TRI EXTERNE ==========
+
+    /**
+     * Tri fusion externe stable. Les chansons sont accumulées par blocs ; un bloc
+     * plein est trié (TimSort, stable) et déversé dans un fichier temporaire.
+     * terminer() fusionne les fichiers (au plus FUSION_MAX à la fois, à égalité
+     * le fichier le plus ancien passe d'abord). Si tout tient dans un bloc, rien
+     * n'est écrit sur le disque.
+     */
+    static final class TriExterne implements Consumer<Song>, AutoCloseable {
+        static final int FUSION_MAX = 64;
+        private static final int TAMPON = 1 << 16;
+
+        private final Comparator<Song> ordre;
+        private final boolean parTitre;
+        private final Song[] bloc;
+        private int nb;
+        private Path dossier;                               // Créé au premier déversement
+        private final List<Morceau> morceaux = new ArrayList<>();
+        private int nbFichiers;
+
+        TriExterne(List<TriPermutation.Cle> cles, int tailleBloc) {
+            this.ordre = TriPermutation.comparateur(cles);
+            this.parTitre = parTitre(cles);
+            this.bloc = new Song[Math.max(tailleBloc, 2)];
+        }
+
+        /** Taille de bloc par défaut : environ un quart du tas, à ~2 Ko par chanson (toutes ses colonnes). */
+        static int tailleBlocDefaut() {
+            return (int) Math.max(10_000, Math.min(1_000_000, Runtime.getRuntime().maxMemory() / 4 / 2048));
+        }
+
+        @Override
+        public void accept(Song s) {
+            if (parTitre) {
+                cleTitre(s);
+            }
+            bloc[nb++] = s;
+            if (nb == bloc.length) {
+                try {
+                    deverser();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        int getNbFichiers() {
+            return nbFichiers;
+        }
+
+        /**
+         * Envoie toutes les chansons reçues, dans l'ordre, à la sortie.
+         * @return le nombre de chansons envoyées
+         */
+        long terminer(Consumer<Song> sortie) throws IOException {
+            if (morceaux.isEmpty()) {
+                Arrays.sort(bloc, 0, nb, ordre);
+                for (int i = 0; i < nb; i++) {
+                    sortie.accept(bloc[i]);
+                }
+                long total = nb;
+                Arrays.fill(bloc, 0, nb, null);
+                nb = 0;
+                return total;
+            }
+            if (nb > 0) {
+                deverser();
+            }
+            // Passes intermédiaires tant qu'il y a trop de fichiers à ouvrir d'un coup
+            while (morceaux.size() > FUSION_MAX) {
+                List<Morceau> suivants = new ArrayList<>();
+                for (int d = 0; d < morceaux.size(); d += FUSION_MAX) {
+                    List<Morceau> groupe = morceaux.subList(d, Math.min(d + FUSION_MAX, morceaux.size()));
+                    Morceau m = nouveauMorceau();
+                    try (DataOutputStream out = sortie(m.fichier)) {
+                        m.nb = fusionner(groupe, s -> ecrire(out, s));
+                    }
+                    for (Morceau g : groupe) {
+                        Files.delete(g.fichier);
+                    }
+                    suivants.add(m);
+                }
+                morceaux.clear();
+                morceaux.addAll(suivants);
+            }
+            return fusionner(morceaux, sortie);
+        }
+
+        /** Supprime les fichiers temporaires. */
+        @Override
+        public void close() throws IOException {
+            for (Morceau m : morceaux) {
+                Files.deleteIfExists(m.fichier);
+            }
+            morceaux.clear();
+            if (dossier != null) {
+                Files.deleteIfExists(dossier);
+                dossier = null;
+            }
+        }
+
+        private void deverser() throws IOException {
+            Arrays.sort(bloc, 0, nb, ordre);
+            Morceau m = nouveauMorceau();
+            try (DataOutputStream out = sortie(m.fichier)) {
+                for (int i = 0; i < nb; i++) {
+                    ecrire(out, bloc[i]);
+                }
+            }
+            m.nb = nb;
+            morceaux.add(m);
+            Arrays.fill(bloc, 0, nb, null); // Libère les chansons du bloc
+            nb = 0;
+        }
+
+        private Morceau nouveauMorceau() throws IOException {
+            if (dossier == null) {
+                dossier = Files.createTempDirectory("musique-tri");
+            }
+            return new Morceau(dossier.resolve("morceau-" + (nbFichiers++) + ".bin"));
+        }
+
+        /** Fusion k voies ; à égalité, le morceau de plus petit numéro d'abord (stabilité). */
+        private long fusionner(List<Morceau> groupe, Consumer<Song> sortie) throws IOException {
+            PriorityQueue<Lecture> tas = new PriorityQueue<>(Math.max(groupe.size(), 1), (a, b) -> {
+                int c = ordre.compare(a.courante, b.courante);
+                return c != 0 ? c : Integer.compare(a.numero, b.numero);
+            });
+            List<Lecture> lectures = new ArrayList<>();
+            long total = 0;
+            try {
+                for (int k = 0; k < groupe.size(); k++) {
+                    Lecture l = new Lecture(groupe.get(k), k, parTitre);
+                    lectures.add(l);
+                    if (l.avancer()) {
+                        tas.add(l);
+                    }
+                }
+                while (!tas.isEmpty()) {
+                    Lecture l = tas.poll();
+                    sortie.accept(l.courante);
+                    total++;
+                    if (l.avancer()) {
+                        tas.add(l);
+                    }
+                }
+            } finally {
+                for (Lecture l : lectures) {
+                    l.in.close();
+                }
+            }
+            return total;
+        }
+
+        private static DataOutputStream sortie(Path fichier) throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(fichier), TAMPON));
+        }
+
+        /** Un fichier trié et son nombre de chansons. */
+        private static final class Morceau {
+            final Path fichier;
+            long nb;
+
+            Morceau(Path fichier) {
+                this.fichier = fichier;
+            }
+        }
+
+        private static final class Lecture {
+            final DataInputStream in;
+            final int numero;
+            final boolean parTitre;
+            long restantes;
+            Song courante;
+
+            Lecture(Morceau m, int numero, boolean parTitre) throws IOException {
+                this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(m.fichier), TAMPON));
+                this.numero = numero;
+                this.parTitre = parTitre;
+                this.restantes = m.nb;
+            }
+
+            boolean avancer() throws IOException {
+                if (restantes == 0) {
+                    courante = null;
+                    return false;
+                }
+                restantes--;
+                courante = lire(in);
+                if (parTitre) {
+                    cleTitre(courante); // Une fois par chanson relue, pas à chaque comparaison du tas
+                }
+                return true;
+            }
+        }
+    }
+
+    // ========== FORMAT DES FICHIERS TEMPORAIRES ==========
+
+    private static void ecrire(DataOutputStream out, Song s) {
+        try {
+            chaine(out, s.trackName);
+            chaine(out, s.albumName);
+            chaine(out, s.albumType);
+            chaine(out, s.releaseDate);
+            chaine(out, s.durationMs);
+            out.writeInt(s.albumPopularity);
+            out.writeInt(s.artists.length);
+            for (String a : s.artists) {
+                chaine(out, a);
+            }
+            out.writeInt(s.allFields != null ? s.allFields.length : -1);
+            if (s.allFields != null) {
+                for (String champ : s.allFields) {
+                    chaine(out, champ);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Song lire(DataInputStream in) throws IOException {
+        String titre = chaine(in), album = chaine(in), type = chaine(in), date = chaine(in), duree = chaine(in);
+        int popularite = in.readInt();
+        String[] artistes = new String[in.readInt()];
+        for (int k = 0; k < artistes.length; k++) {
+            artistes[k] = chaine(in);
+        }
+        Song s = new Song(titre, album, type, date, duree, artistes, popularite);
+        int nbChamps = in.readInt();
+        if (nbChamps >= 0) {
+            s.allFields = new String[nbChamps];
+            for (int k = 0; k < nbChamps; k++) {
+                s.allFields[k] = chaine(in);
+            }
+        }
+        return s;
+    }
+
+    /** Longueur + octets UTF-8 (writeUTF est limité à 64 Ko). */
+    private static void chaine(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String chaine(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // ========== SORTIE CSV ==========
+
+    /**
+     * Écrit les chansons dans un CSV relisible par LecteurCsv. Une chanson lue
+     * avec toutes ses colonnes (Song.allFields) est réécrite telle quelle ;
+     * sinon les colonnes de Song sont remises à leur position et les autres
+     * laissées vides.
+     */
+    static final class EcritureCsv implements Consumer<Song>, AutoCloseable {
+        private final BufferedWriter out;
+        private final String[] champs = new String[LecteurCsv.NB_COLONNES];
+
+        EcritureCsv(Path fichier, String entete) throws IOException {
+            out = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8);
+            out.write(entete);
+            out.write("\r\n");
+        }
+
+        @Override
+        public void accept(Song s) {
+            if (s.allFields != null) {
+                ecrireLigne(s.allFields);
+                return;
+            }
+            Arrays.fill(champs, "");
+            champs[0] = s.trackName;
+            champs[3] = s.durationMs;
+            champs[4] = s.albumType;
+            champs[7] = s.albumName;
+            champs[8] = s.releaseDate;
+            champs[10] = String.valueOf(s.albumPopularity);
+            for (int k = 0; k < s.artists.length && 13 + k < champs.length; k++) {
+                champs[13 + k] = s.artists[k];
+            }
+            ecrireLigne(champs);
+        }
+
+        private void ecrireLigne(String[] valeurs) {
+            try {
+                for (int i = 0; i < valeurs.length; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    champ(valeurs[i]);
+                }
+                out.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /** Champ entre guillemets (guillemets doublés) s'il contient , " ou un retour à la ligne. */
+        private void champ(String v) throws IOException {
+            boolean quoter = false;
+            for (int i = 0; i < v.length() && !quoter; i++) {
+                char c = v.charAt(i);
+                quoter = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quoter) {
+                out.write(v);
+                return;
+            }
+            out.write('"');
+            out.write(v.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package musique;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Modèle normalisé des artistes : un id entier par artiste (nom replié) et
+ * trois adjacences au format CSR (début[i] .. début[i+1] dans un tableau plat) :
+ *  - chanson -> artistes (indexé par id de chanson) ;
+ *  - artiste -> chansons, par popularité décroissante (le top d'un artiste
+ *    est un préfixe) ;
+ *  - artiste -> collaborateurs directs, avec le nombre de chansons communes.
+ *
+ * Construit en une passe sur les chansons actives d'IndexChansons pour une
+ * version donnée ; les requêtes ne comparent plus de chaînes, seulement des
+ * ids. Immuable une fois construit (partageable entre threads).
+ */
+final class GrapheArtistes {
+
+    /** Artiste atteint par collaborateurs() : distance en sauts, et par qui. */
+    static final class Collaborateur {
+        final String nom;
+        final int distance;
+        final String via;           // Collaborateur de distance - 1 qui y mène
+        final int communs;          // Chansons communes avec via
+
+        Collaborateur(String nom, int distance, String via, int communs) {
+            this.nom = nom;
+            this.distance = distance;
+            this.via = via;
+            this.communs = communs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-30s | %d saut%s | %3d chanson%s avec %s", nom, distance, distance > 1 ? "s" : " ",
+                communs, communs > 1 ? "s" : " ", via);
+        }
+    }
+
+    final long version;
+    private final String[] noms;                        // Id -> nom (première graphie rencontrée)
+    private final HashMap<String, Integer> parNom;      // Nom replié -> id
+    private final int[] debutChanson, artistesChanson;  // Chanson -> artistes
+    private final int[] debutArtiste, chansonsArtiste;  // Artiste -> chansons (popularité décroissante)
+    private final int[] debutVoisins, voisins, communs; // Artiste -> collaborateurs
+
+    GrapheArtistes(IndexChansons index) {
+        version = index.version();
+        int n = index.taille();
+        parNom = new HashMap<>();
+        List<String> listeNoms = new ArrayList<>();
+
+        // Chanson -> artistes (sans doublon dans une même chanson)
+        debutChanson = new int[n + 1];
+        IntListe liens = new IntListe(n * 2);
+        for (int id = 0; id < n; id++) {
+            debutChanson[id] = liens.taille();
+            if (!index.estActif(id)) {
+                continue;
+            }
+            for (String nom : index.chanson(id).artists) {
+                int a = parNom.computeIfAbsent(IndexChansons.replier(nom), k -> {
+                    listeNoms.add(nom);
+                    return listeNoms.size() - 1;
+                });
+                boolean deja = false;
+                for (int k = debutChanson[id]; k < liens.taille(); k++) {
+                    deja |= liens.get(k) == a;
+                }
+                if (!deja) {
+                    liens.ajouter(a);
+                }
+            }
+        }
+        debutChanson[n] = liens.taille();
+        artistesChanson = liens.copie();
+        noms = listeNoms.toArray(new String[0]);
+        int nbArtistes = noms.length;
+
+        // Artiste -> chansons : tri par dénombrement sur l'artiste, puis chaque
+        // segment par (popularité décroissante, id) encodés dans un long
+        debutArtiste = new int[nbArtistes + 1];
+        for (int a : artistesChanson) {
+            debutArtiste[a + 1]++;
+        }
+        for (int a = 0; a < nbArtistes; a++) {
+            debutArtiste[a + 1] += debutArtiste[a];
+        }
+        long[] cles = new long[artistesChanson.length];
+        int[] place = Arrays.copyOf(debutArtiste, nbArtistes);
+        for (int id = 0; id < n; id++) {
+            long rang = (long) (Integer.MAX_VALUE - index.chanson(id).albumPopularity) << 32 | id;
+            for (int k = debutChanson[id]; k < debutChanson[id + 1]; k++) {
+                cles[place[artistesChanson[k]]++] = rang;
+            }
+        }
+        chansonsArtiste = new int[cles.length];
+        for (int a = 0; a < nbArtistes; a++) {
+            Arrays.sort(cles, debutArtiste[a], debutArtiste[a + 1]);
+        }
+        for (int k = 0; k < cles.length; k++) {
+            chansonsArtiste[k] = (int) cles[k];
+        }
+
+        // Artiste -> collaborateurs : compteur par co-artiste, remis à zéro après chaque artiste
+        debutVoisins = new int[nbArtistes + 1];
+        IntListe listeVoisins = new IntListe(), listeCommuns = new IntListe();
+        int[] compte = new int[nbArtistes];
+        IntListe touches = new IntListe();
+        for (int a = 0; a < nbArtistes; a++) {
+            debutVoisins[a] = listeVoisins.taille();
+            for (int k = debutArtiste[a]; k < debutArtiste[a + 1]; k++) {
+                int id = chansonsArtiste[k];
+                for (int j = debutChanson[id]; j < debutChanson[id + 1]; j++) {
+                    int b = artistesChanson[j];
+                    if (b != a && compte[b]++ == 0) {
+                        touches.ajouter(b);
+                    }
+                }
+            }
+            for (int t = 0; t < touches.taille(); t++) {
+                int b = touches.get(t);
+                listeVoisins.ajouter(b);
+                listeCommuns.ajouter(compte[b]);
+                compte[b] = 0;
+            }
+            touches.vider();
+        }
+        debutVoisins[nbArtistes] = listeVoisins.taille();
+        voisins = listeVoisins.copie();
+        communs = listeCommuns.copie();
+    }
+
+    // ========== REQUÊTES ==========
+
+    int nbArtistes() {
+        return noms.length;
+    }
+
+    int nbCollaborations() {
+        return voisins.length / 2;
+    }
+
+    /** Id de l'artiste (casse ignorée), ou -1. */
+    int artiste(String nom) {
+        Integer a = parNom.get(IndexChansons.replier(nom.trim()));
+        return a == null ? -1 : a;
+    }
+
+    String nom(int a) {
+        return noms[a];
+    }
+
+    /** Nombre de chansons actives de l'artiste. */
+    int nbChansons(int a) {
+        return debutArtiste[a + 1] - debutArtiste[a];
+    }
+
+    /** Ids des chansons de l'artiste, par popularité décroissante (à égalité, ordre de chargement). */
+    int[] chansons(int a) {
+        return Arrays.copyOfRange(chansonsArtiste, debutArtiste[a], debutArtiste[a + 1]);
+    }
+
+    /**
+     * Artistes à au plus sauts collaborations de a (parcours en largeur),
+     * par distance puis par nombre de chansons communes décroissant.
+     * @param limite nombre maximal de résultats
+     */
+    List<Collaborateur> collaborateurs(int a, int sauts, int limite) {
+        List<Collaborateur> resultat = new ArrayList<>();
+        int[] distance = new int[noms.length];
+        Arrays.fill(distance, -1);
+        distance[a] = 0;
+        int[] niveau = {a};
+        for (int d = 1; d <= sauts && niveau.length > 0 && resultat.size() < limite; d++) {
+            // Premier découvreur de chaque artiste du niveau d, avec le poids du lien
+            IntListe suivants = new IntListe(), via = new IntListe(), poids = new IntListe();
+            for (int x : niveau) {
+                for (int k = debutVoisins[x]; k < debutVoisins[x + 1]; k++) {
+                    int b = voisins[k];
+                    if (distance[b] < 0) {
+                        distance[b] = d;
+                        suivants.ajouter(b);
+                        via.ajouter(x);
+                        poids.ajouter(communs[k]);
+                    }
+                }
+            }
+            Integer[] ordre = new Integer[suivants.taille()];
+            for (int i = 0; i < ordre.length; i++) {
+                ordre[i] = i;
+            }
+            Arrays.sort(ordre, (i, j) -> Integer.compare(poids.get(j), poids.get(i)));
+            for (int i = 0; i < ordre.length && resultat.size() < limite; i++) {
+                resultat.add(new Collaborateur(noms[suivants.get(ordre[i])], d, noms[via.get(ordre[i])], poids.get(ordre[i])));
+            }
+            niveau = suivants.copie();
+        }
+        return resultat;
+    }
+}
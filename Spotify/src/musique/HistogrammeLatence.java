@@ -0,0 +1,93 @@
+package musique;
+
+/**
+ * Histogramme de latences à précision relative fixe (même principe que
+ * HdrHistogram) : les valeurs < 64 ont chacune leur case, au-delà chaque
+ * puissance de 2 est découpée en 32 cases, soit une erreur d'au plus ~3 %
+ * sur toute l'étendue d'un long, pour 1920 compteurs.
+ *
+ * Non synchronisé : c'est au propriétaire (Metriques) de sérialiser les accès.
+ */
+final class HistogrammeLatence {
+
+    private static final int BITS_EXACTS = 6;                     // Valeurs 0..63 exactes
+    private static final int SOUS_CASES = 1 << (BITS_EXACTS - 1); // 32 cases par puissance de 2
+    private static final int NB_CASES = (1 << BITS_EXACTS) + (64 - BITS_EXACTS) * SOUS_CASES;
+
+    private final long[] compteurs = new long[NB_CASES];
+    private long nombre;
+    private long somme;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    void enregistrer(long valeur) {
+        long v = Math.max(valeur, 0);
+        compteurs[caseDe(v)]++;
+        nombre++;
+        somme += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    long nombre() {
+        return nombre;
+    }
+
+    long min() {
+        return nombre == 0 ? 0 : min;
+    }
+
+    long max() {
+        return max;
+    }
+
+    double moyenne() {
+        return nombre == 0 ? 0 : (double) somme / nombre;
+    }
+
+    /**
+     * Valeur sous laquelle se trouvent p % des mesures (borne haute de la
+     * case, limitée au maximum observé).
+     */
+    long percentile(double p) {
+        if (nombre == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(p / 100.0 * nombre));
+        long cumul = 0;
+        for (int c = 0; c < NB_CASES; c++) {
+            cumul += compteurs[c];
+            if (cumul >= rang) {
+                return Math.min(borneHaute(c), max);
+            }
+        }
+        return max;
+    }
+
+    void vider() {
+        java.util.Arrays.fill(compteurs, 0);
+        nombre = 0;
+        somme = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    static int caseDe(long v) {
+        if (v < (1 << BITS_EXACTS)) {
+            return (int) v;
+        }
+        int bitFort = 63 - Long.numberOfLeadingZeros(v);      // >= BITS_EXACTS
+        int decalage = bitFort - (BITS_EXACTS - 1);           // Garde les 6 bits de tête
+        return (1 << BITS_EXACTS) + (decalage - 1) * SOUS_CASES + (int) ((v >>> decalage) - SOUS_CASES);
+    }
+
+    static long borneHaute(int c) {
+        if (c < (1 << BITS_EXACTS)) {
+            return c;
+        }
+        int decalage = (c - (1 << BITS_EXACTS)) / SOUS_CASES + 1;
+        long tete = (c - (1 << BITS_EXACTS)) % SOUS_CASES + SOUS_CASES;
+        long borne = ((tete + 1) << decalage) - 1;
+        return borne < 0 ? Long.MAX_VALUE : borne;
+    }
+}
@@ -0,0 +1,125 @@
+package musique;
+
+/**
+ * Nombre approximatif de valeurs distinctes (HyperLogLog, Flajolet et al.).
+ *
+ * Les petits ensembles gardent leurs hachages 64 bits dans une table ouverte
+ * (compte exact, quelques dizaines d'octets) ; au-delà de SEUIL_CREUX ils
+ * passent en représentation dense : 2^PRECISION registres d'un octet, erreur
+ * type 1,04 / sqrt(2^PRECISION) ≈ 1,6 %. La plupart des groupes (un artiste,
+ * un album) restent creux, seuls les gros groupes paient les 4 Ko.
+ * Deux estimateurs se fusionnent sans perte (max des registres), ce qui
+ * permet de calculer des agrégats partiels en parallèle.
+ */
+final class HyperLogLog {
+
+    static final int PRECISION = 12;
+    private static final int NB_REGISTRES = 1 << PRECISION;
+    static final int SEUIL_CREUX = 128;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / NB_REGISTRES);
+
+    private long[] creux = new long[8];     // Hachages (0 = case vide), null une fois dense
+    private int nbCreux;
+    private byte[] registres;               // null tant que creux
+
+    /** Hachage 64 bits d'une chaîne (FNV-1a sur les caractères puis mélange). */
+    static long hacher(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    void ajouter(String valeur) {
+        ajouterHachage(hacher(valeur));
+    }
+
+    private void ajouterHachage(long h) {
+        if (registres != null) {
+            int j = (int) (h >>> (64 - PRECISION));
+            byte rang = (byte) (Long.numberOfLeadingZeros(h << PRECISION | 1L << (PRECISION - 1)) + 1);
+            if (registres[j] < rang) {
+                registres[j] = rang;
+            }
+            return;
+        }
+        if (h == 0) {
+            h = 1;
+        }
+        int masque = creux.length - 1;
+        for (int i = (int) h & masque; ; i = (i + 1) & masque) {
+            if (creux[i] == h) {
+                return;
+            }
+            if (creux[i] == 0) {
+                creux[i] = h;
+                break;
+            }
+        }
+        if (++nbCreux > SEUIL_CREUX) {
+            densifier();
+        } else if (nbCreux * 2 > creux.length) {
+            long[] anciens = creux;
+            creux = new long[anciens.length * 2];
+            nbCreux = 0;
+            for (long a : anciens) {
+                if (a != 0) {
+                    ajouterHachage(a);
+                }
+            }
+        }
+    }
+
+    private void densifier() {
+        long[] anciens = creux;
+        creux = null;
+        registres = new byte[NB_REGISTRES];
+        for (long a : anciens) {
+            if (a != 0) {
+                ajouterHachage(a);
+            }
+        }
+    }
+
+    /** Ajoute les valeurs vues par autre (autre n'est pas modifié). */
+    void fusionner(HyperLogLog autre) {
+        if (autre.registres == null) {
+            for (long a : autre.creux) {
+                if (a != 0) {
+                    ajouterHachage(a);
+                }
+            }
+            return;
+        }
+        if (registres == null) {
+            densifier();
+        }
+        for (int j = 0; j < NB_REGISTRES; j++) {
+            if (registres[j] < autre.registres[j]) {
+                registres[j] = autre.registres[j];
+            }
+        }
+    }
+
+    long estimation() {
+        if (registres == null) {
+            return nbCreux;
+        }
+        double somme = 0;
+        int vides = 0;
+        for (byte r : registres) {
+            somme += Math.scalb(1.0, -r);
+            if (r == 0) {
+                vides++;
+            }
+        }
+        double e = ALPHA * NB_REGISTRES * NB_REGISTRES / somme;
+        if (e <= 2.5 * NB_REGISTRES && vides > 0) {
+            e = NB_REGISTRES * Math.log((double) NB_REGISTRES / vides); // Comptage linéaire
+        }
+        return Math.round(e);
+    }
+}
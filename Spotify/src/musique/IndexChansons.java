@@ -0,0 +1,462 @@
+package musique;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index secondaires sur les chansons chargées.
+ *
+ * Chaque chanson reçoit un id (ordre d'arrivée) ; les index associent une clé à
+ * la liste des ids concernés :
+ *  - titre replié (insensible à la casse) -> ids, table de hachage ;
+ *  - nom d'artiste replié -> ids (index inversé sur Song.artists) ;
+ *  - album replié -> ids, trié pour les requêtes par préfixe ;
+ *  - type d'album replié -> ids ;
+ *  - année -> ids (un seau par année).
+ * Les clés distinctes de titre, artiste et album alimentent aussi un index de
+ * trigrammes (IndexTrigrammes) pour les recherches de sous-chaînes.
+ * Les chansons supprimées de la liste sont marquées dans retires, ce qui évite
+ * de reconstruire les index.
+ * À l'indexation, chaque chanson reçoit la clé de collation de son titre
+ * (Collation, partagée entre titres identiques) et ses chaînes répétées
+ * (titre, album, type, artistes) sont remplacées par un exemplaire unique.
+ */
+final class IndexChansons {
+
+    static final String SANS_ARTISTE = replier("Unknown"); // Valeur de getArtistsString() sans artiste
+
+    // Numéros des index à clé texte (ordre de sérialisation dans Instantane)
+    static final int TITRES = 0, ARTISTES = 1, ALBUMS = 2, TYPES = 3, NB_TABLES = 4;
+
+    private final ArrayList<Song> parId = new ArrayList<>();
+    private final BitSet retires = new BitSet();
+    private final HashMap<String, IntListe> titres = new HashMap<>();
+    private final HashMap<String, IntListe> artistes = new HashMap<>();
+    private final TreeMap<String, IntListe> albums = new TreeMap<>();
+    private final HashMap<String, IntListe> types = new HashMap<>();
+    private final TreeMap<Integer, IntListe> annees = new TreeMap<>();
+    private final IndexTrigrammes texteTitres = new IndexTrigrammes();
+    private final IndexTrigrammes texteArtistes = new IndexTrigrammes();
+    private final IndexTrigrammes texteAlbums = new IndexTrigrammes();
+
+    private Collation collation = new Collation(false);
+    private Collation.Cle[] titresTries; // Clés de titre distinctes triées (recherche dichotomique), null si à refaire
+    private IntListe[] idsTries;         // Ids actifs de chaque clé de titresTries
+    private ListeSauts sautsTitres;      // Même ordre, tenu à jour à chaque ajout ; null tant qu'inutilisé
+    private HashMap<String, IntListe> identites; // Identité -> ids actifs (doublons), construit au premier delta
+    private int dernieresComparaisons;
+    private long version;                // Change à chaque ajout, retrait ou vidage (CacheResultats)
+    private GrapheArtistes graphe;       // Artistes et collaborations, refait si la version a changé
+
+    /**
+     * Repli de casse caractère par caractère, identique à celui de
+     * equalsIgnoreCase. Retourne s lui-même si rien ne change.
+     */
+    static String replier(String s) {
+        int i = 0;
+        while (i < s.length() && plier(s.charAt(i)) == s.charAt(i)) {
+            i++;
+        }
+        if (i == s.length()) {
+            return s;
+        }
+        char[] cs = s.toCharArray();
+        for (; i < cs.length; i++) {
+            cs[i] = plier(cs[i]);
+        }
+        return new String(cs);
+    }
+
+    private static char plier(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    // ========== MISE À JOUR ==========
+
+    /**
+     * Attribue un id à la chanson et l'ajoute à tous les index. La chanson
+     * est modifiée (id, clé de titre, chaînes) : elle ne doit appartenir qu'à
+     * cet index (copier avec new Song(Song) sinon).
+     */
+    void ajouter(Song s) {
+        int id = parId.size();
+        s.id = id;
+        parId.add(s);
+        version++;
+        interner(s);
+
+        poster(titres, texteTitres, replier(s.trackName), id);
+        if (s.artists.length == 0) {
+            poster(artistes, texteArtistes, SANS_ARTISTE, id);
+        }
+        for (String artiste : s.artists) {
+            poster(artistes, texteArtistes, replier(artiste), id);
+        }
+        poster(albums, texteAlbums, replier(s.albumName), id);
+        poster(types, null, replier(s.albumType), id);
+        annees.computeIfAbsent(s.getYear(), k -> new IntListe()).ajouter(id);
+        titresTries = null;
+        if (sautsTitres != null) {
+            sautsTitres.ajouter(s.cleTitre, id);
+        }
+        if (identites != null) {
+            identites.computeIfAbsent(identite(s), k -> new IntListe(1)).ajouter(id);
+        }
+    }
+
+    void ajouterTous(List<Song> chansons) {
+        for (Song s : chansons) {
+            ajouter(s);
+        }
+    }
+
+    /** La chanson n'est plus dans la liste : elle est ignorée par les requêtes. */
+    void retirer(Song s) {
+        retires.set(s.id);
+        version++;
+        if (identites != null) {
+            String cle = identite(s);
+            IntListe ids = identites.get(cle);
+            if (ids != null && ids.retirer(s.id) && ids.estVide()) {
+                identites.remove(cle); // Sinon la copie restante la plus récente reprend l'identité
+            }
+        }
+    }
+
+    /**
+     * Identité d'un morceau pour les fichiers delta (le CSV n'a pas d'id de
+     * piste) : titre, artistes et album repliés.
+     */
+    static String identite(Song s) {
+        StringBuilder sb = new StringBuilder(replier(s.trackName)).append('\u001F');
+        for (String a : s.artists) {
+            sb.append(replier(a)).append('\u001E');
+        }
+        return sb.append('\u001F').append(replier(s.albumName)).toString();
+    }
+
+    /**
+     * Chanson active de même identité (la dernière chargée en cas de doublon), ou null.
+     * La table des identités est construite au premier appel puis tenue à jour.
+     */
+    Song parIdentite(Song s) {
+        if (identites == null) {
+            identites = new HashMap<>(parId.size() * 2);
+            for (int id = 0; id < parId.size(); id++) {
+                if (!retires.get(id)) {
+                    identites.computeIfAbsent(identite(parId.get(id)), k -> new IntListe(1)).ajouter(id);
+                }
+            }
+        }
+        IntListe ids = identites.get(identite(s));
+        return ids == null ? null : parId.get(ids.get(ids.taille() - 1));
+    }
+
+    void vider() {
+        version++;
+        parId.clear();
+        retires.clear();
+        titres.clear();
+        artistes.clear();
+        albums.clear();
+        types.clear();
+        annees.clear();
+        texteTitres.vider();
+        texteArtistes.vider();
+        texteAlbums.vider();
+        collation.vider();
+        titresTries = null;
+        sautsTitres = null;
+        graphe = null;
+        identites = null;
+    }
+
+    // ========== COLLATION ==========
+
+    /** Clé de titre et chaînes uniques de la chanson. */
+    private void interner(Song s) {
+        Collation.Cle cle = collation.cleInterne(s.trackName);
+        s.trackName = cle.original;
+        s.cleTitre = cle;
+        s.albumName = collation.interner(s.albumName);
+        s.albumType = collation.interner(s.albumType);
+        for (int i = 0; i < s.artists.length; i++) {
+            s.artists[i] = collation.interner(s.artists[i]);
+        }
+    }
+
+    Collation getCollation() {
+        return collation;
+    }
+
+    /** Change la collation des titres et recalcule la clé de chaque chanson. */
+    void changerCollation(boolean ignorerAccents) {
+        collation = new Collation(ignorerAccents);
+        for (Song s : parId) {
+            interner(s);
+        }
+        titresTries = null;
+        sautsTitres = null;
+    }
+
+    // ========== INSTANTANÉ ==========
+
+    /** Index à clé texte numéro t (TITRES, ARTISTES, ALBUMS ou TYPES). */
+    Map<String, IntListe> table(int t) {
+        switch (t) {
+            case TITRES: return titres;
+            case ARTISTES: return artistes;
+            case ALBUMS: return albums;
+            default: return types;
+        }
+    }
+
+    Map<Integer, IntListe> tableAnnees() {
+        return annees;
+    }
+
+    /**
+     * Reprend des chansons et des index déjà calculés (lus dans un instantané)
+     * sans rien recalculer par chanson : les ids sont les positions dans la liste.
+     * L'index doit être vide.
+     */
+    void restaurer(List<Song> chansons, String[][] cles, IntListe[][] ids, int[] anneesCles, IntListe[] anneesIds) {
+        version++;
+        for (Song s : chansons) {
+            s.id = parId.size();
+            parId.add(s);
+            interner(s);
+        }
+        for (int t = 0; t < NB_TABLES; t++) {
+            Map<String, IntListe> table = table(t);
+            IndexTrigrammes texte = t == TITRES ? texteTitres : t == ARTISTES ? texteArtistes
+                                  : t == ALBUMS ? texteAlbums : null;
+            for (int k = 0; k < cles[t].length; k++) {
+                table.put(cles[t][k], ids[t][k]);
+                if (texte != null) {
+                    texte.ajouterCle(cles[t][k], ids[t][k]);
+                }
+            }
+        }
+        for (int k = 0; k < anneesCles.length; k++) {
+            annees.put(anneesCles[k], anneesIds[k]);
+        }
+        titresTries = null;
+        sautsTitres = null;
+        identites = null;
+    }
+
+    /** Ajoute l'id à la liste de la clé ; une nouvelle clé est aussi indexée par trigrammes. */
+    private static void poster(Map<String, IntListe> index, IndexTrigrammes texte, String cle, int id) {
+        IntListe ids = index.get(cle);
+        if (ids == null) {
+            ids = new IntListe(2);
+            index.put(cle, ids);
+            if (texte != null) {
+                texte.ajouterCle(cle, ids);
+            }
+        }
+        if (ids.estVide() || ids.get(ids.taille() - 1) != id) { // Ex. artiste répété sur la même chanson
+            ids.ajouter(id);
+        }
+    }
+
+    // ========== REQUÊTES ==========
+
+    int taille() {
+        return parId.size();
+    }
+
+    long version() {
+        return version;
+    }
+
+    /** Graphe des artistes de cette version, construit au premier appel (sûr entre threads). */
+    synchronized GrapheArtistes graphe() {
+        if (graphe == null || graphe.version != version) {
+            graphe = new GrapheArtistes(this);
+        }
+        return graphe;
+    }
+
+    Song chanson(int id) {
+        return parId.get(id);
+    }
+
+    boolean estActif(int id) {
+        return !retires.get(id);
+    }
+
+    int getDernieresComparaisons() {
+        return dernieresComparaisons;
+    }
+
+    /**
+     * Première chanson (ordre de chargement) dont le titre est égal, casse ignorée. O(1).
+     * @param vue ids admissibles, ou null pour toutes les chansons actives
+     */
+    Song chercherTitre(String titre, BitSet vue) {
+        return premiere(titres.get(replier(titre)), vue);
+    }
+
+    /**
+     * Recherche dichotomique sur les clés de collation distinctes triées
+     * (même ordre que le tri par titre) : ne dépend pas de l'ordre de la
+     * liste. O(log n) comparaisons, la plupart sur le préfixe long des clés.
+     */
+    Song rechercheDichotomique(String titre, BitSet vue) {
+        if (titresTries == null) {
+            trierTitres();
+        }
+        Collation.Cle cle = collation.cle(titre);
+        int left = 0, right = titresTries.length - 1;
+        dernieresComparaisons = 0;
+        while (left <= right) {
+            dernieresComparaisons++;
+            int mid = left + (right - left) / 2;
+            int cmp = Collation.comparer(titresTries[mid], cle);
+            if (cmp == 0) {
+                return premiere(idsTries[mid], vue);
+            } else if (cmp < 0) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Même recherche sur la liste à sauts des titres, construite au premier
+     * appel puis prolongée par chaque ajout : pas de tri à refaire après un
+     * chargement incrémental. O(log n) comparaisons en moyenne.
+     */
+    Song rechercheListeSauts(String titre, BitSet vue) {
+        if (sautsTitres == null) {
+            sautsTitres = new ListeSauts();
+            for (int id = 0; id < parId.size(); id++) {
+                sautsTitres.ajouter(parId.get(id).cleTitre, id);
+            }
+        }
+        IntListe ids = sautsTitres.chercher(collation.cle(titre));
+        dernieresComparaisons = sautsTitres.getDernieresComparaisons();
+        return premiere(ids, vue);
+    }
+
+    /** Regroupe les chansons actives par clé de titre puis trie les clés distinctes. */
+    private void trierTitres() {
+        HashMap<Collation.Cle, IntListe> groupes = new HashMap<>();
+        for (int id = 0; id < parId.size(); id++) {
+            if (!retires.get(id)) {
+                groupes.computeIfAbsent(parId.get(id).cleTitre, k -> new IntListe(1)).ajouter(id);
+            }
+        }
+        Collation.Cle[] cles = groupes.keySet().toArray(new Collation.Cle[0]);
+        Arrays.sort(cles, Collation::comparer);
+        IntListe[] ids = new IntListe[cles.length];
+        for (int i = 0; i < cles.length; i++) {
+            ids[i] = groupes.get(cles[i]);
+        }
+        titresTries = cles;
+        idsTries = ids;
+    }
+
+    /** Chansons dont l'album commence par le préfixe (casse ignorée). */
+    List<Song> albumsParPrefixe(String prefixe, BitSet vue) {
+        String cle = replier(prefixe);
+        List<Song> resultat = new ArrayList<>();
+        for (IntListe ids : albums.subMap(cle, cle + Character.MAX_VALUE).values()) {
+            ajouterActives(ids, vue, resultat);
+        }
+        return resultat;
+    }
+
+    /**
+     * Ids sélectionnés par un critère de filtreJava, avec la même sémantique
+     * (sous-chaîne sans casse pour titre/album/artiste, égalité pour type/annee).
+     * Les sous-chaînes d'au moins 3 caractères passent par l'index de trigrammes ;
+     * les plus courtes sont comparées une fois par clé distincte.
+     * @return null si le critère ne peut pas être servi par les index
+     */
+    BitSet selection(String critere, String valeur) {
+        String aiguille = replier(valeur);
+        BitSet ids = new BitSet(parId.size());
+        switch (critere) {
+            case "titre":
+                contenant(texteTitres, titres, aiguille, ids);
+                break;
+            case "album":
+                contenant(texteAlbums, albums, aiguille, ids);
+                break;
+            case "artiste":
+                if (aiguille.contains(",") || aiguille.startsWith(" ") || aiguille.endsWith(" ")) {
+                    return null; // Peut chevaucher deux artistes dans getArtistsString()
+                }
+                contenant(texteArtistes, artistes, aiguille, ids);
+                break;
+            case "type":
+                union(types.get(aiguille), ids);
+                break;
+            case "annee":
+                try {
+                    union(annees.get(Integer.parseInt(valeur.trim())), ids);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                break;
+            default:
+                return null;
+        }
+        ids.andNot(retires);
+        return ids;
+    }
+
+    private static void contenant(IndexTrigrammes texte, Map<String, IntListe> index, String aiguille, BitSet ids) {
+        if (texte.selection(aiguille, ids)) {
+            return;
+        }
+        for (Map.Entry<String, IntListe> e : index.entrySet()) {
+            if (e.getKey().contains(aiguille)) {
+                union(e.getValue(), ids);
+            }
+        }
+    }
+
+    private static void union(IntListe liste, BitSet ids) {
+        if (liste == null) {
+            return;
+        }
+        int[] t = liste.tableau();
+        for (int i = 0; i < liste.taille(); i++) {
+            ids.set(t[i]);
+        }
+    }
+
+    private boolean admis(int id, BitSet vue) {
+        return !retires.get(id) && (vue == null || vue.get(id));
+    }
+
+    private Song premiere(IntListe ids, BitSet vue) {
+        if (ids != null) {
+            for (int i = 0; i < ids.taille(); i++) {
+                if (admis(ids.get(i), vue)) {
+                    return parId.get(ids.get(i));
+                }
+            }
+        }
+        return null;
+    }
+
+    private void ajouterActives(IntListe ids, BitSet vue, List<Song> resultat) {
+        for (int i = 0; i < ids.taille(); i++) {
+            if (admis(ids.get(i), vue)) {
+                resultat.add(parId.get(ids.get(i)));
+            }
+        }
+    }
+}
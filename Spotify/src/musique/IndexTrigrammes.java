@@ -0,0 +1,166 @@
+package musique;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Index plein texte par trigrammes pour les recherches de sous-chaînes.
+ *
+ * L'index porte sur les clés distinctes (déjà repliées) d'un index de
+ * IndexChansons : chaque clé reçoit un numéro, et chaque trigramme de la clé
+ * pointe vers la liste croissante des numéros de clés qui le contiennent.
+ * Une requête intersecte les listes des trigrammes de l'aiguille, vérifie les
+ * clés candidates avec String.contains (aucune allocation par ligne), puis
+ * ajoute les ids de chansons de chaque clé retenue.
+ */
+final class IndexTrigrammes {
+
+    private static final long VIDE = -1L;
+
+    private final ArrayList<String> cles = new ArrayList<>();
+    private final ArrayList<IntListe> idsParCle = new ArrayList<>();
+
+    // Table de hachage ouverte : trigramme (3 caractères sur 48 bits) -> liste de numéros de clés
+    private long[] trigrammes = nouvelleTable(1 << 12);
+    private IntListe[] postings = new IntListe[1 << 12];
+    private int nbTrigrammes;
+
+    /** Enregistre une nouvelle clé distincte et la liste d'ids qui lui est associée. */
+    void ajouterCle(String clePliee, IntListe ids) {
+        int numero = cles.size();
+        cles.add(clePliee);
+        idsParCle.add(ids);
+        for (int i = 0; i + 3 <= clePliee.length(); i++) {
+            IntListe posting = posting(trigramme(clePliee, i), true);
+            if (posting.estVide() || posting.get(posting.taille() - 1) != numero) {
+                posting.ajouter(numero);
+            }
+        }
+    }
+
+    void vider() {
+        cles.clear();
+        idsParCle.clear();
+        trigrammes = nouvelleTable(1 << 12);
+        postings = new IntListe[1 << 12];
+        nbTrigrammes = 0;
+    }
+
+    int nbCles() {
+        return cles.size();
+    }
+
+    /**
+     * Ajoute à sortie les ids des clés qui contiennent l'aiguille (déjà repliée).
+     * @return false si l'aiguille est trop courte (moins de 3 caractères)
+     */
+    boolean selection(String aiguillePliee, BitSet sortie) {
+        int m = aiguillePliee.length();
+        if (m < 3) {
+            return false;
+        }
+
+        // Listes des trigrammes de l'aiguille, de la plus courte à la plus longue
+        IntListe[] listes = new IntListe[m - 2];
+        for (int i = 0; i + 3 <= m; i++) {
+            listes[i] = posting(trigramme(aiguillePliee, i), false);
+            if (listes[i] == null) {
+                return true; // Un trigramme absent : aucun résultat
+            }
+        }
+        Arrays.sort(listes, (a, b) -> Integer.compare(a.taille(), b.taille()));
+
+        int[] candidats = listes[0].copie();
+        int nb = candidats.length;
+        for (int k = 1; k < listes.length && nb > 0; k++) {
+            nb = intersecter(candidats, nb, listes[k]);
+        }
+
+        for (int i = 0; i < nb; i++) {
+            if (cles.get(candidats[i]).contains(aiguillePliee)) {
+                IntListe ids = idsParCle.get(candidats[i]);
+                int[] t = ids.tableau();
+                for (int j = 0; j < ids.taille(); j++) {
+                    sortie.set(t[j]);
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Intersection en place de candidats[0..nb) avec une liste croissante. */
+    private static int intersecter(int[] candidats, int nb, IntListe liste) {
+        int[] t = liste.tableau();
+        int n = liste.taille();
+        int i = 0, j = 0, k = 0;
+        while (i < nb && j < n) {
+            if (candidats[i] < t[j]) {
+                i++;
+            } else if (candidats[i] > t[j]) {
+                j++;
+            } else {
+                candidats[k++] = candidats[i++];
+                j++;
+            }
+        }
+        return k;
+    }
+
+    private static long trigramme(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    // ========== TABLE DE HACHAGE OUVERTE ==========
+
+    private IntListe posting(long tri, boolean creer) {
+        int masque = trigrammes.length - 1;
+        int i = hacher(tri) & masque;
+        while (trigrammes[i] != VIDE) {
+            if (trigrammes[i] == tri) {
+                return postings[i];
+            }
+            i = (i + 1) & masque;
+        }
+        if (!creer) {
+            return null;
+        }
+        if ((nbTrigrammes + 1) * 2 > trigrammes.length) {
+            agrandir();
+            return posting(tri, true);
+        }
+        trigrammes[i] = tri;
+        postings[i] = new IntListe(2);
+        nbTrigrammes++;
+        return postings[i];
+    }
+
+    private void agrandir() {
+        long[] anciens = trigrammes;
+        IntListe[] anciennes = postings;
+        trigrammes = nouvelleTable(anciens.length * 2);
+        postings = new IntListe[anciens.length * 2];
+        int masque = trigrammes.length - 1;
+        for (int k = 0; k < anciens.length; k++) {
+            if (anciens[k] != VIDE) {
+                int i = hacher(anciens[k]) & masque;
+                while (trigrammes[i] != VIDE) {
+                    i = (i + 1) & masque;
+                }
+                trigrammes[i] = anciens[k];
+                postings[i] = anciennes[k];
+            }
+        }
+    }
+
+    private static int hacher(long tri) {
+        long h = tri * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long[] nouvelleTable(int taille) {
+        long[] t = new long[taille];
+        Arrays.fill(t, VIDE);
+        return t;
+    }
+}
@@ -0,0 +1,358 @@
+package musique;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané binaire d'un CSV chargé, rangé à côté du CSV (fichier.csv.snap).
+ *
+ * Le fichier reprend le format en colonnes de SongTable : dictionnaires de
+ * chaînes (UTF-8 + tableau d'offsets), puis une colonne d'ids par champ et les
+ * artistes au format CSR. Les index d'IndexChansons (listes d'ids par clé et
+ * par année) suivent s'ils couvraient exactement ce fichier. Tous les entiers
+ * sont en big-endian (ordre de DataOutputStream et de ByteBuffer).
+ *
+ * À la lecture, le fichier est mappé et les colonnes copiées en bloc : aucun
+ * découpage de texte, chaque chaîne distincte est décodée une seule fois et
+ * partagée par toutes les chansons qui l'utilisent.
+ *
+ * L'en-tête contient la version du format et la taille, la date de
+ * modification et le CRC32 du CSV source : l'instantané n'est utilisé que si
+ * le CSV n'a pas changé (taille identique, et date identique ou même CRC).
+ */
+final class Instantane {
+
+    static final String EXTENSION = ".snap";
+    static final int VERSION = 1;
+    private static final long MAGIQUE = 0x5341455F534E4150L;  // "SAE_SNAP"
+    private static final int TAILLE_ENTETE = 56;
+    private static final int AVEC_INDEX = 1;                 // Drapeau : sections d'index présentes
+
+    /** En-tête du fichier (56 octets). */
+    private static final class Entete {
+        int version;
+        int drapeaux;
+        long tailleSource;
+        long dateSource;
+        long crcSource;
+        int nbChansons;
+        long tailleFichier;
+    }
+
+    static Path chemin(String csv) {
+        return Path.of(csv + EXTENSION);
+    }
+
+    /** Vrai si un instantané à jour existe pour ce CSV. */
+    static boolean valide(String csv) {
+        try {
+            return entete(csv) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // ========== ÉCRITURE ==========
+
+    /**
+     * Écrit l'instantané des chansons lues dans le CSV (fichier temporaire puis
+     * remplacement atomique).
+     * @param index index dont les ids sont exactement les positions dans chansons, ou null
+     * @param suivi taille et CRC du CSV déjà calculés au chargement, ou null pour les calculer
+     * @return la taille du fichier écrit
+     */
+    static long ecrire(String csv, List<Song> chansons, IndexChansons index, SuiviFichier suivi) throws IOException {
+        Path source = Path.of(csv);
+        if (suivi == null) {
+            suivi = SuiviFichier.suivre(csv);
+        }
+        Path cible = chemin(csv);
+        Path temp = cible.resolveSibling(cible.getFileName() + ".tmp");
+
+        DictionnaireChaines titres = new DictionnaireChaines();
+        DictionnaireChaines albums = new DictionnaireChaines();
+        DictionnaireChaines types = new DictionnaireChaines();
+        DictionnaireChaines dates = new DictionnaireChaines();
+        DictionnaireChaines durees = new DictionnaireChaines();
+        DictionnaireChaines noms = new DictionnaireChaines();
+
+        int n = chansons.size();
+        int[] titre = new int[n], album = new int[n], type = new int[n], date = new int[n];
+        int[] duree = new int[n], popularite = new int[n], artistesDebut = new int[n + 1];
+        IntListe artistes = new IntListe(n);
+        int i = 0;
+        for (Song s : chansons) {
+            titre[i] = titres.ajouter(s.trackName);
+            album[i] = albums.ajouter(s.albumName);
+            type[i] = types.ajouter(s.albumType);
+            date[i] = dates.ajouter(s.releaseDate);
+            duree[i] = durees.ajouter(s.durationMs);
+            popularite[i] = s.albumPopularity;
+            for (String nom : s.artists) {
+                artistes.ajouter(noms.ajouter(nom));
+            }
+            artistesDebut[++i] = artistes.taille();
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeLong(MAGIQUE);
+            out.writeInt(VERSION);
+            out.writeInt(index != null ? AVEC_INDEX : 0);
+            out.writeLong(suivi.fin);
+            out.writeLong(Files.getLastModifiedTime(source).toMillis());
+            out.writeLong(suivi.crc);
+            out.writeInt(n);
+            out.writeInt(0);
+            out.writeLong(0);                       // Taille du fichier, complétée à la fin
+
+            for (DictionnaireChaines d : new DictionnaireChaines[] {titres, albums, types, dates, durees, noms}) {
+                String[] valeurs = new String[d.taille()];
+                for (int k = 0; k < valeurs.length; k++) {
+                    valeurs[k] = d.chaine(k);
+                }
+                ecrireChaines(out, valeurs);
+            }
+            for (int[] colonne : new int[][] {titre, album, type, date, duree, popularite, artistesDebut}) {
+                ecrireEntiers(out, colonne, colonne.length);
+            }
+            ecrireEntiers(out, artistes.tableau(), artistes.taille());
+
+            if (index != null) {
+                for (int t = 0; t < IndexChansons.NB_TABLES; t++) {
+                    Map<String, IntListe> table = index.table(t);
+                    ecrireChaines(out, table.keySet().toArray(new String[0]));
+                    ecrirePostings(out, table.values());
+                }
+                Map<Integer, IntListe> annees = index.tableAnnees();
+                out.writeInt(annees.size());
+                for (int annee : annees.keySet()) {
+                    out.writeInt(annee);
+                }
+                ecrirePostings(out, annees.values());
+            }
+        }
+
+        long taille = Files.size(temp);
+        try (FileChannel canal = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(8).putLong(0, taille), TAILLE_ENTETE - 8);
+        }
+        Files.move(temp, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return taille;
+    }
+
+    /** Nombre de chaînes, offsets de fin cumulés (n+1), puis les octets UTF-8. */
+    private static void ecrireChaines(DataOutputStream out, String[] valeurs) throws IOException {
+        byte[][] octets = new byte[valeurs.length][];
+        out.writeInt(valeurs.length);
+        int offset = 0;
+        out.writeInt(0);
+        for (int k = 0; k < valeurs.length; k++) {
+            octets[k] = valeurs[k].getBytes(StandardCharsets.UTF_8);
+            offset += octets[k].length;
+            out.writeInt(offset);
+        }
+        for (byte[] b : octets) {
+            out.write(b);
+        }
+    }
+
+    /** Listes d'ids au format CSR : débuts cumulés (k+1) puis tous les ids. */
+    private static void ecrirePostings(DataOutputStream out, Iterable<IntListe> listes) throws IOException {
+        int total = 0;
+        out.writeInt(0);
+        for (IntListe ids : listes) {
+            total += ids.taille();
+            out.writeInt(total);
+        }
+        for (IntListe ids : listes) {
+            ecrireEntiers(out, ids.tableau(), ids.taille());
+        }
+    }
+
+    private static void ecrireEntiers(DataOutputStream out, int[] t, int n) throws IOException {
+        for (int k = 0; k < n; k++) {
+            out.writeInt(t[k]);
+        }
+    }
+
+    // ========== LECTURE ==========
+
+    /**
+     * Lit l'instantané du CSV. Les chansons sont ajoutées à index : les index
+     * sauvegardés sont repris tels quels si index est vide, sinon les chansons
+     * sont indexées une par une.
+     * @throws IOException si l'instantané est absent, périmé ou invalide
+     */
+    static List<Song> lire(String csv, IndexChansons index) throws IOException {
+        Entete entete = entete(csv);
+        if (entete == null) {
+            throw new IOException("Instantané absent ou périmé: " + chemin(csv));
+        }
+        if (entete.tailleFichier > Integer.MAX_VALUE) {
+            throw new IOException("Instantané trop grand pour un seul mappage");
+        }
+
+        List<Song> chansons;
+        String[][] cles = new String[IndexChansons.NB_TABLES][];
+        IntListe[][] postings = new IntListe[IndexChansons.NB_TABLES][];
+        int[] anneesCles = null;
+        IntListe[] anneesIds = null;
+
+        try (FileChannel canal = FileChannel.open(chemin(csv), StandardOpenOption.READ)) {
+            ByteBuffer buf = canal.map(FileChannel.MapMode.READ_ONLY, 0, entete.tailleFichier);
+            buf.position(TAILLE_ENTETE);
+
+            String[] titres = chaines(buf), albums = chaines(buf), types = chaines(buf);
+            String[] dates = chaines(buf), durees = chaines(buf), noms = chaines(buf);
+            int n = entete.nbChansons;
+            int[] titre = entiers(buf, n), album = entiers(buf, n), type = entiers(buf, n);
+            int[] date = entiers(buf, n), duree = entiers(buf, n), popularite = entiers(buf, n);
+            int[] artistesDebut = entiers(buf, n + 1);
+            int[] artistes = entiers(buf, artistesDebut[n]);
+
+            Song[] lues = new Song[n];
+            String[] aucun = new String[0];
+            for (int i = 0; i < n; i++) {
+                int d = artistesDebut[i], f = artistesDebut[i + 1];
+                String[] liste = d == f ? aucun : new String[f - d];
+                for (int k = d; k < f; k++) {
+                    liste[k - d] = noms[artistes[k]];
+                }
+                lues[i] = new Song(titres[titre[i]], albums[album[i]], types[type[i]], dates[date[i]],
+                                   durees[duree[i]], liste, popularite[i]);
+            }
+            chansons = Arrays.asList(lues);
+
+            if ((entete.drapeaux & AVEC_INDEX) != 0 && index.taille() == 0) {
+                for (int t = 0; t < IndexChansons.NB_TABLES; t++) {
+                    cles[t] = chaines(buf);
+                    postings[t] = postings(buf, cles[t].length);
+                }
+                anneesCles = entiers(buf, buf.getInt());
+                anneesIds = postings(buf, anneesCles.length);
+            }
+        }
+
+        // Rien n'est modifié avant que tout le fichier ait été lu sans erreur
+        if (anneesIds != null) {
+            index.restaurer(chansons, cles, postings, anneesCles, anneesIds);
+        } else {
+            index.ajouterTous(chansons);
+        }
+        return chansons;
+    }
+
+    private static String[] chaines(ByteBuffer buf) {
+        int n = buf.getInt();
+        int[] fins = entiers(buf, n + 1);
+        byte[] octets = new byte[fins[n]];
+        buf.get(octets);
+        String[] valeurs = new String[n];
+        for (int k = 0; k < n; k++) {
+            valeurs[k] = new String(octets, fins[k], fins[k + 1] - fins[k], StandardCharsets.UTF_8);
+        }
+        return valeurs;
+    }
+
+    private static IntListe[] postings(ByteBuffer buf, int k) {
+        int[] debuts = entiers(buf, k + 1);
+        IntBuffer ids = buf.asIntBuffer();
+        IntListe[] listes = new IntListe[k];
+        for (int j = 0; j < k; j++) {
+            int[] t = new int[debuts[j + 1] - debuts[j]];
+            ids.get(t);
+            listes[j] = IntListe.envelopper(t);
+        }
+        buf.position(buf.position() + 4 * debuts[k]);
+        return listes;
+    }
+
+    /** Copie en bloc de n entiers depuis la position courante. */
+    private static int[] entiers(ByteBuffer buf, int n) {
+        int[] t = new int[n];
+        buf.asIntBuffer().get(t);
+        buf.position(buf.position() + 4 * n);
+        return t;
+    }
+
+    // ========== VALIDATION ==========
+
+    /**
+     * Suivi du CSV repris de l'en-tête de l'instantané qui vient d'être lu :
+     * taille et CRC du CSV sans le relire. Null si l'en-tête ne correspond
+     * plus à la taille du CSV.
+     */
+    static SuiviFichier suivi(String csv) {
+        try {
+            Entete e = lireEntete(csv);
+            return e == null || e.tailleSource != Files.size(Path.of(csv)) ? null
+                 : new SuiviFichier(csv, e.tailleSource, e.crcSource);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** En-tête de l'instantané s'il est complet et correspond au CSV actuel, sinon null. */
+    private static Entete entete(String csv) throws IOException {
+        Path source = Path.of(csv);
+        Entete e = lireEntete(csv);
+        if (e == null || e.tailleSource != Files.size(source)) {
+            return null;
+        }
+        if (e.dateSource != Files.getLastModifiedTime(source).toMillis() && e.crcSource != crc(source)) {
+            return null; // Date différente (copie, touch...) : seul un CRC identique le rend valide
+        }
+        return e;
+    }
+
+    /** En-tête lu tel quel (fichiers présents, instantané complet, bonne version), sans le comparer au CSV. */
+    private static Entete lireEntete(String csv) throws IOException {
+        Path source = Path.of(csv);
+        Path fichier = chemin(csv);
+        if (!Files.isRegularFile(source) || !Files.isRegularFile(fichier)) {
+            return null;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(TAILLE_ENTETE);
+        long tailleReelle;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            tailleReelle = canal.size();
+            while (buf.hasRemaining() && canal.read(buf) >= 0) {
+                // Lecture complète de l'en-tête
+            }
+        }
+        if (buf.hasRemaining() || buf.getLong(0) != MAGIQUE) {
+            return null;
+        }
+
+        Entete e = new Entete();
+        e.version = buf.getInt(8);
+        e.drapeaux = buf.getInt(12);
+        e.tailleSource = buf.getLong(16);
+        e.dateSource = buf.getLong(24);
+        e.crcSource = buf.getLong(32);
+        e.nbChansons = buf.getInt(40);
+        e.tailleFichier = buf.getLong(48);
+        return e.version == VERSION && e.tailleFichier == tailleReelle ? e : null;
+    }
+
+    /** CRC32 de tout le fichier (même calcul que SuiviFichier). */
+    static long crc(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            return SuiviFichier.crc(canal, 0, canal.size(), new CRC32()).getValue();
+        }
+    }
+}
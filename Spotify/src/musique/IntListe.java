@@ -0,0 +1,74 @@
+package musique;
+
+import java.util.Arrays;
+
+/**
+ * Liste d'int extensible (sans boxing), utilisée pour les listes d'ids des index.
+ */
+final class IntListe {
+
+    private int[] valeurs;
+    private int taille;
+
+    IntListe() {
+        this(4);
+    }
+
+    IntListe(int capacite) {
+        valeurs = new int[Math.max(capacite, 1)];
+    }
+
+    private IntListe(int[] valeurs, int taille) {
+        this.valeurs = valeurs;
+        this.taille = taille;
+    }
+
+    /** Liste pleine reprenant le tableau tel quel (sans copie). */
+    static IntListe envelopper(int[] valeurs) {
+        return new IntListe(valeurs.length > 0 ? valeurs : new int[1], valeurs.length);
+    }
+
+    void ajouter(int v) {
+        if (taille == valeurs.length) {
+            valeurs = Arrays.copyOf(valeurs, taille * 2);
+        }
+        valeurs[taille++] = v;
+    }
+
+    /** Retire la dernière occurrence de v en gardant l'ordre des autres ; faux si absente. */
+    boolean retirer(int v) {
+        for (int i = taille - 1; i >= 0; i--) {
+            if (valeurs[i] == v) {
+                System.arraycopy(valeurs, i + 1, valeurs, i, taille - i - 1);
+                taille--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int get(int i) {
+        return valeurs[i];
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    boolean estVide() {
+        return taille == 0;
+    }
+
+    void vider() {
+        taille = 0;
+    }
+
+    /** Tableau interne (valide sur [0, taille())), sans copie. */
+    int[] tableau() {
+        return valeurs;
+    }
+
+    int[] copie() {
+        return Arrays.copyOf(valeurs, taille);
+    }
+}
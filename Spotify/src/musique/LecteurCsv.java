@@ -0,0 +1,490 @@
+package musique;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Lecteur CSV mappé en mémoire (FileChannel.map).
+ *
+ * Les octets sont parcourus directement par un automate compatible RFC 4180
+ * (champs entre guillemets, "" échappés, retours à la ligne dans les guillemets).
+ * Seules les colonnes utilisées par Song sont décodées en String ; la popularité
+ * est lue directement depuis les octets.
+ *
+ * Une instance n'est pas thread-safe (tampons réutilisés d'une ligne à l'autre).
+ */
+final class LecteurCsv {
+
+    static final int NB_COLONNES = 25;          // Colonnes 0 à 24 (artistes en 13-24)
+    static final int MIN_CHAMPS = 10;           // Même seuil que charger()
+    static final int COLONNE_OPERATION = NB_COLONNES; // Colonne en plus des fichiers delta (upsert/delete)
+    private static final long FENETRE = 1L << 30; // Taille max d'un mappage (1 Go)
+    private static final long MORCEAU_MIN = 1L << 20; // Pas de découpage en dessous de 1 Mo
+    private static final int PAS_ALIGNEMENT = 1 << 16;
+
+    // États de l'automate
+    static final int DEBUT_CHAMP = 0;           // Au début d'un champ
+    static final int NON_QUOTE = 1;             // Dans un champ sans guillemets
+    static final int QUOTE = 2;                 // Dans un champ entre guillemets
+    static final int QUOTE_FERMANTE = 3;        // Guillemet lu dans un champ entre guillemets
+
+    // Bornes des champs notés : les NB_COLONNES + 1 premiers, tous avec avecChamps
+    private int[] debutChamp = new int[NB_COLONNES + 1];
+    private int[] finChamp = new int[NB_COLONNES + 1];
+    private boolean[] guillemets = new boolean[NB_COLONNES + 1];
+    private int nbChamps;
+    private byte[] tampon = new byte[256];
+    private int lignesAcceptees;
+    private boolean avecOperation;              // Décoder COLONNE_OPERATION (fichiers delta)
+    private boolean avecChamps;                 // Garder toutes les colonnes dans Song.allFields
+    private String derniereOperation = "";
+
+    int getLignesAcceptees() {
+        return lignesAcceptees;
+    }
+
+    /**
+     * Lit tout le fichier par fenêtres mappées successives et envoie chaque Song
+     * valide (au moins MIN_CHAMPS champs) à la sortie. L'en-tête est ignoré.
+     * @return le nombre de chansons envoyées
+     */
+    static int lire(String path, Consumer<Song> sortie) throws IOException {
+        LecteurCsv lecteur = new LecteurCsv();
+        try (FileChannel canal = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            lecteur.parcourir(canal, 0, canal.size(), true, true, sortie);
+        }
+        return lecteur.lignesAcceptees;
+    }
+
+    /**
+     * Comme lire, mais chaque Song garde aussi toutes ses colonnes dans
+     * allFields, y compris celles au-delà des NB_COLONNES connues : utilisé
+     * par le mode flux pour réécrire les lignes d'origine.
+     * @return le nombre de chansons envoyées
+     */
+    static int lireComplet(String path, Consumer<Song> sortie) throws IOException {
+        LecteurCsv lecteur = new LecteurCsv();
+        lecteur.avecChamps = true;
+        try (FileChannel canal = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            lecteur.parcourir(canal, 0, canal.size(), true, true, sortie);
+        }
+        return lecteur.lignesAcceptees;
+    }
+
+    /**
+     * Lit les enregistrements ajoutés à partir de l'octet depart (début
+     * d'enregistrement, après l'en-tête) jusqu'à taille. Un dernier
+     * enregistrement sans \n final n'est pas lu : il peut être en cours d'écriture.
+     * @return la position qui suit le dernier enregistrement lu
+     */
+    static long lireAjouts(String path, long depart, long taille, Consumer<Song> sortie) throws IOException {
+        try (FileChannel canal = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            return new LecteurCsv().parcourir(canal, depart, Math.min(taille, canal.size()), false, false, sortie);
+        }
+    }
+
+    /**
+     * Lit un fichier delta : colonnes habituelles puis une colonne operation
+     * ("upsert" ou "delete", vide = upsert), transmise avec chaque chanson.
+     * @return le nombre de lignes envoyées
+     */
+    static int lireDelta(String path, BiConsumer<Song, String> sortie) throws IOException {
+        LecteurCsv lecteur = new LecteurCsv();
+        lecteur.avecOperation = true;
+        try (FileChannel canal = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            lecteur.parcourir(canal, 0, canal.size(), true, true, s -> sortie.accept(s, lecteur.derniereOperation));
+        }
+        return lecteur.lignesAcceptees;
+    }
+
+    /**
+     * Analyse [position, taille) par fenêtres mappées successives.
+     * @param entete true si position est au début du fichier (en-tête à sauter)
+     * @param finFichier true si le dernier enregistrement peut ne pas finir par \n
+     * @return la position qui suit le dernier enregistrement lu
+     */
+    private long parcourir(FileChannel canal, long position, long taille, boolean entete, boolean finFichier,
+                           Consumer<Song> sortie) throws IOException {
+        while (position < taille) {
+            int longueur = (int) Math.min(FENETRE, taille - position);
+            boolean dernier = position + longueur == taille;
+            MappedByteBuffer buf = canal.map(FileChannel.MapMode.READ_ONLY, position, longueur);
+
+            int debut = 0;
+            if (entete) {
+                debut = lireEnregistrement(buf, 0, longueur, dernier && finFichier);
+                if (debut < 0) {
+                    if (dernier) {
+                        return position; // En-tête seul et incomplet
+                    }
+                    throw new IOException("En-tête plus grand que la fenêtre de mappage");
+                }
+                entete = false;
+            }
+
+            int consomme = analyser(buf, debut, longueur, dernier && finFichier, sortie);
+            if (consomme == 0 && !dernier) {
+                throw new IOException("Enregistrement plus grand que la fenêtre de mappage");
+            }
+            position += consomme;
+            if (dernier && consomme < longueur) {
+                break; // Enregistrement incomplet en fin de zone
+            }
+        }
+        return position;
+    }
+
+    // ========== LECTURE PARALLÈLE ==========
+
+    /**
+     * Lit le fichier en parallèle : il est découpé en morceaux alignés sur des
+     * débuts d'enregistrement (en tenant compte des retours à la ligne entre
+     * guillemets), chaque morceau est analysé par un worker du ForkJoinPool, puis
+     * les lots sont ajoutés à la cible dans l'ordre du fichier.
+     * @return le nombre de chansons ajoutées
+     */
+    static int lireParallele(String path, int parallelisme, List<Song> cible) throws IOException {
+        try (FileChannel canal = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long taille = canal.size();
+            int nbMorceaux = (int) Math.min(Math.max(parallelisme * 4L, taille / (FENETRE / 2) + 1),
+                                            Math.max(1, taille / MORCEAU_MIN));
+            if (nbMorceaux <= 1) {
+                return lire(path, cible::add);
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(parallelisme);
+            try {
+                // 1. Découpage brut et effet de chaque morceau sur l'automate
+                long[] bornes = new long[nbMorceaux + 1];
+                for (int k = 0; k <= nbMorceaux; k++) {
+                    bornes[k] = taille * k / nbMorceaux;
+                }
+                List<Callable<int[]>> passes = new ArrayList<>();
+                for (int k = 0; k < nbMorceaux; k++) {
+                    long debut = bornes[k];
+                    int longueur = (int) (bornes[k + 1] - debut);
+                    passes.add(() -> transitions(canal.map(FileChannel.MapMode.READ_ONLY, debut, longueur), 0, longueur));
+                }
+                List<int[]> effets = attendre(pool.invokeAll(passes));
+
+                // 2. État réel au début de chaque morceau, puis alignement sur
+                //    le premier enregistrement qui commence après la borne brute
+                long[] alignes = new long[nbMorceaux + 1];
+                alignes[0] = aligner(canal, 0, taille, DEBUT_CHAMP); // Saute l'en-tête
+                int etat = DEBUT_CHAMP;
+                for (int k = 1; k < nbMorceaux; k++) {
+                    etat = effets.get(k - 1)[etat];
+                    alignes[k] = Math.max(aligner(canal, bornes[k], taille, etat), alignes[k - 1]);
+                }
+                alignes[nbMorceaux] = taille;
+
+                // 3. Analyse des morceaux en parallèle
+                List<Callable<List<Song>>> analyses = new ArrayList<>();
+                for (int k = 0; k < nbMorceaux; k++) {
+                    long debut = alignes[k];
+                    int longueur = (int) (alignes[k + 1] - debut);
+                    analyses.add(() -> {
+                        List<Song> lot = new ArrayList<>();
+                        if (longueur > 0) {
+                            MappedByteBuffer buf = canal.map(FileChannel.MapMode.READ_ONLY, debut, longueur);
+                            new LecteurCsv().analyser(buf, 0, longueur, true, lot::add);
+                        }
+                        return lot;
+                    });
+                }
+
+                // 4. Fusion dans l'ordre d'origine
+                int count = 0;
+                for (List<Song> lot : attendre(pool.invokeAll(analyses))) {
+                    cible.addAll(lot);
+                    count += lot.size();
+                }
+                return count;
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Effet des octets [debut, limite) sur l'automate : case i = état final
+     * obtenu en partant de l'état i. Les quatre parcours sont menés ensemble
+     * tant qu'ils n'ont pas convergé.
+     */
+    static int[] transitions(ByteBuffer buf, int debut, int limite) {
+        int e0 = DEBUT_CHAMP, e1 = NON_QUOTE, e2 = QUOTE, e3 = QUOTE_FERMANTE;
+        int i = debut;
+        while (i < limite) {
+            int fin = Math.min(limite, i + 4096);
+            for (; i < fin; i++) {
+                byte b = buf.get(i);
+                e0 = transition(e0, b);
+                e1 = transition(e1, b);
+                e2 = transition(e2, b);
+                e3 = transition(e3, b);
+            }
+            if (e0 == e1 && e1 == e2 && e2 == e3) {
+                int e = avancer(buf, i, limite, e0);
+                return new int[] {e, e, e, e};
+            }
+        }
+        return new int[] {e0, e1, e2, e3};
+    }
+
+    /** Position qui suit la première fin d'enregistrement à partir de debut. */
+    private static long aligner(FileChannel canal, long debut, long taille, int etat) throws IOException {
+        long position = debut;
+        while (position < taille) {
+            int longueur = (int) Math.min(PAS_ALIGNEMENT, taille - position);
+            MappedByteBuffer buf = canal.map(FileChannel.MapMode.READ_ONLY, position, longueur);
+            for (int i = 0; i < longueur; i++) {
+                byte b = buf.get(i);
+                if (b == '\n' && etat != QUOTE) {
+                    return position + i + 1;
+                }
+                etat = transition(etat, b);
+            }
+            position += longueur;
+        }
+        return taille;
+    }
+
+    private static <T> List<T> attendre(List<Future<T>> futures) throws IOException {
+        List<T> resultats = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                resultats.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lecture parallèle interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Erreur pendant la lecture parallèle", e.getCause());
+        }
+        return resultats;
+    }
+
+    /**
+     * Analyse les enregistrements complets de buf entre debut et limite.
+     * debut doit être aligné sur un début d'enregistrement.
+     * @param finFichier true si limite correspond à la fin du fichier
+     *                   (le dernier enregistrement peut alors ne pas finir par \n)
+     * @return la position qui suit le dernier enregistrement complet lu
+     */
+    int analyser(ByteBuffer buf, int debut, int limite, boolean finFichier, Consumer<Song> sortie) {
+        int position = debut;
+        while (position < limite) {
+            int suivant = lireEnregistrement(buf, position, limite, finFichier);
+            if (suivant < 0) {
+                break; // Enregistrement incomplet : sera relu dans la fenêtre suivante
+            }
+            if (nbChamps >= MIN_CHAMPS) {
+                sortie.accept(construire(buf));
+                lignesAcceptees++;
+            }
+            position = suivant;
+        }
+        return position;
+    }
+
+    /**
+     * Lit un enregistrement à partir de debut en notant les bornes des champs.
+     * @return la position après le \n final, ou -1 si l'enregistrement est incomplet
+     */
+    @SuppressWarnings("fallthrough")
+    int lireEnregistrement(ByteBuffer buf, int debut, int limite, boolean finFichier) {
+        nbChamps = 0;
+        int champ = debut;
+        int etat = DEBUT_CHAMP;
+
+        for (int i = debut; i < limite; i++) {
+            byte b = buf.get(i);
+            switch (etat) {
+                case QUOTE:
+                    if (b == '"') etat = QUOTE_FERMANTE;
+                    break;
+                case QUOTE_FERMANTE:
+                    if (b == '"') {
+                        etat = QUOTE; // "" échappé
+                        break;
+                    }
+                    // fallthrough : le champ entre guillemets est terminé
+                default:
+                    if (b == ',') {
+                        noterChamp(buf, champ, i, false);
+                        champ = i + 1;
+                        etat = DEBUT_CHAMP;
+                    } else if (b == '\n') {
+                        noterChamp(buf, champ, i, true);
+                        return i + 1;
+                    } else if (etat == DEBUT_CHAMP) {
+                        etat = (b == '"') ? QUOTE : NON_QUOTE;
+                    } else if (etat == QUOTE_FERMANTE) {
+                        etat = NON_QUOTE; // Caractères après le guillemet fermant : conservés
+                    }
+            }
+        }
+
+        if (finFichier && limite > debut) {
+            noterChamp(buf, champ, limite, true);
+            return limite;
+        }
+        return -1;
+    }
+
+    /**
+     * Fait avancer l'automate de l'état donné sur les octets [debut, limite)
+     * et retourne l'état final (utilisé pour aligner des découpages).
+     */
+    static int avancer(ByteBuffer buf, int debut, int limite, int etat) {
+        for (int i = debut; i < limite; i++) {
+            etat = transition(etat, buf.get(i));
+        }
+        return etat;
+    }
+
+    static int transition(int etat, byte b) {
+        switch (etat) {
+            case QUOTE:
+                return b == '"' ? QUOTE_FERMANTE : QUOTE;
+            case QUOTE_FERMANTE:
+                if (b == '"') return QUOTE;
+                return (b == ',' || b == '\n') ? DEBUT_CHAMP : NON_QUOTE;
+            case DEBUT_CHAMP:
+                if (b == '"') return QUOTE;
+                return (b == ',' || b == '\n') ? DEBUT_CHAMP : NON_QUOTE;
+            default:
+                return (b == ',' || b == '\n') ? DEBUT_CHAMP : NON_QUOTE;
+        }
+    }
+
+    private void noterChamp(ByteBuffer buf, int debut, int fin, boolean finLigne) {
+        if (finLigne && fin > debut && buf.get(fin - 1) == '\r') {
+            fin--; // Fin de ligne Windows
+        }
+        if (nbChamps == debutChamp.length && avecChamps) {
+            debutChamp = Arrays.copyOf(debutChamp, nbChamps * 2);
+            finChamp = Arrays.copyOf(finChamp, nbChamps * 2);
+            guillemets = Arrays.copyOf(guillemets, nbChamps * 2);
+        }
+        if (nbChamps < debutChamp.length) {
+            debutChamp[nbChamps] = debut;
+            finChamp[nbChamps] = fin;
+            guillemets[nbChamps] = fin > debut && buf.get(debut) == '"';
+        }
+        nbChamps++;
+    }
+
+    private Song construire(ByteBuffer buf) {
+        String[] artistes = new String[12];
+        int nbArtistes = 0;
+        for (int i = 13; i <= 24; i++) {
+            String artiste = chaine(buf, i);
+            if (!artiste.isEmpty()) {
+                artistes[nbArtistes++] = artiste;
+            }
+        }
+        String[] artists = new String[nbArtistes];
+        System.arraycopy(artistes, 0, artists, 0, nbArtistes);
+        if (avecOperation) {
+            derniereOperation = chaine(buf, COLONNE_OPERATION);
+        }
+
+        Song s = new Song(chaine(buf, 0), chaine(buf, 7), chaine(buf, 4), chaine(buf, 8),
+                chaine(buf, 3), artists, entier(buf, 10));
+        if (avecChamps) {
+            String[] champs = new String[nbChamps];
+            for (int i = 0; i < champs.length; i++) {
+                champs[i] = chaine(buf, i);
+            }
+            s.allFields = champs;
+        }
+        return s;
+    }
+
+    /** Décode la colonne en String (champ absent = "", comme getFieldSafe). */
+    private String chaine(ByteBuffer buf, int colonne) {
+        if (colonne >= nbChamps || colonne >= debutChamp.length) {
+            return "";
+        }
+        int debut = debutChamp[colonne];
+        int longueur = finChamp[colonne] - debut;
+        if (longueur == 0) {
+            return "";
+        }
+        if (tampon.length < longueur) {
+            tampon = new byte[Math.max(longueur, tampon.length * 2)];
+        }
+
+        if (!guillemets[colonne]) {
+            buf.get(debut, tampon, 0, longueur);
+            return new String(tampon, 0, longueur, StandardCharsets.UTF_8);
+        }
+
+        // Retirer les guillemets englobants et dédoubler les ""
+        int n = 0;
+        boolean dansGuillemets = false;
+        for (int i = debut; i < debut + longueur; i++) {
+            byte b = buf.get(i);
+            if (b == '"') {
+                if (dansGuillemets && i + 1 < debut + longueur && buf.get(i + 1) == '"') {
+                    tampon[n++] = '"';
+                    i++;
+                } else {
+                    dansGuillemets = !dansGuillemets;
+                }
+            } else {
+                tampon[n++] = b;
+            }
+        }
+        return new String(tampon, 0, n, StandardCharsets.UTF_8);
+    }
+
+    /** Lit un entier sans créer de String (0 si invalide, comme Integer.parseInt + catch). */
+    private int entier(ByteBuffer buf, int colonne) {
+        if (colonne >= nbChamps || colonne >= NB_COLONNES || guillemets[colonne]) {
+            return 0;
+        }
+        int i = debutChamp[colonne];
+        int fin = finChamp[colonne];
+        if (i == fin) {
+            return 0;
+        }
+        boolean negatif = false;
+        byte signe = buf.get(i);
+        if (signe == '-' || signe == '+') {
+            negatif = signe == '-';
+            if (++i == fin) return 0;
+        }
+        long valeur = 0;
+        for (; i < fin; i++) {
+            int chiffre = buf.get(i) - '0';
+            if (chiffre < 0 || chiffre > 9) {
+                return 0;
+            }
+            valeur = valeur * 10 + chiffre;
+            if (valeur > Integer.MAX_VALUE + 1L) {
+                return 0;
+            }
+        }
+        valeur = negatif ? -valeur : valeur;
+        return (valeur > Integer.MAX_VALUE) ? 0 : (int) valeur;
+    }
+}
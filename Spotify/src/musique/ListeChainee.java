@@ -0,0 +1,253 @@
+package musique;
+
+import java.util.AbstractSequentialList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Liste doublement chaînée dont les nœuds sont accessibles au tri.
+ *
+ * Même coût que java.util.LinkedList (ajout / retrait O(1) au curseur, accès
+ * par index O(n)), mais trierFusion() trie en réaccrochant les nœuds : tri
+ * fusion ascendant sur les liens suivants, stable, sans tableau auxiliaire
+ * ni allocation, puis une passe pour refaire les liens précédents.
+ */
+final class ListeChainee extends AbstractSequentialList<Song> {
+
+    private static final class Noeud {
+        Song valeur;
+        Noeud precedent, suivant;
+
+        Noeud(Song valeur) {
+            this.valeur = valeur;
+        }
+    }
+
+    private final Noeud sentinelle = new Noeud(null);   // Avant le premier et après le dernier
+    private int taille;
+
+    ListeChainee() {
+        sentinelle.precedent = sentinelle;
+        sentinelle.suivant = sentinelle;
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    @Override
+    public boolean add(Song s) {
+        lierAvant(new Noeud(s), sentinelle);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        sentinelle.precedent = sentinelle;
+        sentinelle.suivant = sentinelle;
+        taille = 0;
+        modCount++;
+    }
+
+    private void lierAvant(Noeud n, Noeud place) {
+        n.suivant = place;
+        n.precedent = place.precedent;
+        place.precedent.suivant = n;
+        place.precedent = n;
+        taille++;
+        modCount++;
+    }
+
+    private void delier(Noeud n) {
+        n.precedent.suivant = n.suivant;
+        n.suivant.precedent = n.precedent;
+        taille--;
+        modCount++;
+    }
+
+    /** Nœud de la position index (parcours depuis le bout le plus proche). */
+    private Noeud noeud(int index) {
+        if (index < taille / 2) {
+            Noeud n = sentinelle.suivant;
+            for (int i = 0; i < index; i++) n = n.suivant;
+            return n;
+        }
+        Noeud n = sentinelle;
+        for (int i = taille; i > index; i--) n = n.precedent;
+        return n;
+    }
+
+    @Override
+    public ListIterator<Song> listIterator(int index) {
+        if (index < 0 || index > taille) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", taille: " + taille);
+        }
+        return new Curseur(noeud(index), index);
+    }
+
+    private final class Curseur implements ListIterator<Song> {
+        private Noeud prochain;
+        private Noeud dernier;          // Rendu par le dernier next()/previous(), null après remove/add
+        private int position;
+        private int attendu = modCount;
+
+        Curseur(Noeud prochain, int position) {
+            this.prochain = prochain;
+            this.position = position;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < taille;
+        }
+
+        @Override
+        public Song next() {
+            verifier();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            dernier = prochain;
+            prochain = prochain.suivant;
+            position++;
+            return dernier.valeur;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return position > 0;
+        }
+
+        @Override
+        public Song previous() {
+            verifier();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            prochain = prochain.precedent;
+            dernier = prochain;
+            position--;
+            return dernier.valeur;
+        }
+
+        @Override
+        public int nextIndex() {
+            return position;
+        }
+
+        @Override
+        public int previousIndex() {
+            return position - 1;
+        }
+
+        @Override
+        public void remove() {
+            verifier();
+            if (dernier == null) {
+                throw new IllegalStateException();
+            }
+            if (dernier == prochain) {  // Après previous()
+                prochain = prochain.suivant;
+            } else {
+                position--;
+            }
+            delier(dernier);
+            dernier = null;
+            attendu = modCount;
+        }
+
+        @Override
+        public void set(Song s) {
+            if (dernier == null) {
+                throw new IllegalStateException();
+            }
+            verifier();
+            dernier.valeur = s;
+        }
+
+        @Override
+        public void add(Song s) {
+            verifier();
+            lierAvant(new Noeud(s), prochain);
+            position++;
+            dernier = null;
+            attendu = modCount;
+        }
+
+        private void verifier() {
+            if (modCount != attendu) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    // ========== TRI FUSION SUR LES NŒUDS ==========
+
+    /**
+     * Tri fusion ascendant (runs de 1, 2, 4...) en réaccrochant les liens
+     * suivants : O(n log n) comparaisons, O(1) mémoire, stable.
+     * @return nombre de comparaisons
+     */
+    long trierFusion(Comparator<Song> cmp) {
+        if (taille < 2) {
+            return 0;
+        }
+        long comparaisons = 0;
+        Noeud tete = sentinelle.suivant;
+        sentinelle.precedent.suivant = null;        // Chaîne simple terminée par null
+        Noeud queueFusion = new Noeud(null);         // Tête fictive de la passe
+        for (int largeur = 1; largeur < taille; largeur *= 2) {
+            Noeud reste = tete;
+            Noeud fin = queueFusion;
+            while (reste != null) {
+                Noeud gauche = reste;
+                Noeud droite = couper(gauche, largeur);
+                reste = couper(droite, largeur);
+                // Fusion de gauche et droite à la suite de fin
+                while (gauche != null && droite != null) {
+                    comparaisons++;
+                    if (cmp.compare(droite.valeur, gauche.valeur) < 0) {
+                        fin.suivant = droite;
+                        droite = droite.suivant;
+                    } else {
+                        fin.suivant = gauche;
+                        gauche = gauche.suivant;
+                    }
+                    fin = fin.suivant;
+                }
+                fin.suivant = gauche != null ? gauche : droite;
+                while (fin.suivant != null) {
+                    fin = fin.suivant;
+                }
+            }
+            tete = queueFusion.suivant;
+        }
+        // Liens précédents et sentinelle
+        Noeud avant = sentinelle;
+        for (Noeud n = tete; n != null; n = n.suivant) {
+            avant.suivant = n;
+            n.precedent = avant;
+            avant = n;
+        }
+        avant.suivant = sentinelle;
+        sentinelle.precedent = avant;
+        modCount++;
+        return comparaisons;
+    }
+
+    /** Coupe la chaîne après longueur nœuds et retourne la suite (ou null). */
+    private static Noeud couper(Noeud debut, int longueur) {
+        for (int i = 1; debut != null && i < longueur; i++) {
+            debut = debut.suivant;
+        }
+        if (debut == null) {
+            return null;
+        }
+        Noeud suite = debut.suivant;
+        debut.suivant = null;
+        return suite;
+    }
+}
@@ -0,0 +1,142 @@
+package musique;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Tampon circulaire indexé, sur le modèle de java.util.ArrayDeque (tableau
+ * de taille puissance de 2, tête mobile) avec en plus l'accès par index.
+ *
+ * Accès par index O(1) comme ArrayList ; ajout et retrait O(1) aux deux
+ * bouts, là où ArrayList décale tout le tableau pour un retrait en tête.
+ * Un retrait au milieu décale le côté le plus court.
+ */
+final class ListeCirculaire extends AbstractList<Song> implements RandomAccess {
+
+    private Song[] elements = new Song[16];
+    private int tete;           // Position du premier élément
+    private int taille;
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    private int place(int index) {
+        return (tete + index) & (elements.length - 1);
+    }
+
+    private void verifier(int index) {
+        if (index < 0 || index >= taille) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", taille: " + taille);
+        }
+    }
+
+    @Override
+    public Song get(int index) {
+        verifier(index);
+        return elements[place(index)];
+    }
+
+    @Override
+    public Song set(int index, Song s) {
+        verifier(index);
+        int p = place(index);
+        Song ancien = elements[p];
+        elements[p] = s;
+        return ancien;
+    }
+
+    @Override
+    public boolean add(Song s) {
+        agrandirSiPlein();
+        elements[place(taille++)] = s;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, Song s) {
+        if (index < 0 || index > taille) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", taille: " + taille);
+        }
+        agrandirSiPlein();
+        if (index < taille / 2) {
+            // Décale le début d'une case vers la gauche
+            tete = (tete - 1) & (elements.length - 1);
+            for (int i = 0; i < index; i++) {
+                elements[place(i)] = elements[place(i + 1)];
+            }
+        } else {
+            for (int i = taille; i > index; i--) {
+                elements[place(i)] = elements[place(i - 1)];
+            }
+        }
+        elements[place(index)] = s;
+        taille++;
+        modCount++;
+    }
+
+    @Override
+    public Song remove(int index) {
+        verifier(index);
+        Song ancien = elements[place(index)];
+        if (index < taille / 2) {
+            for (int i = index; i > 0; i--) {
+                elements[place(i)] = elements[place(i - 1)];
+            }
+            elements[tete] = null;
+            tete = (tete + 1) & (elements.length - 1);
+        } else {
+            for (int i = index; i < taille - 1; i++) {
+                elements[place(i)] = elements[place(i + 1)];
+            }
+            elements[place(taille - 1)] = null;
+        }
+        taille--;
+        modCount++;
+        return ancien;
+    }
+
+    /** Compactage en une passe (au lieu d'un remove(i) par élément). */
+    @Override
+    public boolean removeIf(Predicate<? super Song> filtre) {
+        int k = 0;
+        for (int i = 0; i < taille; i++) {
+            Song s = elements[place(i)];
+            if (!filtre.test(s)) {
+                elements[place(k++)] = s;
+            }
+        }
+        if (k == taille) {
+            return false;
+        }
+        for (int i = k; i < taille; i++) {
+            elements[place(i)] = null;
+        }
+        taille = k;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, null);
+        tete = 0;
+        taille = 0;
+        modCount++;
+    }
+
+    private void agrandirSiPlein() {
+        if (taille == elements.length) {
+            Song[] nouveaux = new Song[elements.length * 2];
+            for (int i = 0; i < taille; i++) {
+                nouveaux[i] = elements[place(i)];
+            }
+            elements = nouveaux;
+            tete = 0;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package musique;
+
+import java.util.AbstractSequentialList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Liste déroulée (unrolled linked list) : chaîne de blocs de CAPACITE
+ * chansons contiguës.
+ *
+ * Parcours presque aussi rapide qu'un tableau (CAPACITE références voisines
+ * par nœud au lieu d'une), accès par index en O(n / CAPACITE), et un retrait
+ * ou un ajout au curseur ne décale que le bloc courant (O(CAPACITE)) : un
+ * retrait en tête ne coûte pas O(n) comme dans ArrayList. Un bloc plein est
+ * coupé en deux, un bloc vidé est décroché. Il reste toujours au moins un bloc.
+ */
+final class ListeDeroulee extends AbstractSequentialList<Song> {
+
+    static final int CAPACITE = 64;
+
+    private static final class Bloc {
+        final Song[] elements = new Song[CAPACITE];
+        int taille;
+        Bloc precedent, suivant;
+    }
+
+    private Bloc premier = new Bloc();
+    private Bloc dernier = premier;
+    private int taille;
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    @Override
+    public boolean add(Song s) {
+        if (dernier.taille == CAPACITE) {
+            Bloc b = new Bloc();
+            b.precedent = dernier;
+            dernier.suivant = b;
+            dernier = b;
+        }
+        dernier.elements[dernier.taille++] = s;
+        taille++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        premier = new Bloc();
+        dernier = premier;
+        taille = 0;
+        modCount++;
+    }
+
+    /** Nombre de blocs (pour l'affichage des comparaisons). */
+    int nbBlocs() {
+        int n = 0;
+        for (Bloc b = premier; b != null; b = b.suivant) {
+            n++;
+        }
+        return n;
+    }
+
+    @Override
+    public ListIterator<Song> listIterator(int index) {
+        if (index < 0 || index > taille) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", taille: " + taille);
+        }
+        Bloc b;
+        int pos;
+        if (index <= taille / 2) {
+            b = premier;
+            pos = index;
+            while (pos > b.taille) {
+                pos -= b.taille;
+                b = b.suivant;
+            }
+        } else {
+            b = dernier;
+            int depuisFin = taille - index;
+            while (depuisFin > b.taille) {
+                depuisFin -= b.taille;
+                b = b.precedent;
+            }
+            pos = b.taille - depuisFin;
+        }
+        return new Curseur(b, pos, index);
+    }
+
+    /** Décroche le bloc b de la chaîne (b vide et pas le seul bloc). */
+    private void decrocher(Bloc b) {
+        if (b.precedent != null) b.precedent.suivant = b.suivant; else premier = b.suivant;
+        if (b.suivant != null) b.suivant.precedent = b.precedent; else dernier = b.precedent;
+    }
+
+    private final class Curseur implements ListIterator<Song> {
+        private Bloc bloc;              // Le prochain élément est bloc.elements[pos] (ou au bloc suivant si pos == taille)
+        private int pos;
+        private int index;
+        private Bloc blocRendu;         // Élément rendu par le dernier next()/previous()
+        private int posRendue;
+        private boolean parPrevious;
+        private int attendu = modCount;
+
+        Curseur(Bloc bloc, int pos, int index) {
+            this.bloc = bloc;
+            this.pos = pos;
+            this.index = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < taille;
+        }
+
+        @Override
+        public Song next() {
+            verifier();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (pos == bloc.taille) {
+                bloc = bloc.suivant;
+                pos = 0;
+            }
+            blocRendu = bloc;
+            posRendue = pos;
+            parPrevious = false;
+            index++;
+            return bloc.elements[pos++];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return index > 0;
+        }
+
+        @Override
+        public Song previous() {
+            verifier();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            if (pos == 0) {
+                bloc = bloc.precedent;
+                pos = bloc.taille;
+            }
+            pos--;
+            index--;
+            blocRendu = bloc;
+            posRendue = pos;
+            parPrevious = true;
+            return bloc.elements[pos];
+        }
+
+        @Override
+        public int nextIndex() {
+            return index;
+        }
+
+        @Override
+        public int previousIndex() {
+            return index - 1;
+        }
+
+        @Override
+        public void set(Song s) {
+            if (blocRendu == null) {
+                throw new IllegalStateException();
+            }
+            verifier();
+            blocRendu.elements[posRendue] = s;
+        }
+
+        @Override
+        public void remove() {
+            verifier();
+            if (blocRendu == null) {
+                throw new IllegalStateException();
+            }
+            Bloc b = blocRendu;
+            System.arraycopy(b.elements, posRendue + 1, b.elements, posRendue, b.taille - posRendue - 1);
+            b.elements[--b.taille] = null;
+            if (!parPrevious) {
+                index--;
+                if (bloc == b) {
+                    pos = posRendue;
+                }
+            }
+            if (b.taille == 0 && (b.precedent != null || b.suivant != null)) {
+                decrocher(b);
+                if (bloc == b) {
+                    if (b.suivant != null) {
+                        bloc = b.suivant;
+                        pos = 0;
+                    } else {
+                        bloc = b.precedent;
+                        pos = bloc.taille;
+                    }
+                }
+            }
+            taille--;
+            modCount++;
+            attendu = modCount;
+            blocRendu = null;
+        }
+
+        @Override
+        public void add(Song s) {
+            verifier();
+            if (bloc.taille == CAPACITE) {
+                // Coupe le bloc plein en deux
+                Bloc nouveau = new Bloc();
+                int moitie = CAPACITE / 2;
+                System.arraycopy(bloc.elements, moitie, nouveau.elements, 0, CAPACITE - moitie);
+                Arrays.fill(bloc.elements, moitie, CAPACITE, null);
+                nouveau.taille = CAPACITE - moitie;
+                bloc.taille = moitie;
+                nouveau.precedent = bloc;
+                nouveau.suivant = bloc.suivant;
+                if (bloc.suivant != null) bloc.suivant.precedent = nouveau; else dernier = nouveau;
+                bloc.suivant = nouveau;
+                if (pos > moitie) {
+                    bloc = nouveau;
+                    pos -= moitie;
+                }
+            }
+            System.arraycopy(bloc.elements, pos, bloc.elements, pos + 1, bloc.taille - pos);
+            bloc.elements[pos++] = s;
+            bloc.taille++;
+            index++;
+            taille++;
+            modCount++;
+            attendu = modCount;
+            blocRendu = null;
+        }
+
+        private void verifier() {
+            if (modCount != attendu) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package musique;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Liste d'ids de chansons (int[], sans référence ni boxing) : les chansons
+ * elles-mêmes restent dans IndexChansons, get(i) les retrouve par leur id.
+ *
+ * Le tableau ne contient que des int, sans objet à suivre pour le ramasse-
+ * miettes ; les décalages (retrait en tête, compactage de removeIf) ne
+ * déplacent que 4 octets par chanson. Chaque accès coûte en revanche une
+ * indirection vers l'index. Une chanson ajoutée doit déjà être indexée.
+ * add(int) et getInt travaillent directement sur les ids, sans passer par
+ * les chansons.
+ */
+final class ListeIds extends AbstractList<Song> implements RandomAccess {
+
+    private final IndexChansons index;
+    private int[] ids = new int[16];
+    private int taille;
+
+    ListeIds(IndexChansons index) {
+        this.index = index;
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    private void verifier(int i) {
+        if (i < 0 || i >= taille) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", taille: " + taille);
+        }
+    }
+
+    @Override
+    public Song get(int i) {
+        verifier(i);
+        return index.chanson(ids[i]);
+    }
+
+    /** Id de la chanson en position i. */
+    int getInt(int i) {
+        verifier(i);
+        return ids[i];
+    }
+
+    @Override
+    public Song set(int i, Song s) {
+        verifier(i);
+        Song ancienne = index.chanson(ids[i]);
+        ids[i] = s.id;
+        return ancienne;
+    }
+
+    @Override
+    public boolean add(Song s) {
+        return add(s.id);
+    }
+
+    /** Ajoute l'id d'une chanson de l'index. */
+    boolean add(int id) {
+        if (taille == ids.length) {
+            ids = Arrays.copyOf(ids, taille * 2);
+        }
+        ids[taille++] = id;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int i, Song s) {
+        if (i < 0 || i > taille) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", taille: " + taille);
+        }
+        if (taille == ids.length) {
+            ids = Arrays.copyOf(ids, taille * 2);
+        }
+        System.arraycopy(ids, i, ids, i + 1, taille - i);
+        ids[i] = s.id;
+        taille++;
+        modCount++;
+    }
+
+    @Override
+    public Song remove(int i) {
+        verifier(i);
+        Song ancienne = index.chanson(ids[i]);
+        System.arraycopy(ids, i + 1, ids, i, taille - i - 1);
+        taille--;
+        modCount++;
+        return ancienne;
+    }
+
+    /** Compactage des ids en une passe. */
+    @Override
+    public boolean removeIf(Predicate<? super Song> filtre) {
+        int k = 0;
+        for (int i = 0; i < taille; i++) {
+            if (!filtre.test(index.chanson(ids[i]))) {
+                ids[k++] = ids[i];
+            }
+        }
+        if (k == taille) {
+            return false;
+        }
+        taille = k;
+        modCount++;
+        return true;
+    }
+
+    /** Tri des chansons résolues une fois, puis réécriture des ids. */
+    @Override
+    public void sort(Comparator<? super Song> cmp) {
+        Song[] chansons = toArray(new Song[0]);
+        Arrays.sort(chansons, cmp);
+        for (int i = 0; i < taille; i++) {
+            ids[i] = chansons[i].id;
+        }
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        taille = 0;
+        modCount++;
+    }
+}
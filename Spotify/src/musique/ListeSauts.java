@@ -0,0 +1,103 @@
+package musique;
+
+/**
+ * Liste à sauts (skip list) : clé de collation d'un titre -> ids des chansons.
+ *
+ * Même ordre que la recherche dichotomique (Collation.comparer), mais tenue
+ * à jour à chaque ajout en O(log n) au lieu d'un tableau trié à refaire :
+ * chaque nœud monte d'un niveau avec une probabilité 1/4, la recherche
+ * descend les niveaux en avançant tant que la clé suivante est plus petite.
+ */
+final class ListeSauts {
+
+    private static final int NIVEAU_MAX = 16;   // 4^16 clés avant dégradation
+
+    private static final class Noeud {
+        final Collation.Cle cle;
+        final IntListe ids = new IntListe(1);
+        final Noeud[] suivants;
+
+        Noeud(Collation.Cle cle, int niveaux) {
+            this.cle = cle;
+            this.suivants = new Noeud[niveaux];
+        }
+    }
+
+    private final Noeud tete = new Noeud(null, NIVEAU_MAX);
+    private int niveaux = 1;
+    private int taille;
+    private long graine = 0x9E3779B97F4A7C15L;
+    private int dernieresComparaisons;
+
+    /** Ajoute l'id à la clé (créée si absente). */
+    void ajouter(Collation.Cle cle, int id) {
+        Noeud[] avant = new Noeud[NIVEAU_MAX];
+        Noeud n = tete;
+        for (int niv = niveaux - 1; niv >= 0; niv--) {
+            while (n.suivants[niv] != null && Collation.comparer(n.suivants[niv].cle, cle) < 0) {
+                n = n.suivants[niv];
+            }
+            avant[niv] = n;
+        }
+        Noeud suivant = n.suivants[0];
+        if (suivant != null && Collation.comparer(suivant.cle, cle) == 0) {
+            suivant.ids.ajouter(id);
+            return;
+        }
+        int hauteur = tirerNiveau();
+        if (hauteur > niveaux) {
+            for (int niv = niveaux; niv < hauteur; niv++) {
+                avant[niv] = tete;
+            }
+            niveaux = hauteur;
+        }
+        Noeud nouveau = new Noeud(cle, hauteur);
+        nouveau.ids.ajouter(id);
+        for (int niv = 0; niv < hauteur; niv++) {
+            nouveau.suivants[niv] = avant[niv].suivants[niv];
+            avant[niv].suivants[niv] = nouveau;
+        }
+        taille++;
+    }
+
+    /** Ids de la clé, ou null. */
+    IntListe chercher(Collation.Cle cle) {
+        dernieresComparaisons = 0;
+        Noeud n = tete;
+        for (int niv = niveaux - 1; niv >= 0; niv--) {
+            while (n.suivants[niv] != null) {
+                dernieresComparaisons++;
+                int cmp = Collation.comparer(n.suivants[niv].cle, cle);
+                if (cmp == 0) {
+                    return n.suivants[niv].ids;
+                }
+                if (cmp > 0) {
+                    break;
+                }
+                n = n.suivants[niv];
+            }
+        }
+        return null;
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    int getNiveaux() {
+        return niveaux;
+    }
+
+    int getDernieresComparaisons() {
+        return dernieresComparaisons;
+    }
+
+    /** Niveau géométrique (p = 1/4) tiré d'un xorshift. */
+    private int tirerNiveau() {
+        graine ^= graine << 13;
+        graine ^= graine >>> 7;
+        graine ^= graine << 17;
+        int hauteur = 1 + Long.numberOfTrailingZeros(graine | (1L << 2 * (NIVEAU_MAX - 1))) / 2;
+        return Math.min(hauteur, NIVEAU_MAX);
+    }
+}
@@ -0,0 +1,225 @@
+package musique;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Métriques des opérations (chargement, tri, filtre, recherche...).
+ *
+ * Chaque opération s'exécute dans une Mesure :
+ *   try (Metriques.Mesure mesure = Metriques.mesurer("search")) {
+ *       ...
+ *       mesure.lues(n).emises(k).comparaisons(c);
+ *   }
+ * Les opérations de MusiqueInterface sont mesurées par MusiqueMesuree ; les
+ * compteurs que seul l'algorithme connaît lui sont passés par Compteurs.
+ * À la fermeture, la latence (ns) entre dans l'histogramme de l'opération, les
+ * compteurs sont cumulés, et un événement JFR (EvenementOperation) est émis si
+ * un enregistrement JFR est actif. Les octets alloués sont ceux du thread
+ * appelant (ThreadMXBean), les tâches fork/join n'y figurent donc pas.
+ */
+final class Metriques {
+
+    private static final TreeMap<String, Statistiques> operations = new TreeMap<>();
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private Metriques() {
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) mx;
+            if (sun.isThreadAllocatedMemorySupported()) {
+                sun.setThreadAllocatedMemoryEnabled(true);
+                return sun;
+            }
+        }
+        return null; // JVM sans comptage des allocations : octets non mesurés
+    }
+
+    private static long octetsAlloues() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /** Démarre la mesure d'une opération. */
+    static Mesure mesurer(String operation) {
+        return new Mesure(operation);
+    }
+
+    /** Compteurs d'une opération (lignes lues et produites, comparaisons). */
+    interface Compteurs {
+        Compteurs lues(long n);
+
+        Compteurs emises(long n);
+
+        Compteurs comparaisons(long n);
+
+        /** Compteurs d'une opération non mesurée : ignorés. */
+        Compteurs AUCUN = new Compteurs() {
+            @Override
+            public Compteurs lues(long n) {
+                return this;
+            }
+
+            @Override
+            public Compteurs emises(long n) {
+                return this;
+            }
+
+            @Override
+            public Compteurs comparaisons(long n) {
+                return this;
+            }
+        };
+    }
+
+    /** Mesure en cours ; les compteurs sont optionnels. */
+    static final class Mesure implements AutoCloseable, Compteurs {
+        private final String operation;
+        private final long debut;
+        private final long allocDebut;
+        private final EvenementOperation evenement = new EvenementOperation();
+        private long lues, emises, comparaisons;
+
+        private Mesure(String operation) {
+            this.operation = operation;
+            evenement.begin();
+            this.allocDebut = octetsAlloues();
+            this.debut = System.nanoTime();
+        }
+
+        @Override
+        public Mesure lues(long n) {
+            lues += n;
+            return this;
+        }
+
+        @Override
+        public Mesure emises(long n) {
+            emises += n;
+            return this;
+        }
+
+        @Override
+        public Mesure comparaisons(long n) {
+            comparaisons += n;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            long duree = System.nanoTime() - debut;
+            long octets = octetsAlloues() - allocDebut;
+            evenement.end();
+            if (evenement.shouldCommit()) {
+                evenement.operation = operation;
+                evenement.lignesLues = lues;
+                evenement.lignesEmises = emises;
+                evenement.comparaisons = comparaisons;
+                evenement.octetsAlloues = octets;
+                evenement.commit();
+            }
+            Statistiques s;
+            synchronized (operations) {
+                s = operations.computeIfAbsent(operation, k -> new Statistiques());
+            }
+            s.enregistrer(duree, lues, emises, comparaisons, octets);
+        }
+    }
+
+    /** Cumul par opération. */
+    private static final class Statistiques {
+        final HistogrammeLatence latences = new HistogrammeLatence();
+        long lues, emises, comparaisons, octets;
+
+        synchronized void enregistrer(long duree, long lues, long emises, long comparaisons, long octets) {
+            latences.enregistrer(duree);
+            this.lues += lues;
+            this.emises += emises;
+            this.comparaisons += comparaisons;
+            this.octets += octets;
+        }
+    }
+
+    private static List<Map.Entry<String, Statistiques>> instantane() {
+        synchronized (operations) {
+            return new ArrayList<>(operations.entrySet());
+        }
+    }
+
+    static void reinitialiser() {
+        synchronized (operations) {
+            operations.clear();
+        }
+    }
+
+    // ========== AFFICHAGE / EXPORT ==========
+
+    static void afficher() {
+        System.out.println("\n=== MÉTRIQUES DES OPÉRATIONS (latences en ms) ===");
+        System.out.println(String.format("%-22s | %6s | %9s | %9s | %9s | %9s | %11s | %11s | %12s | %10s",
+            "OPÉRATION", "APPELS", "P50", "P90", "P99", "MAX", "LUES", "PRODUITES", "COMPARAISONS", "ALLOC/OP"));
+        System.out.println("-".repeat(140));
+        for (Map.Entry<String, Statistiques> e : instantane()) {
+            Statistiques s = e.getValue();
+            synchronized (s) {
+                long n = s.latences.nombre();
+                System.out.println(String.format(Locale.ROOT, "%-22s | %6d | %9.3f | %9.3f | %9.3f | %9.3f | %11d | %11d | %12d | %10s",
+                    e.getKey(), n, ms(s.latences.percentile(50)), ms(s.latences.percentile(90)),
+                    ms(s.latences.percentile(99)), ms(s.latences.max()), s.lues, s.emises, s.comparaisons,
+                    octetsLisibles(n == 0 ? 0 : s.octets / n)));
+            }
+        }
+    }
+
+    /** Toutes les métriques en JSON (latences en nanosecondes). */
+    static String json() {
+        StringBuilder sb = new StringBuilder("{\n  \"operations\": {");
+        boolean premier = true;
+        for (Map.Entry<String, Statistiques> e : instantane()) {
+            Statistiques s = e.getValue();
+            synchronized (s) {
+                HistogrammeLatence h = s.latences;
+                sb.append(premier ? "" : ",").append("\n    ").append(ModeLot.chaineJson(e.getKey())).append(": {")
+                  .append("\"appels\": ").append(h.nombre())
+                  .append(", \"latence_ns\": {\"min\": ").append(h.min())
+                  .append(", \"moyenne\": ").append(String.format(Locale.ROOT, "%.1f", h.moyenne()))
+                  .append(", \"p50\": ").append(h.percentile(50))
+                  .append(", \"p90\": ").append(h.percentile(90))
+                  .append(", \"p99\": ").append(h.percentile(99))
+                  .append(", \"p999\": ").append(h.percentile(99.9))
+                  .append(", \"max\": ").append(h.max()).append('}')
+                  .append(", \"lignes_lues\": ").append(s.lues)
+                  .append(", \"lignes_produites\": ").append(s.emises)
+                  .append(", \"comparaisons\": ").append(s.comparaisons)
+                  .append(", \"octets_alloues\": ").append(s.octets).append('}');
+            }
+            premier = false;
+        }
+        return sb.append("\n  }\n}\n").toString();
+    }
+
+    static void exporter(Path fichier) throws IOException {
+        Files.writeString(fichier, json(), StandardCharsets.UTF_8);
+    }
+
+    private static double ms(long ns) {
+        return ns / 1e6;
+    }
+
+    private static String octetsLisibles(long octets) {
+        if (octets < 1024) return octets + " o";
+        if (octets < 1024 * 1024) return (octets >> 10) + " Ko";
+        return (octets >> 20) + " Mo";
+    }
+}
@@ -0,0 +1,523 @@
+package musique;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mode non interactif : exécute une suite d'opérations sans Scanner.
+ *
+ *   java musique.Musique --ops "load FULL; filter year=2020; sort popularity desc; top 50"
+ *   java musique.Musique --script rapport.txt --format csv --sortie top.csv --temps temps.csv
+ *
+ * Opérations (séparées par ';' ou des retours à la ligne, '#' pour un commentaire) :
+ *   backend arraylist|linkedlist|circulaire|chainee|deroulee|ids   avant le premier load
+ *   load 100|1000|10000|100000|FULL|chemin [auto|csv|mappe|parallele|instantane]
+ *   append <fichier>                  lignes ajoutées au fichier depuis son load
+ *   delta <fichier>                   CSV delta (colonne operation upsert|delete)
+ *   filter <requête>                  syntaxe de Requete (ET/OU/NON), affine la vue
+ *   reset                             vue complète
+ *   sort <spec>                       syntaxe de TriPermutation, ex. "popularity desc, title"
+ *   collation accents|sans-accents    ordre des titres (tri, recherche dichotomique)
+ *   top <N>                           N premières chansons de la vue
+ *   topk <N> popularity|year|duration N meilleures de la vue (tas, sans trier)
+ *   search <titre>                    recherche exacte (casse ignorée)
+ *   count type|annee|artiste|album    effectif et popularité moyenne par groupe
+ *   group <spec>                      agrégats par groupe (syntaxe d'Agregation),
+ *                                     ex. "annee: count, avg popularite, distinct artiste"
+ *   rollup <spec>                     matérialise l'agrégation, tenue à jour aux load/append
+ *   artist <nom>                      chansons de l'artiste dans la vue, par popularité décroissante
+ *   collab <sauts> <nom>              artistes à au plus sauts collaborations (graphe des artistes)
+ *
+ * Les messages habituels de Musique sont coupés : seuls les résultats sont
+ * écrits, en JSON (un document avec les temps de chaque opération) ou en CSV
+ * (un bloc par opération précédé de "# opération" ; les temps vont alors en
+ * CSV sur la sortie d'erreur ou dans le fichier --temps). Le code de retour
+ * est 0 si tout s'est bien passé, 1 sinon. --metriques f écrit en plus les
+ * métriques des opérations (latences, lignes, comparaisons, allocations) en JSON.
+ */
+final class ModeLot {
+
+    private final boolean json;
+    private final StringBuilder resultats = new StringBuilder();
+    private final List<String[]> temps = new ArrayList<>();   // {opération, ms, lignes}
+    private final List<String> resultatsJson = new ArrayList<>(); // Tableau JSON de l'opération i, ou null
+    private Musique musique;
+    private MusiqueMesuree.Listes operations;                  // musique, mesurée (Metriques)
+    private Structures.Structure structure = Structures.Structure.ARRAYLIST;
+    private String erreur;
+
+    private ModeLot(boolean json) {
+        this.json = json;
+    }
+
+    /** Vrai si les arguments de main demandent le mode non interactif. */
+    static boolean demande(String[] args) {
+        return args.length > 0 && (args[0].equals("--ops") || args[0].equals("--script"));
+    }
+
+    /** Analyse les arguments, exécute les opérations et écrit les résultats. */
+    static int executer(String[] args) {
+        String ops = null, format = "json", sortie = null, fichierTemps = null, fichierMetriques = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--ops": ops = args[++i]; break;
+                    case "--script": ops = Files.readString(Path.of(args[++i]), StandardCharsets.UTF_8); break;
+                    case "--format": format = args[++i].toLowerCase(); break;
+                    case "--sortie": case "--output": sortie = args[++i]; break;
+                    case "--temps": case "--timings": fichierTemps = args[++i]; break;
+                    case "--metriques": case "--metrics": fichierMetriques = args[++i]; break;
+                    default: throw new IllegalArgumentException("Option inconnue: " + args[i]);
+                }
+            }
+            if (ops == null || !(format.equals("json") || format.equals("csv"))) {
+                throw new IllegalArgumentException("Usage: --ops \"...\" | --script fichier [--format json|csv] [--sortie f] [--temps f] [--metriques f]");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ " + e.getMessage());
+            return 2;
+        }
+
+        ModeLot lot = new ModeLot(format.equals("json"));
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long debut = System.nanoTime();
+        try {
+            lot.executerTout(decouper(ops));
+        } finally {
+            System.setOut(console);
+        }
+        double totalMs = (System.nanoTime() - debut) / 1e6;
+
+        try {
+            String texte = lot.json ? lot.documentJson(totalMs) : lot.resultats.toString();
+            if (sortie != null) {
+                Files.writeString(Path.of(sortie), texte, StandardCharsets.UTF_8);
+            } else {
+                console.print(texte);
+                console.flush();
+            }
+            if (!lot.json) {
+                String csv = lot.tempsCsv(totalMs);
+                if (fichierTemps != null) {
+                    Files.writeString(Path.of(fichierTemps), csv, StandardCharsets.UTF_8);
+                } else {
+                    System.err.print(csv);
+                }
+            }
+            if (fichierMetriques != null) {
+                Metriques.exporter(Path.of(fichierMetriques));
+            }
+        } catch (IOException e) {
+            System.err.println("❌ " + e.getMessage());
+            return 1;
+        }
+        if (lot.erreur != null) {
+            System.err.println("❌ " + lot.erreur);
+            return 1;
+        }
+        return 0;
+    }
+
+    /** Découpe le script en opérations (';' et fins de ligne hors guillemets, commentaires '#'). */
+    static List<String> decouper(String script) {
+        List<String> ops = new ArrayList<>();
+        StringBuilder courante = new StringBuilder();
+        boolean guillemets = false, commentaire = false;
+        for (int i = 0; i <= script.length(); i++) {
+            char c = i < script.length() ? script.charAt(i) : '\n';
+            if (commentaire) {
+                if (c != '\n') continue;
+                commentaire = false;
+            }
+            if (c == '"') {
+                guillemets = !guillemets;
+            } else if (c == '#' && !guillemets && courante.toString().isBlank()) {
+                commentaire = true;
+                continue;
+            }
+            if (!guillemets && (c == ';' || c == '\n' || c == '\r')) {
+                if (!courante.toString().isBlank()) {
+                    ops.add(courante.toString().trim());
+                }
+                courante.setLength(0);
+            } else {
+                courante.append(c);
+            }
+        }
+        return ops;
+    }
+
+    // ========== EXÉCUTION ==========
+
+    private void executerTout(List<String> ops) {
+        for (String op : ops) {
+            long debut = System.nanoTime();
+            int lignes;
+            try {
+                lignes = executer(op);
+            } catch (Exception e) {
+                erreur = "'" + op + "': " + e.getMessage();
+                temps.add(new String[] {op, ms(debut), "erreur"});
+                return;
+            }
+            temps.add(new String[] {op, ms(debut), String.valueOf(lignes)});
+        }
+    }
+
+    /** @return le nombre de lignes concernées (chansons, vue, résultats) */
+    private int executer(String op) throws Exception {
+        int espace = op.indexOf(' ');
+        String verbe = (espace < 0 ? op : op.substring(0, espace)).toLowerCase();
+        String arg = espace < 0 ? "" : op.substring(espace + 1).trim();
+
+        switch (verbe) {
+            case "backend":
+                if (musique != null) {
+                    throw new IllegalArgumentException("backend doit précéder le premier load");
+                }
+                structure = Structures.Structure.analyser(arg);
+                return 0;
+            case "load": case "charger":
+                charger(arg);
+                return musique().nbChansons();
+            case "append": case "ajouts":
+                operations().chargerAjouts(fichier(sansGuillemets(arg)));
+                return musique().nbChansons();
+            case "delta":
+                operations().appliquerDelta(fichier(sansGuillemets(arg)));
+                return musique().nbChansons();
+            case "filter": case "filtre": case "filtrer":
+                operations().requete(arg);
+                return musique().tailleVue();
+            case "reset":
+                musique().reinitialiserVue();
+                return musique().tailleVue();
+            case "sort": case "trier":
+                operations().triPermutation(arg);
+                return musique().tailleVue();
+            case "top":
+                List<Song> top = musique().premieres(Integer.parseInt(arg));
+                ecrireChansons(op, top);
+                return top.size();
+            case "topk":
+                String[] mots = arg.trim().split("\\s+", 2);
+                if (mots.length < 2) {
+                    throw new IllegalArgumentException("topk attend N et un critère");
+                }
+                TriPermutation.Critere critere = TriPermutation.analyser(mots[1]).get(0).critere;
+                if (critere == TriPermutation.Critere.TITRE) {
+                    throw new IllegalArgumentException("topk: critère numérique attendu (popularity, year, duration)");
+                }
+                Song[] vue = musique().premieres(Integer.MAX_VALUE).toArray(new Song[0]);
+                List<Song> meilleures = new ArrayList<>();
+                for (int position : TopK.tas(TriPermutation.extraire(vue, critere), vue.length, Integer.parseInt(mots[0]))) {
+                    meilleures.add(vue[position]);
+                }
+                ecrireChansons(op, meilleures);
+                return meilleures.size();
+            case "group": case "grouper":
+                Agregation agregation = Agregation.analyser(arg);
+                List<Map.Entry<String, Agregation.Groupe>> groupes = musique().agreger(agregation);
+                ecrireAgregats(op, agregation, groupes);
+                return groupes.size();
+            case "rollup": case "cumul":
+                musique().materialiser(arg);
+                return 0;
+            case "collation":
+                switch (arg.trim().toLowerCase()) {
+                    case "accents": musique().ignorerAccents(false); break;
+                    case "sans-accents": case "sans_accents": musique().ignorerAccents(true); break;
+                    default: throw new IllegalArgumentException("collation accents|sans-accents attendu: '" + arg + "'");
+                }
+                return musique().nbChansons();
+            case "search": case "recherche":
+                Song trouvee = musique().chercher(sansGuillemets(arg));
+                List<Song> liste = trouvee == null ? List.of() : List.of(trouvee);
+                ecrireChansons(op, liste);
+                return liste.size();
+            case "count": case "compter":
+                Flux.Agregat agregat = new Flux.Agregat(arg.toLowerCase());
+                musique().premieres(Integer.MAX_VALUE).forEach(agregat);
+                ecrireGroupes(op, agregat.resultat());
+                return agregat.nbGroupes();
+            case "artist": case "artiste":
+                List<Song> parArtiste = musique().chansonsArtiste(sansGuillemets(arg), Integer.MAX_VALUE);
+                if (parArtiste == null) {
+                    throw new IllegalArgumentException("Artiste inconnu: " + arg);
+                }
+                ecrireChansons(op, parArtiste);
+                return parArtiste.size();
+            case "collab":
+                String[] collab = arg.trim().split("\\s+", 2);
+                if (collab.length < 2) {
+                    throw new IllegalArgumentException("collab attend un nombre de sauts et un artiste");
+                }
+                List<GrapheArtistes.Collaborateur> collaborateurs =
+                    musique().collaborateurs(sansGuillemets(collab[1]), Integer.parseInt(collab[0]), Integer.MAX_VALUE);
+                if (collaborateurs == null) {
+                    throw new IllegalArgumentException("Artiste inconnu: " + collab[1]);
+                }
+                ecrireCollaborateurs(op, collaborateurs);
+                return collaborateurs.size();
+            default:
+                throw new IllegalArgumentException("Opération inconnue: " + verbe);
+        }
+    }
+
+    private Musique musique() {
+        if (musique == null) {
+            musique = new Musique(structure);
+            operations = new MusiqueMesuree.Listes(musique, "");
+        }
+        return musique;
+    }
+
+    private MusiqueMesuree.Listes operations() {
+        musique();
+        return operations;
+    }
+
+    private void charger(String arg) throws Exception {
+        String fichier = arg, mode = "auto";
+        int espace = arg.lastIndexOf(' ');
+        if (espace > 0 && !arg.endsWith("\"")) {
+            fichier = arg.substring(0, espace).trim();
+            mode = arg.substring(espace + 1).toLowerCase();
+        }
+        fichier = fichier(sansGuillemets(fichier));
+        switch (mode) {
+            case "auto":
+                if (Instantane.valide(fichier)) {
+                    operations().chargerInstantane(fichier);
+                } else {
+                    operations().chargerMappe(fichier);
+                }
+                break;
+            case "csv": case "classique": operations().charger(fichier); break;
+            case "mappe": operations().chargerMappe(fichier); break;
+            case "parallele": operations().chargerParallele(fichier); break;
+            case "instantane": case "snapshot": operations().chargerInstantane(fichier); break;
+            default: throw new IllegalArgumentException("Mode de chargement inconnu: " + mode);
+        }
+    }
+
+    /**
+     * Chemin du CSV désigné par un palier (100 ... FULL) ou un chemin.
+     * @throws IOException si le fichier n'existe pas
+     */
+    static String fichier(String palierOuChemin) throws IOException {
+        String fichier = palierOuChemin;
+        String[] paliers = {"", "100", "1000", "10000", "100000", "FULL"};
+        for (int k = 1; k < paliers.length; k++) {
+            if (paliers[k].equalsIgnoreCase(fichier)) {
+                fichier = Musique.FICHIERS[k];
+            }
+        }
+        if (!Files.isRegularFile(Path.of(fichier))) {
+            throw new IOException("Fichier introuvable: " + fichier);
+        }
+        return fichier;
+    }
+
+    private static String sansGuillemets(String s) {
+        return s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"") ? s.substring(1, s.length() - 1) : s;
+    }
+
+    private static String ms(long debut) {
+        return String.format(Locale.ROOT, "%.3f", (System.nanoTime() - debut) / 1e6);
+    }
+
+    // ========== SORTIE ==========
+
+    private void ecrireChansons(String op, List<Song> chansons) {
+        if (json) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < chansons.size(); i++) {
+                chansonJson(sb.append(i > 0 ? "," : "").append("\n      "), chansons.get(i));
+            }
+            resultatJson(sb.append(chansons.isEmpty() ? "]" : "\n    ]").toString());
+            return;
+        }
+        resultats.append("# ").append(op).append('\n');
+        resultats.append("titre,artistes,album,type,date,annee,duree_ms,popularite\n");
+        for (Song s : chansons) {
+            resultats.append(champCsv(s.trackName)).append(',').append(champCsv(String.join(";", s.artists)))
+                     .append(',').append(champCsv(s.albumName)).append(',').append(champCsv(s.albumType))
+                     .append(',').append(champCsv(s.releaseDate)).append(',').append(s.getYear())
+                     .append(',').append(champCsv(s.durationMs)).append(',').append(s.albumPopularity).append('\n');
+        }
+    }
+
+    /** Objet JSON d'une chanson (titre, artistes, album, type, date, année, durée, popularité). */
+    static StringBuilder chansonJson(StringBuilder sb, Song s) {
+        sb.append("{\"titre\": ").append(chaineJson(s.trackName)).append(", \"artistes\": [");
+        for (int k = 0; k < s.artists.length; k++) {
+            sb.append(k > 0 ? ", " : "").append(chaineJson(s.artists[k]));
+        }
+        return sb.append("], \"album\": ").append(chaineJson(s.albumName))
+                 .append(", \"type\": ").append(chaineJson(s.albumType))
+                 .append(", \"date\": ").append(chaineJson(s.releaseDate))
+                 .append(", \"annee\": ").append(s.getYear())
+                 .append(", \"duree_ms\": ").append(chaineJson(s.durationMs))
+                 .append(", \"popularite\": ").append(s.albumPopularity).append('}');
+    }
+
+    private void ecrireGroupes(String op, List<Map.Entry<String, long[]>> groupes) {
+        if (json) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < groupes.size(); i++) {
+                groupeJson(sb.append(i > 0 ? "," : "").append("\n      "), groupes.get(i));
+            }
+            resultatJson(sb.append(groupes.isEmpty() ? "]" : "\n    ]").toString());
+            return;
+        }
+        resultats.append("# ").append(op).append('\n');
+        resultats.append("groupe,nombre,popularite_moyenne\n");
+        for (Map.Entry<String, long[]> e : groupes) {
+            resultats.append(champCsv(e.getKey())).append(',').append(e.getValue()[0])
+                     .append(',').append(moyenne(e.getValue())).append('\n');
+        }
+    }
+
+    private void ecrireAgregats(String op, Agregation agregation, List<Map.Entry<String, Agregation.Groupe>> groupes) {
+        String[] entetes = agregation.entetes();
+        if (json) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < groupes.size(); i++) {
+                agregatJson(sb.append(i > 0 ? "," : "").append("\n      "), entetes, groupes.get(i));
+            }
+            resultatJson(sb.append(groupes.isEmpty() ? "]" : "\n    ]").toString());
+            return;
+        }
+        resultats.append("# ").append(op).append('\n');
+        resultats.append("groupe,").append(String.join(",", entetes)).append('\n');
+        for (Map.Entry<String, Agregation.Groupe> e : groupes) {
+            resultats.append(champCsv(e.getKey()));
+            for (int m = 0; m < entetes.length; m++) {
+                resultats.append(',').append(e.getValue().valeur(m));
+            }
+            resultats.append('\n');
+        }
+    }
+
+    /** Objet JSON d'un groupe d'agrégation : "groupe" puis une clé par mesure. */
+    static StringBuilder agregatJson(StringBuilder sb, String[] entetes, Map.Entry<String, Agregation.Groupe> groupe) {
+        sb.append("{\"groupe\": ").append(chaineJson(groupe.getKey()));
+        for (int m = 0; m < entetes.length; m++) {
+            sb.append(", ").append(chaineJson(entetes[m])).append(": ").append(groupe.getValue().valeur(m));
+        }
+        return sb.append('}');
+    }
+
+    static StringBuilder groupeJson(StringBuilder sb, Map.Entry<String, long[]> groupe) {
+        long[] g = groupe.getValue();
+        return sb.append("{\"groupe\": ").append(chaineJson(groupe.getKey()))
+                 .append(", \"nombre\": ").append(g[0])
+                 .append(", \"popularite_moyenne\": ").append(moyenne(g)).append('}');
+    }
+
+    private void ecrireCollaborateurs(String op, List<GrapheArtistes.Collaborateur> collaborateurs) {
+        if (json) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < collaborateurs.size(); i++) {
+                collaborateurJson(sb.append(i > 0 ? "," : "").append("\n      "), collaborateurs.get(i));
+            }
+            resultatJson(sb.append(collaborateurs.isEmpty() ? "]" : "\n    ]").toString());
+            return;
+        }
+        resultats.append("# ").append(op).append('\n');
+        resultats.append("artiste,distance,via,chansons_communes\n");
+        for (GrapheArtistes.Collaborateur c : collaborateurs) {
+            resultats.append(champCsv(c.nom)).append(',').append(c.distance).append(',')
+                     .append(champCsv(c.via)).append(',').append(c.communs).append('\n');
+        }
+    }
+
+    static StringBuilder collaborateurJson(StringBuilder sb, GrapheArtistes.Collaborateur c) {
+        return sb.append("{\"artiste\": ").append(chaineJson(c.nom))
+                 .append(", \"distance\": ").append(c.distance)
+                 .append(", \"via\": ").append(chaineJson(c.via))
+                 .append(", \"chansons_communes\": ").append(c.communs).append('}');
+    }
+
+    private static String moyenne(long[] g) {
+        return String.format(Locale.ROOT, "%.2f", (double) g[1] / g[0]);
+    }
+
+    /** Rattache le tableau à l'opération en cours (celle qui sera ajoutée à temps). */
+    private void resultatJson(String tableau) {
+        while (resultatsJson.size() < temps.size()) {
+            resultatsJson.add(null);
+        }
+        resultatsJson.add(tableau);
+    }
+
+    private String documentJson(double totalMs) {
+        StringBuilder sb = new StringBuilder("{\n  \"operations\": [");
+        for (int i = 0; i < temps.size(); i++) {
+            String[] t = temps.get(i);
+            sb.append(i > 0 ? "," : "").append("\n    {\"operation\": ").append(chaineJson(t[0]))
+              .append(", \"ms\": ").append(t[1]);
+            if (t[2].equals("erreur")) {
+                sb.append(", \"erreur\": true");
+            } else {
+                sb.append(", \"lignes\": ").append(t[2]);
+            }
+            if (i < resultatsJson.size() && resultatsJson.get(i) != null) {
+                sb.append(",\n     \"resultats\": ").append(resultatsJson.get(i));
+            }
+            sb.append('}');
+        }
+        sb.append("\n  ],\n  \"total_ms\": ").append(String.format(Locale.ROOT, "%.3f", totalMs));
+        if (erreur != null) {
+            sb.append(",\n  \"erreur\": ").append(chaineJson(erreur));
+        }
+        return sb.append("\n}\n").toString();
+    }
+
+    private String tempsCsv(double totalMs) {
+        StringBuilder sb = new StringBuilder("operation,ms,lignes\n");
+        for (String[] t : temps) {
+            sb.append(champCsv(t[0])).append(',').append(t[1]).append(',').append(t[2]).append('\n');
+        }
+        sb.append("total,").append(String.format(Locale.ROOT, "%.3f", totalMs)).append(",\n");
+        return sb.toString();
+    }
+
+    static String chaineJson(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String champCsv(String v) {
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) {
+            return v;
+        }
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
+}
@@ -2,201 +2,575 @@ package musique;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
- * Classe Song - Représente une chanson du fichier CSV Spotify
+ * Classe principale avec menu et algorithmes de tri/recherche
  */
-class Song {
-    String trackName;           // Nom de la chanson
-    String albumName;           // Nom de l'album
-    String albumType;           // Type d'album (single, album, compilation)
-    String releaseDate;         // Date de sortie
-    String durationMs;          // Durée en millisecondes
-    String[] artists;           // Tableau des artistes (jusqu'à 12)
-    int albumPopularity;        // Popularité (0-100)
-    String[] allFields;         // Tous les champs CSV
-    
-    public Song(String[] fields) {
-        this.allFields = fields;
-        this.trackName = getFieldSafe(fields, 0);
-        this.albumName = getFieldSafe(fields, 7);
-        this.albumType = getFieldSafe(fields, 4);
-        this.releaseDate = getFieldSafe(fields, 8);
-        this.durationMs = getFieldSafe(fields, 3);
-        
-        // Construction du tableau d'artistes (colonnes 13-24)
-        ArrayList<String> artistList = new ArrayList<>();
-        for (int i = 13; i <= 24; i++) {
-            String artist = getFieldSafe(fields, i);
-            if (!artist.isEmpty()) {
-                artistList.add(artist);
-            }
-        }
-        this.artists = artistList.toArray(new String[0]);
-        
-        // Popularité
-        try {
-            this.albumPopularity = Integer.parseInt(getFieldSafe(fields, 10));
-        } catch (NumberFormatException e) {
-            this.albumPopularity = 0;
+public class Musique implements MusiqueInterface {
+    
+    static final String[] FICHIERS = {"", "src/spotify_100.csv", "src/spotify_1000.csv", 
+                                      "src/spotify_10000.csv", "src/spotify_100000.csv", "src/spotify_FULL.csv"};
+    
+    // Structure de la liste (voir Structures), choisie au lancement
+    private List<Song> songs;
+    private final Structures.Structure structure;
+    private String currentImplementation;
+    private Scanner scanner;
+    
+    // Index secondaires (titre, artiste, album, type, année), tenus à jour à chaque ajout/suppression
+    private final IndexChansons index = new IndexChansons();
+    
+    // Sélections des requêtes déjà évaluées, pour cette version de l'index
+    private final CacheResultats cache = new CacheResultats(CacheResultats.BUDGET_DEFAUT);
+    
+    // Vue courante : ids sélectionnés par les filtres (null = toutes), la liste reste intacte
+    private BitSet vue;
+    private Requete requeteVue;
+    
+    // Tri par permutation : l'ordre calculé n'est appliqué à songs qu'à la demande
+    private final TriPermutation moteurTri = new TriPermutation();
+    private Song[] ordreSource;
+    private int[] ordreEnAttente;
+    
+    // Comparaisons du dernier tri fusion manuel (métriques)
+    private long comparaisonsFusion;
+    
+    // Compteurs de l'opération mesurée en cours ; le menu passe par le décorateur de métriques
+    private Metriques.Compteurs compteurs = Metriques.Compteurs.AUCUN;
+    private MusiqueMesuree.Listes operations;
+    
+    // Ordre actuel de songs (dernier tri), null si quelconque : les ajouts incrémentaux y sont insérés
+    private Comparator<Song> ordreCourant;
+    private static final Comparator<Song> PAR_POPULARITE = Comparator.comparingInt(s -> s.albumPopularity);
+    
+    // Partie déjà lue du dernier fichier chargé en entier (ajouts incrémentaux)
+    private SuiviFichier suivi;
+    
+    // Top-K en cours : pages suivantes produites à la demande, sur une copie de la vue
+    private TopK.Pages pages;
+    private Song[] pagesSource;
+    private int taillePage;
+    
+    // Agrégations matérialisées (clé : forme canonique), prolongées à chaque chargement
+    private final Map<String, Agregation.Cumul> cumuls = new LinkedHashMap<>();
+    
+    // Tâches de fond (créées au premier lancement) et leurs résultats, appliqués par le thread de la console
+    private Taches taches;
+    private final ConcurrentLinkedQueue<Runnable> publications = new ConcurrentLinkedQueue<>();
+    
+    public Musique(boolean useArrayList) {
+        this(useArrayList ? Structures.Structure.ARRAYLIST : Structures.Structure.LINKEDLIST);
+    }
+    
+    public Musique(Structures.Structure structure) {
+        // Choix de l'implémentation
+        this.structure = structure;
+        songs = structure.creer(index);
+        currentImplementation = structure.libelle;
+        scanner = new Scanner(System.in);
+    }
+    
+    @Override
+    public void charger(String path) throws Exception {
+        avantChargement(path);
+        System.out.println("\n=== CHARGEMENT avec " + currentImplementation + " ===");
+        long startTime = System.currentTimeMillis();
+        
+        int[] compte = new int[1];
+        lireClassique(path, s -> {
+            ajouterChanson(s);
+            compte[0]++;
+        }, Taches.Progression.AUCUNE);
+        int count = compte[0];
+        compteurs.lues(count).emises(count);
+        
+        long endTime = System.currentTimeMillis();
+        long duration = endTime - startTime;
+        
+        System.out.println("✓ Chargé: " + count + " chansons");
+        System.out.println("✓ Temps: " + duration + " ms");
+        System.out.println("✓ Structure: " + currentImplementation);
+        suivre(path);
+    }
+    
+    /**
+     * Lecteur classique (BufferedReader, split sur les virgules) de charger()
+     * et lancerChargement() : en-tête ignoré, lignes de moins de 10 champs
+     * écartées. La progression avance toutes les 4096 lignes, en caractères
+     * lus (les caractères accentués font 2 octets).
+     * @return lignes lues, en-tête exclu
+     */
+    private static long lireClassique(String path, Consumer<Song> sortie, Taches.Progression progression)
+            throws IOException {
+        try (BufferedReader csvReader = new BufferedReader(new FileReader(path))) {
+            String row = csvReader.readLine(); // En-tête
+            long lignes = 0, octets = row == null ? 0 : row.length() + 1, signales = 0;
+            while ((row = csvReader.readLine()) != null) {
+                octets += row.length() + 1;
+                String[] fields = row.split(",");
+                if (fields.length >= 10) {
+                    sortie.accept(new Song(fields));
+                }
+                if ((++lignes & 4095) == 0) {
+                    progression.avancer(octets - signales, 4096);
+                    signales = octets;
+                }
+            }
+            progression.avancer(octets - signales, lignes & 4095);
+            return lignes;
         }
     }
     
-    private String getFieldSafe(String[] fields, int index) {
-        return (index >= 0 && index < fields.length) ? fields[index] : "";
+    @Override
+    public void compter(Metriques.Compteurs compteurs) {
+        this.compteurs = compteurs;
     }
     
-    public String getArtistsString() {
-        return artists.length > 0 ? String.join(", ", artists) : "Unknown";
+    // ========== CHARGEMENT MAPPÉ (FileChannel.map) ==========
+    public void chargerMappe(String path) throws Exception {
+        avantChargement(path);
+        System.out.println("\n=== CHARGEMENT MAPPÉ avec " + currentImplementation + " ===");
+        long startTime = System.currentTimeMillis();
+        
+        List<Song> lus = new ArrayList<>();
+        int count = LecteurCsv.lire(path, lus::add);
+        ajouterLot(lus, false);
+        compteurs.lues(count).emises(count);
+        
+        long endTime = System.currentTimeMillis();
+        
+        System.out.println("✓ Chargé: " + count + " chansons");
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+        System.out.println("✓ Structure: " + currentImplementation);
+        suivre(path);
+        ecrireInstantane(path, lus);
+    }
+    
+    // ========== CHARGEMENT PARALLÈLE ==========
+    public void chargerParallele(String path) throws Exception {
+        avantChargement(path);
+        int coeurs = Runtime.getRuntime().availableProcessors();
+        System.out.println("\n=== CHARGEMENT PARALLÈLE (" + coeurs + " cœurs) avec " + currentImplementation + " ===");
+        long startTime = System.currentTimeMillis();
+        
+        List<Song> lus = new ArrayList<>();
+        int count = LecteurCsv.lireParallele(path, coeurs, lus);
+        ajouterLot(lus, false);
+        compteurs.lues(count).emises(count);
+        
+        long endTime = System.currentTimeMillis();
+        
+        System.out.println("✓ Chargé: " + count + " chansons");
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+        System.out.println("✓ Structure: " + currentImplementation);
+        suivre(path);
+        ecrireInstantane(path, lus);
     }
     
-    public int getYear() {
+    // ========== INSTANTANÉ BINAIRE ==========
+    public void chargerInstantane(String path) throws Exception {
+        avantChargement(path);
+        System.out.println("\n=== CHARGEMENT INSTANTANÉ avec " + currentImplementation + " ===");
+        long startTime = System.currentTimeMillis();
+        
+        List<Song> lus = Instantane.lire(path, index);
+        ajouterLot(lus, true);
+        compteurs.lues(lus.size()).emises(lus.size());
+        
+        long endTime = System.currentTimeMillis();
+        
+        System.out.println("✓ Chargé: " + lus.size() + " chansons depuis " + Instantane.chemin(path).getFileName());
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+        System.out.println("✓ Structure: " + currentImplementation);
+        suivi = Instantane.suivi(path); // Taille et CRC du CSV lus dans l'en-tête
+        if (suivi == null) {
+            suivre(path);
+        }
+    }
+    
+    /**
+     * Sauvegarde l'instantané des chansons qui viennent d'être lues (lecteur
+     * mappé uniquement : le mode classique coupe les champs entre guillemets).
+     * Les index sont inclus s'ils ne contiennent que ces chansons ; le CRC du
+     * CSV est repris du suivi au lieu d'être recalculé.
+     */
+    private void ecrireInstantane(String path, List<Song> lus) {
+        long startTime = System.currentTimeMillis();
         try {
-            return Integer.parseInt(releaseDate.substring(0, 4));
+            long taille = Instantane.ecrire(path, lus, index.taille() == lus.size() ? index : null, suivi);
+            System.out.println("✓ Instantané écrit: " + Instantane.chemin(path).getFileName()
+                + " (" + (taille >> 10) + " Ko, " + (System.currentTimeMillis() - startTime) + " ms)");
         } catch (Exception e) {
-            return 0;
+            System.out.println("✗ Instantané non écrit: " + e.getMessage());
         }
     }
     
-    @Override
-    public String toString() {
-        return String.format("%-40s | %-30s | %-20s | %4d | Pop: %3d", 
-            truncate(trackName, 40),
-            truncate(getArtistsString(), 30),
-            truncate(albumName, 20),
-            getYear(),
-            albumPopularity);
+    /**
+     * Ajoute des chansons déjà lues (sans affichage), comme un chargement.
+     * Elles sont copiées : l'index écrit dans chaque chanson (id, clé de
+     * titre, chaînes uniques) et la liste de l'appelant peut servir à
+     * plusieurs instances.
+     */
+    void ajouterChansons(List<Song> chansons) {
+        appliquerOrdre();
+        List<Song> copies = new ArrayList<>(chansons.size());
+        for (Song s : chansons) {
+            copies.add(new Song(s));
+        }
+        ajouterLot(copies, false);
     }
     
-    private String truncate(String s, int length) {
-        return s.length() > length ? s.substring(0, length-3) + "..." : s;
+    /** Ajoute des chansons lues d'un bloc (déjà indexées ou non) et met à jour la vue. */
+    private void ajouterLot(List<Song> lus, boolean dejaIndexees) {
+        ordreCourant = null;
+        pages = null;
+        if (!dejaIndexees) {
+            index.ajouterTous(lus);
+        }
+        songs.addAll(lus);
+        for (Agregation.Cumul cumul : cumuls.values()) {
+            cumul.ajouterTous(lus);
+        }
+        if (vue != null) {
+            for (Song song : lus) {
+                if (requeteVue.test(song)) {
+                    vue.set(song.id);
+                }
+            }
+        }
     }
-}
-
-/**
- * Classe principale avec menu et algorithmes de tri/recherche
- */
-public class Musique implements MusiqueInterface {
     
-    // IMPORTANT: Changer ici pour comparer ArrayList vs LinkedList
-    private List<Song> songs;
-    private String currentImplementation;
-    private Scanner scanner;
+    private void ajouterChanson(Song song) {
+        ordreCourant = null;
+        pages = null;
+        index.ajouter(song);
+        songs.add(song);
+        cumuler(song);
+        if (vue != null && requeteVue.test(song)) {
+            vue.set(song.id);
+        }
+    }
     
-    public Musique(boolean useArrayList) {
-        // Choix de l'implémentation
-        if (useArrayList) {
-            songs = new ArrayList<>();
-            currentImplementation = "ArrayList";
-        } else {
-            songs = new java.util.LinkedList<>();
-            currentImplementation = "LinkedList";
+    // ========== CHARGEMENT INCRÉMENTAL ==========
+    
+    /** Retient la fin et le CRC du fichier qui vient d'être chargé en entier. */
+    private void suivre(String path) {
+        try {
+            suivi = SuiviFichier.suivre(path);
+        } catch (Exception e) {
+            suivi = null;
+            System.out.println("✗ Suivi du fichier impossible: " + e.getMessage());
         }
-        scanner = new Scanner(System.in);
     }
     
-    @Override
-    public void charger(String path) throws Exception {
-        System.out.println("\n=== CHARGEMENT avec " + currentImplementation + " ===");
+    /**
+     * Un chargement complet du fichier déjà chargé le remplace au lieu d'en
+     * ajouter une seconde copie ; un autre fichier s'ajoute à la liste.
+     */
+    private void avantChargement(String path) {
+        if (estSuivi(path)) {
+            vider();
+        }
+        appliquerOrdre();
+    }
+    
+    /** Vrai si ce fichier a été chargé en entier et peut être relu par ses ajouts. */
+    boolean estSuivi(String path) {
+        return suivi != null && suivi.path.equals(path);
+    }
+    
+    /**
+     * Ne lit que les lignes ajoutées à la fin du fichier depuis son chargement.
+     * Si le début du fichier a changé, la liste est vidée et tout est rechargé.
+     */
+    public void chargerAjouts(String path) throws Exception {
+        if (!estSuivi(path)) {
+            throw new IllegalStateException("Fichier non chargé en entier: " + path);
+        }
+        appliquerOrdre();
+        System.out.println("\n=== CHARGEMENT INCRÉMENTAL (" + path + ") ===");
         long startTime = System.currentTimeMillis();
+        long debut = suivi.fin;
+        
+        List<Song> lus = new ArrayList<>();
+        SuiviFichier suite = suivi.lireAjouts(lus::add);
+        if (suite == null) {
+            System.out.println("⚠ Début du fichier modifié : rechargement complet");
+            vider();
+            chargerMappe(path);
+            return;
+        }
+        suivi = suite;
+        inserer(lus);
+        compteurs.lues(lus.size()).emises(lus.size());
         
-        BufferedReader csvReader = new BufferedReader(new FileReader(path));
-        String row;
+        long endTime = System.currentTimeMillis();
+        System.out.println("✓ Nouvelles chansons: " + lus.size() + " (" + (suite.fin - debut) + " octets lus)");
+        System.out.println("✓ Total: " + songs.size() + " chansons");
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+    
+    /**
+     * Applique un CSV delta : mêmes colonnes que le fichier source plus une
+     * colonne operation (upsert ou delete, vide = upsert). Une chanson est
+     * reconnue par son identité (titre, artistes, album) ; un upsert remplace
+     * la chanson existante ou l'ajoute, un delete la retire. Les index, la vue
+     * et l'ordre de tri courant sont mis à jour sans reconstruction.
+     */
+    public void appliquerDelta(String path) throws Exception {
+        appliquerOrdre();
+        System.out.println("\n=== DELTA (" + path + ") ===");
+        long startTime = System.currentTimeMillis();
         
-        // Ignorer l'en-tête
-        csvReader.readLine();
+        // La dernière ligne d'une identité l'emporte
+        Map<String, Song> upserts = new LinkedHashMap<>();
+        Map<String, Song> deletes = new LinkedHashMap<>();
+        int lignes = LecteurCsv.lireDelta(path, (song, operation) -> {
+            String cle = IndexChansons.identite(song);
+            switch (operation.trim().toLowerCase()) {
+                case "": case "upsert":
+                    deletes.remove(cle);
+                    upserts.put(cle, song);
+                    break;
+                case "delete":
+                    upserts.remove(cle);
+                    deletes.put(cle, song);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opération delta inconnue: '" + operation + "'");
+            }
+        });
         
-        int count = 0;
-        while ((row = csvReader.readLine()) != null) {
-            String[] fields = row.split(",");
-            if (fields.length >= 10) {
-                songs.add(new Song(fields));
-                count++;
+        BitSet retirees = new BitSet(index.taille());
+        Map<Integer, Song> remplacements = new HashMap<>();
+        List<Song> nouvelles = new ArrayList<>();
+        int inconnues = 0;
+        for (Song song : deletes.values()) {
+            Song ancienne = index.parIdentite(song);
+            if (ancienne == null) {
+                inconnues++;
+            } else {
+                retirees.set(ancienne.id);
+                index.retirer(ancienne);
+                perimerCumuls();
+            }
+        }
+        for (Song song : upserts.values()) {
+            Song ancienne = index.parIdentite(song);
+            if (ancienne != null) {
+                remplacements.put(ancienne.id, song);
+                index.retirer(ancienne);
+                perimerCumuls();
+            } else {
+                nouvelles.add(song);
             }
         }
-        csvReader.close();
         
-        long endTime = System.currentTimeMillis();
-        long duration = endTime - startTime;
+        // Une passe sur la liste : suppressions, puis remplacements sur place
+        // (ou réinsertion à leur rang si la liste est triée)
+        if (ordreCourant != null) {
+            for (int id : remplacements.keySet()) {
+                retirees.set(id);
+            }
+            nouvelles.addAll(remplacements.values());
+        }
+        if (!retirees.isEmpty()) {
+            songs.removeIf(song -> retirees.get(song.id));
+            pages = null;
+        }
+        if (ordreCourant == null && !remplacements.isEmpty()) {
+            ListIterator<Song> it = songs.listIterator();
+            while (it.hasNext()) {
+                Song remplacante = remplacements.get(it.next().id);
+                if (remplacante != null) {
+                    indexer(remplacante);
+                    it.set(remplacante);
+                }
+            }
+        }
+        if (vue != null) {
+            for (Integer id : remplacements.keySet()) {
+                vue.clear(id);
+            }
+            vue.andNot(retirees);
+        }
+        inserer(nouvelles);
         
-        System.out.println("✓ Chargé: " + count + " chansons");
-        System.out.println("✓ Temps: " + duration + " ms");
-        System.out.println("✓ Structure: " + currentImplementation);
+        compteurs.lues(lignes).emises(upserts.size() + deletes.size() - inconnues);
+        long endTime = System.currentTimeMillis();
+        System.out.println("✓ Lignes delta: " + lignes);
+        System.out.println("✓ Ajoutées: " + (upserts.size() - remplacements.size())
+            + " | Mises à jour: " + remplacements.size()
+            + " | Supprimées: " + (deletes.size() - inconnues)
+            + (inconnues > 0 ? " (" + inconnues + " suppressions sans correspondance)" : ""));
+        System.out.println("✓ Total: " + songs.size() + " chansons");
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+    
+    /** Indexe la chanson et l'ajoute à la vue si elle satisfait la requête courante. */
+    private void indexer(Song song) {
+        pages = null;
+        index.ajouter(song);
+        cumuler(song);
+        if (vue != null && requeteVue.test(song)) {
+            vue.set(song.id);
+        }
+    }
+    
+    /**
+     * Indexe des chansons et les ajoute à songs : à la fin, ou à leur rang si
+     * la liste est triée (tri des nouvelles puis fusion en une passe, stable :
+     * à égalité les anciennes restent devant).
+     */
+    private void inserer(List<Song> nouvelles) {
+        for (Song song : nouvelles) {
+            indexer(song);
+        }
+        if (ordreCourant == null) {
+            songs.addAll(nouvelles);
+            return;
+        }
+        nouvelles.sort(ordreCourant);
+        List<Song> fusion = new ArrayList<>(songs.size() + nouvelles.size());
+        Iterator<Song> it = songs.iterator();
+        Song courante = it.hasNext() ? it.next() : null;
+        for (Song nouvelle : nouvelles) {
+            while (courante != null && ordreCourant.compare(courante, nouvelle) <= 0) {
+                fusion.add(courante);
+                courante = it.hasNext() ? it.next() : null;
+            }
+            fusion.add(nouvelle);
+        }
+        while (courante != null) {
+            fusion.add(courante);
+            courante = it.hasNext() ? it.next() : null;
+        }
+        songs.clear();
+        songs.addAll(fusion);
+    }
+    
+    /** Vide la liste, les index et la vue. */
+    private void vider() {
+        songs.clear();
+        ordreSource = null; // Une permutation en attente remettrait les anciennes chansons
+        ordreEnAttente = null;
+        index.vider();
+        vue = null;
+        requeteVue = null;
+        ordreCourant = null;
+        suivi = null;
+        pages = null;
+        perimerCumuls();
+    }
+    
+    /**
+     * Les premières chansons de la vue, dans l'ordre de la liste (ou de la
+     * permutation en attente), sans appliquer cette permutation.
+     */
+    List<Song> premieres(int limite) {
+        List<Song> resultat = new ArrayList<>(Math.min(limite, tailleVue()));
+        Iterator<Song> it = songs.iterator();
+        int k = 0;
+        while (resultat.size() < limite) {
+            Song song;
+            if (ordreEnAttente != null) {
+                if (k >= ordreEnAttente.length) break;
+                song = ordreSource[ordreEnAttente[k++]];
+            } else {
+                if (!it.hasNext()) break;
+                song = it.next();
+            }
+            if (dansVue(song)) {
+                resultat.add(song);
+            }
+        }
+        return resultat;
     }
     
     @Override
     public void afficher() {
-        System.out.println("\n=== AFFICHAGE (" + songs.size() + " chansons) ===");
+        int total = tailleVue();
+        System.out.println("\n=== AFFICHAGE (" + total + " chansons) ===");
         System.out.println(String.format("%-40s | %-30s | %-20s | %4s | %s", 
             "TITRE", "ARTISTE", "ALBUM", "ANNÉE", "POP"));
         System.out.println("-".repeat(120));
         
         // Limiter l'affichage selon la taille
-        int displayCount = songs.size() > 1000 ? songs.size() / 100 : 
-                          songs.size() > 100 ? 50 : songs.size();
+        int displayCount = total > 1000 ? total / 100 : 
+                          total > 100 ? 50 : total;
         
-        for (int i = 0; i < Math.min(displayCount, songs.size()); i++) {
-            System.out.println(i + ". " + songs.get(i));
+        int shown = 0;
+        for (Song song : premieres(displayCount)) {
+            System.out.println(shown++ + ". " + song);
         }
         
-        if (displayCount < songs.size()) {
-            System.out.println("... (" + (songs.size() - displayCount) + " autres chansons)");
+        if (displayCount < total) {
+            System.out.println("... (" + (total - displayCount) + " autres chansons)");
         }
+        compteurs.lues(total).emises(shown);
     }
     
     // ========== TRI SÉLECTION (Manuel) ==========
     public void triSelection() {
+        appliquerOrdre();
         System.out.println("\n=== TRI SÉLECTION (par popularité) ===");
         long startTime = System.currentTimeMillis();
         
         int n = songs.size();
-        for (int i = 0; i < n - 1; i++) {
-            int minIdx = i;
-            
-            // Trouver le minimum dans la partie non triée
-            for (int j = i + 1; j < n; j++) {
-                if (songs.get(j).albumPopularity < songs.get(minIdx).albumPopularity) {
-                    minIdx = j;
-                }
-            }
-            
-            // Échanger
-            if (minIdx != i) {
-                Song temp = songs.get(i);
-                songs.set(i, songs.get(minIdx));
-                songs.set(minIdx, temp);
-            }
-            
-            // Progression (pour grandes listes)
-            if (n > 1000 && i % (n / 10) == 0) {
-                System.out.print(".");
-            }
-        }
+        compteurs.lues(n).emises(n).comparaisons((long) n * (n - 1) / 2);
+        // Par index si la liste est à accès direct, sinon par curseur
+        Structures.triSelection(songs, PAR_POPULARITE);
         
         long endTime = System.currentTimeMillis();
+        ordreCourant = PAR_POPULARITE;
         System.out.println("\n✓ Tri Sélection terminé en " + (endTime - startTime) + " ms");
     }
     
     // ========== TRI FUSION (Manuel) ==========
     public void triFusion() {
+        appliquerOrdre();
         System.out.println("\n=== TRI FUSION (par popularité) ===");
         long startTime = System.currentTimeMillis();
         
-        Song[] temp = new Song[songs.size()];
-        songs.toArray(temp);
-        triFusionRecursif(temp, 0, temp.length - 1);
+        if (songs instanceof ListeChainee) {
+            // Fusion sur les nœuds eux-mêmes, sans tableau
+            long comparaisons = ((ListeChainee) songs).trierFusion(PAR_POPULARITE);
+            compteurs.lues(songs.size()).emises(songs.size()).comparaisons(comparaisons);
+        } else {
+            Song[] temp = new Song[songs.size()];
+            songs.toArray(temp);
+            comparaisonsFusion = 0;
+            triFusionRecursif(temp, 0, temp.length - 1);
+            compteurs.lues(temp.length).emises(temp.length).comparaisons(comparaisonsFusion);
         
-        // Remettre dans la liste
-        songs.clear();
-        for (Song s : temp) {
-            songs.add(s);
+            // Remettre dans la liste (au curseur : pas de get/set par index)
+            ListIterator<Song> it = songs.listIterator();
+            for (Song s : temp) {
+                it.next();
+                it.set(s);
+            }
         }
         
         long endTime = System.currentTimeMillis();
+        ordreCourant = PAR_POPULARITE;
         System.out.println("✓ Tri Fusion terminé en " + (endTime - startTime) + " ms");
     }
     
@@ -222,6 +596,7 @@ public class Musique implements MusiqueInterface {
         int i = 0, j = 0, k = left;
         
         while (i < n1 && j < n2) {
+            comparaisonsFusion++;
             if (L[i].albumPopularity <= R[j].albumPopularity) {
                 arr[k++] = L[i++];
             } else {
@@ -233,106 +608,412 @@ public class Musique implements MusiqueInterface {
         while (j < n2) arr[k++] = R[j++];
     }
     
+    // ========== TRI FUSION PARALLÈLE (fork/join) ==========
+    public void triFusionParallele(int seuilSequentiel, boolean fusionParallele, boolean reference) {
+        appliquerOrdre();
+        int coeurs = ForkJoinPool.commonPool().getParallelism();
+        System.out.println("\n=== TRI FUSION PARALLÈLE (par popularité, " + coeurs + " workers) ===");
+        
+        Song[] temp = new Song[songs.size()];
+        songs.toArray(temp);
+        
+        // Référence (sur demande) : tri fusion séquentiel sur une copie
+        long seqTime = -1;
+        if (reference) {
+            Song[] copie = temp.clone();
+            long startTime = System.currentTimeMillis();
+            triFusionRecursif(copie, 0, copie.length - 1);
+            seqTime = System.currentTimeMillis() - startTime;
+        }
+        
+        long startTime = System.currentTimeMillis();
+        ForkJoinPool.commonPool().invoke(new TriFusionParallele(temp, PAR_POPULARITE, seuilSequentiel, fusionParallele));
+        long parTime = System.currentTimeMillis() - startTime;
+        compteurs.lues(temp.length).emises(temp.length);
+        
+        songs.clear();
+        for (Song s : temp) {
+            songs.add(s);
+        }
+        ordreCourant = PAR_POPULARITE;
+        
+        System.out.println("✓ Seuil séquentiel: " + seuilSequentiel
+                + " | Fusion parallèle: " + (fusionParallele ? "oui" : "non"));
+        System.out.println("✓ Tri Fusion parallèle terminé en " + parTime + " ms");
+        if (reference) {
+            System.out.println("✓ Tri Fusion séquentiel: " + seqTime + " ms");
+            System.out.println("✓ Accélération: x" + String.format("%.2f", (double) seqTime / Math.max(parTime, 1)));
+        }
+    }
+    
     // ========== TRI JAVA (TimSort) ==========
     @Override
     public void sort(int criteria) {
+        appliquerOrdre();
         System.out.println("\n=== TRI JAVA (TimSort) ===");
         long startTime = System.currentTimeMillis();
+        long[] comparaisons = new long[1];
+        Comparator<Song> ordre;
         
         switch (criteria) {
             case 0: // Titre
-                Collections.sort(songs, (s1, s2) -> s1.trackName.compareTo(s2.trackName));
-                System.out.println("Critère: Titre");
+                ordre = Collation.PAR_TITRE;
+                System.out.println("Critère: Titre (" + (index.getCollation().ignorerAccents
+                    ? "casse et accents ignorés" : "casse ignorée") + ")");
                 break;
             case 1: // Popularité
-                Collections.sort(songs, (s1, s2) -> Integer.compare(s1.albumPopularity, s2.albumPopularity));
+                ordre = (s1, s2) -> Integer.compare(s1.albumPopularity, s2.albumPopularity);
                 System.out.println("Critère: Popularité");
                 break;
             case 2: // Année
-                Collections.sort(songs, (s1, s2) -> Integer.compare(s1.getYear(), s2.getYear()));
+                ordre = Comparator.comparingInt(Song::getYear);
                 System.out.println("Critère: Année");
                 break;
             default:
                 System.out.println("Critère invalide");
                 return;
         }
+        if (criteria == 2) {
+            trierParCle(TriPermutation.Critere.ANNEE, comparaisons); // Date analysée une fois par chanson
+        } else {
+            Collections.sort(songs, compter(ordre, comparaisons));
+        }
         
         long endTime = System.currentTimeMillis();
+        compteurs.lues(songs.size()).emises(songs.size()).comparaisons(comparaisons[0]);
+        ordreCourant = ordre;
         System.out.println("✓ Tri Java terminé en " + (endTime - startTime) + " ms");
     }
     
-    // ========== FILTRES ==========
+    /**
+     * Ordre des titres (tri et recherche dichotomique) : casse seule ignorée,
+     * ou casse et accents. Les clés sont recalculées une fois par titre distinct.
+     */
+    public void ignorerAccents(boolean ignorer) {
+        long startTime = System.currentTimeMillis();
+        index.changerCollation(ignorer);
+        ordreCourant = null; // Un tri par titre n'est plus forcément dans l'ordre des nouvelles clés
+        System.out.println("✓ Titres: " + (ignorer ? "casse et accents ignorés" : "casse ignorée, accents distingués")
+            + " (" + (System.currentTimeMillis() - startTime) + " ms)");
+    }
+    
+    /**
+     * TimSort de songs sur une colonne de clés extraite une fois
+     * (TriPermutation.extraire) : les comparaisons portent sur des int.
+     * Stable, comme Collections.sort.
+     */
+    private void trierParCle(TriPermutation.Critere critere, long[] comparaisons) {
+        Song[] tab = songs.toArray(new Song[0]);
+        int[] cle = TriPermutation.extraire(tab, critere);
+        Integer[] positions = new Integer[tab.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        Arrays.sort(positions, (i, j) -> {
+            comparaisons[0]++;
+            return Integer.compare(cle[i], cle[j]);
+        });
+        ListIterator<Song> it = songs.listIterator();
+        for (Integer i : positions) {
+            it.next();
+            it.set(tab[i]);
+        }
+    }
+    
+    /** Comparateur qui compte ses appels dans compteur[0]. */
+    private static Comparator<Song> compter(Comparator<Song> c, long[] compteur) {
+        return (s1, s2) -> {
+            compteur[0]++;
+            return c.compare(s1, s2);
+        };
+    }
+    
+    // ========== TRI PAR PERMUTATION (multi-clés) ==========
+    @Override
+    public void triPermutation(String spec) {
+        List<TriPermutation.Cle> cles = TriPermutation.analyser(spec);
+        appliquerOrdre();
+        System.out.println("\n=== TRI PAR PERMUTATION (" + cles + ") ===");
+        long startTime = System.currentTimeMillis();
+        
+        Song[] tab = songs.toArray(new Song[0]);
+        int[][] colonnes = new int[cles.size()][];
+        boolean[] decroissant = new boolean[cles.size()];
+        for (int k = 0; k < cles.size(); k++) {
+            colonnes[k] = TriPermutation.extraire(tab, cles.get(k).critere);
+            decroissant[k] = cles.get(k).decroissant;
+        }
+        long extractTime = System.currentTimeMillis();
+        
+        int[] perm = new int[tab.length];
+        for (int i = 0; i < perm.length; i++) {
+            perm[i] = i;
+        }
+        moteurTri.trier(perm, perm.length, colonnes, decroissant);
+        compteurs.lues(tab.length).emises(tab.length);
+        ordreSource = tab;
+        ordreEnAttente = perm;
+        ordreCourant = TriPermutation.comparateur(cles);
+        
+        long endTime = System.currentTimeMillis();
+        System.out.println("✓ Clés extraites en " + (extractTime - startTime) + " ms");
+        System.out.println("✓ Permutation triée en " + (endTime - extractTime) + " ms");
+        System.out.println("✓ Ordre appliqué à la liste à la demande");
+    }
+    
+    /** Recopie dans songs l'ordre calculé par triPermutation, s'il y en a un. */
+    private void appliquerOrdre() {
+        if (ordreEnAttente == null) {
+            return;
+        }
+        songs.clear();
+        for (int id : ordreEnAttente) {
+            songs.add(ordreSource[id]);
+        }
+        ordreSource = null;
+        ordreEnAttente = null;
+    }
+    
+    // ========== TOP-K (sans tri complet) ==========
+    
+    /** Critère de top : 1 = popularité, 2 = année, 3 = durée (clé décroissante). */
+    static TriPermutation.Critere critereTop(int criteria) {
+        switch (criteria) {
+            case 1: return TriPermutation.Critere.POPULARITE;
+            case 2: return TriPermutation.Critere.ANNEE;
+            case 3: return TriPermutation.Critere.DUREE;
+            default: throw new IllegalArgumentException("Critère de top invalide: " + criteria);
+        }
+    }
+    
+    /**
+     * Les k premières chansons de la vue par clé décroissante (à égalité,
+     * l'ordre de la liste), par tri rapide incrémental : rien n'est trié
+     * au-delà de la page affichée et la liste n'est pas modifiée.
+     * pageSuivante() affiche les k suivantes.
+     */
+    @Override
+    public void top(int k, int criteria) {
+        TriPermutation.Critere critere = critereTop(criteria);
+        if (k <= 0) {
+            throw new IllegalArgumentException("K doit être positif");
+        }
+        long startTime = System.currentTimeMillis();
+        pagesSource = premieres(Integer.MAX_VALUE).toArray(new Song[0]);
+        pages = new TopK.Pages(TriPermutation.extraire(pagesSource, critere), pagesSource.length);
+        taillePage = k;
+        compteurs.lues(pagesSource.length);
+        System.out.println("\n=== TOP " + k + " (" + critere.name().toLowerCase() + " décroissant, tri rapide incrémental) ===");
+        System.out.println("✓ Clés extraites en " + (System.currentTimeMillis() - startTime) + " ms");
+        afficherPage();
+    }
+    
+    @Override
+    public void pageSuivante() {
+        if (pages == null) {
+            System.out.println("❌ Aucun top en cours (ou vue modifiée depuis)");
+        } else if (pages.finie()) {
+            System.out.println("✓ Toutes les chansons ont été affichées");
+        } else {
+            afficherPage();
+        }
+    }
+    
+    private void afficherPage() {
+        long startTime = System.currentTimeMillis();
+        int premier = pages.getSorties();
+        int[] page = pages.suivante(taillePage);
+        long endTime = System.currentTimeMillis();
+        compteurs.emises(page.length);
+        
+        for (int i = 0; i < page.length; i++) {
+            System.out.println((premier + i) + ". " + pagesSource[page[i]]);
+        }
+        System.out.println("✓ Rangs " + premier + " à " + (premier + page.length - 1) + " sur " + pagesSource.length);
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+    
+    /** Top k par tas (O(n log k)) ou par sélection rapide (O(n + k log k)), pour comparer. */
+    public void topSansPages(int k, int criteria, boolean parTas) {
+        TriPermutation.Critere critere = critereTop(criteria);
+        System.out.println("\n=== TOP " + k + " (" + critere.name().toLowerCase() + " décroissant, "
+            + (parTas ? "tas" : "quickselect") + ") ===");
+        long startTime = System.currentTimeMillis();
+        Song[] tab = premieres(Integer.MAX_VALUE).toArray(new Song[0]);
+        int[] cles = TriPermutation.extraire(tab, critere);
+        int[] meilleures = parTas ? TopK.tas(cles, tab.length, k) : TopK.quickselect(cles, tab.length, k);
+        long endTime = System.currentTimeMillis();
+        compteurs.lues(tab.length).emises(meilleures.length);
+        
+        for (int i = 0; i < meilleures.length; i++) {
+            System.out.println(i + ". " + tab[meilleures[i]]);
+        }
+        System.out.println("✓ Top " + meilleures.length + " sur " + tab.length + " en " + (endTime - startTime) + " ms");
+    }
+    
+    // ========== REGROUPEMENTS ET AGRÉGATS ==========
+    
+    private void cumuler(Song song) {
+        for (Agregation.Cumul cumul : cumuls.values()) {
+            cumul.ajouter(song);
+        }
+    }
+    
+    private void perimerCumuls() {
+        for (Agregation.Cumul cumul : cumuls.values()) {
+            cumul.perimer();
+        }
+    }
+    
+    /**
+     * Groupes de la vue selon spec (voir Agregation), triés. Sans filtre, un
+     * cumul matérialisé de même forme est lu directement ; sinon une passe
+     * parallèle sur la vue.
+     */
+    List<Map.Entry<String, Agregation.Groupe>> agreger(Agregation agregation) {
+        Agregation.Cumul cumul = vue == null ? cumuls.get(agregation.toString()) : null;
+        Map<String, Agregation.Groupe> groupes;
+        if (cumul != null) {
+            groupes = cumul.groupes(songs);
+            compteurs.lues(0);
+        } else {
+            Song[] chansons = premieres(Integer.MAX_VALUE).toArray(new Song[0]);
+            groupes = agregation.calculer(chansons);
+            compteurs.lues(chansons.length);
+        }
+        compteurs.emises(groupes.size());
+        return agregation.trier(groupes);
+    }
+    
+    @Override
+    public void grouper(String spec) {
+        Agregation agregation = Agregation.analyser(spec);
+        Agregation.Cumul cumul = vue == null ? cumuls.get(agregation.toString()) : null;
+        System.out.println("\n=== REGROUPEMENT (" + agregation + ") ===");
+        if (cumul != null) {
+            System.out.println(cumul.estPerime() ? "⚠ Cumul périmé (suppressions) : recalcul" : "✓ Cumul matérialisé");
+        }
+        long startTime = System.currentTimeMillis();
+        List<Map.Entry<String, Agregation.Groupe>> groupes = agreger(agregation);
+        long endTime = System.currentTimeMillis();
+        
+        agregation.afficher(groupes, 50);
+        System.out.println("✓ Groupes: " + groupes.size() + " sur " + tailleVue() + " chansons");
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+    
+    /** Matérialise l'agrégation sur toute la liste ; elle suivra les chargements suivants. */
+    public void materialiser(String spec) {
+        Agregation agregation = Agregation.analyser(spec);
+        long startTime = System.currentTimeMillis();
+        Agregation.Cumul cumul = cumuls.computeIfAbsent(agregation.toString(), k -> new Agregation.Cumul(agregation));
+        int nbGroupes = cumul.groupes(songs).size();
+        System.out.println("✓ Cumul matérialisé: " + agregation + " (" + nbGroupes + " groupes, "
+            + (System.currentTimeMillis() - startTime) + " ms)");
+    }
+    
+    // ========== FILTRES (vues, sans suppression) ==========
     @Override
     public void filter(String text, int columnIndex) {
-        System.out.println("\n=== FILTRE MANUEL (par année) ===");
-        long startTime = System.currentTimeMillis();
-        
         try {
-            int year = Integer.parseInt(text);
-            int initialSize = songs.size();
-            
-            // Parcours inverse pour éviter les problèmes d'index
-            for (int i = songs.size() - 1; i >= 0; i--) {
-                if (songs.get(i).getYear() != year) {
-                    songs.remove(i);
-                }
-            }
-            
-            long endTime = System.currentTimeMillis();
-            System.out.println("✓ Filtré: " + (initialSize - songs.size()) + " chansons supprimées");
-            System.out.println("✓ Restantes: " + songs.size() + " chansons");
-            System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+            affinerVue(Requete.annee(Integer.parseInt(text.trim())), "FILTRE (par année)");
         } catch (NumberFormatException e) {
             System.out.println("❌ Année invalide");
         }
     }
     
     public void filtreJava(String critere, String valeur) {
-        System.out.println("\n=== FILTRE JAVA (removeIf) ===");
-        long startTime = System.currentTimeMillis();
-        
-        int initialSize = songs.size();
-        
+        Requete requete;
         switch (critere) {
-            case "artiste":
-                songs.removeIf(s -> !s.getArtistsString().toLowerCase().contains(valeur.toLowerCase()));
-                break;
-            case "album":
-                songs.removeIf(s -> !s.albumName.toLowerCase().contains(valeur.toLowerCase()));
-                break;
-            case "titre":
-                songs.removeIf(s -> !s.trackName.toLowerCase().contains(valeur.toLowerCase()));
-                break;
-            case "type":
-                songs.removeIf(s -> !s.albumType.equalsIgnoreCase(valeur));
-                break;
+            case "artiste": requete = Requete.artiste(valeur, true); break;
+            case "album": requete = Requete.album(valeur, true); break;
+            case "titre": requete = Requete.titre(valeur, true); break;
+            case "type": requete = Requete.type(valeur); break;
+            case "annee":
+                filter(valeur, 8);
+                return;
             default:
                 System.out.println("❌ Critère invalide");
                 return;
         }
+        affinerVue(requete, "FILTRE (par " + critere + ")");
+    }
+    
+    /** Requête composée, ex. "annee=2020 ET (artiste~weeknd OU pop>=80)". */
+    public void requete(String expression) {
+        affinerVue(Requete.analyser(expression), "REQUÊTE COMPOSÉE");
+    }
+    
+    /**
+     * Restreint la vue courante aux chansons qui satisfont aussi la requête,
+     * en une passe. La liste songs n'est jamais modifiée.
+     * La sélection de la requête sur tout le catalogue est gardée en cache :
+     * répétée sans modification des chansons, elle n'est pas réévaluée.
+     */
+    private void affinerVue(Requete requete, String titre) {
+        System.out.println("\n=== " + titre + " ===");
+        long startTime = System.nanoTime();
+        
+        int initialSize = tailleVue();
+        pages = null;
+        String cle = CacheResultats.cle(requete);
+        BitSet selection = cache.chercher(cle, index.version());
+        boolean enCache = selection != null;
+        if (!enCache) {
+            selection = requete.evaluer(index, null);
+            cache.ranger(cle, index.version(), selection);
+            compteurs.lues(index.taille());
+        }
+        if (vue != null) {
+            selection.and(vue);
+        }
+        vue = selection;
+        requeteVue = Requete.et(requeteVue, requete);
+        compteurs.emises(tailleVue());
         
-        long endTime = System.currentTimeMillis();
-        System.out.println("✓ Filtré: " + (initialSize - songs.size()) + " chansons supprimées");
-        System.out.println("✓ Restantes: " + songs.size() + " chansons");
-        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+        long endTime = System.nanoTime();
+        System.out.println("✓ Filtré: " + (initialSize - tailleVue()) + " chansons exclues de la vue");
+        System.out.println("✓ Restantes: " + tailleVue() + " chansons (liste intacte: " + songs.size() + ")");
+        System.out.println("✓ Vue: " + requeteVue);
+        System.out.println("✓ Temps: " + String.format("%.3f", (endTime - startTime) / 1e6) + " ms"
+            + (enCache ? " (cache)" : ""));
+        System.out.println("✓ Cache: " + cache.resume());
+    }
+    
+    /** Vide le cache des requêtes et affiche ses compteurs. */
+    public void viderCache() {
+        System.out.println("✓ Cache: " + cache.resume());
+        cache.vider();
+        System.out.println("✓ Cache vidé");
+    }
+    
+    public void reinitialiserVue() {
+        vue = null;
+        requeteVue = null;
+        pages = null;
+        System.out.println("✓ Vue réinitialisée: " + songs.size() + " chansons");
+    }
+    
+    private boolean dansVue(Song song) {
+        return vue == null || vue.get(song.id);
+    }
+    
+    int nbChansons() {
+        return songs.size();
     }
     
-    // ========== RECHERCHE LINÉAIRE ==========
+    int tailleVue() {
+        return vue == null ? songs.size() : vue.cardinality();
+    }
+    
+    // ========== RECHERCHE (index) ==========
     @Override
     public void search(String titre) {
-        System.out.println("\n=== RECHERCHE LINÉAIRE ===");
+        System.out.println("\n=== RECHERCHE (index de hachage sur le titre) ===");
         long startTime = System.currentTimeMillis();
         
-        int comparisons = 0;
-        Song found = null;
-        
-        for (Song song : songs) {
-            comparisons++;
-            if (song.trackName.equalsIgnoreCase(titre)) {
-                found = song;
-                break;
-            }
-        }
+        Song found = chercher(titre);
+        compteurs.lues(1).emises(found != null ? 1 : 0);
         
         long endTime = System.currentTimeMillis();
         
@@ -341,36 +1022,44 @@ public class Musique implements MusiqueInterface {
         } else {
             System.out.println("✗ Titre non trouvé");
         }
-        System.out.println("✓ Comparaisons: " + comparisons);
         System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
     }
     
+    /** Première chanson de la vue dont le titre est égal (casse ignorée), ou null. */
+    Song chercher(String titre) {
+        return index.chercherTitre(titre, vue);
+    }
+    
     // ========== RECHERCHE DICHOTOMIQUE ==========
     public void rechercheDichotomique(String titre) {
-        System.out.println("\n=== RECHERCHE DICHOTOMIQUE ===");
-        System.out.println("⚠ La liste doit être triée par titre!");
+        System.out.println("\n=== RECHERCHE DICHOTOMIQUE (index trié des titres) ===");
         
         long startTime = System.currentTimeMillis();
         
-        int left = 0, right = songs.size() - 1;
-        int comparisons = 0;
-        Song found = null;
+        Song found = index.rechercheDichotomique(titre, vue);
+        int comparisons = index.getDernieresComparaisons();
+        compteurs.lues(comparisons).emises(found != null ? 1 : 0).comparaisons(comparisons);
         
-        while (left <= right) {
-            comparisons++;
-            int mid = left + (right - left) / 2;
-            Song midSong = songs.get(mid);
-            int cmp = midSong.trackName.compareToIgnoreCase(titre);
-            
-            if (cmp == 0) {
-                found = midSong;
-                break;
-            } else if (cmp < 0) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
-            }
+        long endTime = System.currentTimeMillis();
+        
+        if (found != null) {
+            System.out.println("✓ Trouvé: " + found);
+        } else {
+            System.out.println("✗ Titre non trouvé");
         }
+        System.out.println("✓ Comparaisons: " + comparisons);
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+    
+    // ========== RECHERCHE PAR LISTE À SAUTS ==========
+    public void rechercheListeSauts(String titre) {
+        System.out.println("\n=== RECHERCHE PAR LISTE À SAUTS (titres, tenue à jour à chaque ajout) ===");
+        
+        long startTime = System.currentTimeMillis();
+        
+        Song found = index.rechercheListeSauts(titre, vue);
+        int comparisons = index.getDernieresComparaisons();
+        compteurs.lues(comparisons).emises(found != null ? 1 : 0).comparaisons(comparisons);
         
         long endTime = System.currentTimeMillis();
         
@@ -383,23 +1072,311 @@ public class Musique implements MusiqueInterface {
         System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
     }
     
+    // ========== ARTISTES (graphe de collaborations) ==========
+    
+    /** Chansons de l'artiste dans la vue, par popularité décroissante (au plus limite), ou null si inconnu. */
+    List<Song> chansonsArtiste(String nom, int limite) {
+        GrapheArtistes graphe = index.graphe();
+        int a = graphe.artiste(nom);
+        if (a < 0) {
+            return null;
+        }
+        List<Song> resultat = new ArrayList<>();
+        for (int id : graphe.chansons(a)) {
+            if (resultat.size() >= limite) {
+                break;
+            }
+            if (vue == null || vue.get(id)) {
+                resultat.add(index.chanson(id));
+            }
+        }
+        return resultat;
+    }
+    
+    /** Artistes à au plus sauts collaborations de l'artiste, ou null si inconnu. */
+    List<GrapheArtistes.Collaborateur> collaborateurs(String nom, int sauts, int limite) {
+        GrapheArtistes graphe = index.graphe();
+        int a = graphe.artiste(nom);
+        return a < 0 ? null : graphe.collaborateurs(a, sauts, limite);
+    }
+    
+    /** Top des chansons de l'artiste (vue courante) et ses collaborateurs à au plus sauts. */
+    public void artiste(String nom, int limite, int sauts) {
+        System.out.println("\n=== ARTISTE : " + nom.trim() + " ===");
+        long startTime = System.nanoTime();
+        GrapheArtistes graphe = index.graphe(); // Reconstruit seulement si les chansons ont changé
+        long grapheTime = System.nanoTime();
+        
+        List<Song> chansons = chansonsArtiste(nom, limite);
+        if (chansons == null) {
+            System.out.println("✗ Artiste inconnu");
+            return;
+        }
+        List<GrapheArtistes.Collaborateur> collab = collaborateurs(nom, sauts, limite);
+        long endTime = System.nanoTime();
+        compteurs.emises(chansons.size() + collab.size());
+        
+        int a = graphe.artiste(nom);
+        System.out.println(graphe.nom(a) + " : " + graphe.nbChansons(a) + " chansons");
+        for (int i = 0; i < chansons.size(); i++) {
+            System.out.println(i + ". " + chansons.get(i));
+        }
+        System.out.println("\nCollaborateurs (" + sauts + " saut" + (sauts > 1 ? "s" : "") + " au plus) :");
+        for (GrapheArtistes.Collaborateur c : collab) {
+            System.out.println("- " + c);
+        }
+        System.out.println(String.format("✓ Graphe: %d artistes, %d collaborations (%.1f ms)",
+            graphe.nbArtistes(), graphe.nbCollaborations(), (grapheTime - startTime) / 1e6));
+        System.out.println(String.format("✓ Requêtes: %.3f ms", (endTime - grapheTime) / 1e6));
+    }
+    
+    // ========== COMPARAISON DES STRUCTURES ==========
+    
+    /** Mesure chaque structure de liste sur les chansons chargées (voir Structures.comparer). */
+    public void comparerStructures() {
+        appliquerOrdre();
+        Structures.comparer(songs, index);
+    }
+    
+    // ========== RECHERCHE PAR PRÉFIXE D'ALBUM ==========
+    public void rechercheAlbumPrefixe(String prefixe) {
+        System.out.println("\n=== RECHERCHE PAR PRÉFIXE D'ALBUM (index trié) ===");
+        long startTime = System.currentTimeMillis();
+        
+        List<Song> found = index.albumsParPrefixe(prefixe, vue);
+        compteurs.emises(found.size());
+        
+        long endTime = System.currentTimeMillis();
+        
+        for (int i = 0; i < Math.min(found.size(), 50); i++) {
+            System.out.println(i + ". " + found.get(i));
+        }
+        System.out.println("✓ Trouvé: " + found.size() + " chansons");
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+    
     // ========== SUPPRESSION UN À UN ==========
     public void suppressionUnAUn() {
+        appliquerOrdre();
         System.out.println("\n=== SUPPRESSION UN À UN (test performance) ===");
         System.out.println("⚠ Ceci va vider toute la liste!");
         
         int initialSize = songs.size();
         long startTime = System.currentTimeMillis();
         
-        while (!songs.isEmpty()) {
-            songs.remove(0); // Suppression du premier élément
-        }
+        // Suppression du premier élément, au curseur (remove(0) parcourt une liste chaînée)
+        Structures.viderParLaTete(songs);
+        index.vider();
+        vue = null;
+        requeteVue = null;
+        ordreCourant = null;
+        suivi = null;
+        pages = null;
+        perimerCumuls();
+        compteurs.lues(initialSize);
         
         long endTime = System.currentTimeMillis();
         System.out.println("✓ Supprimé: " + initialSize + " chansons");
         System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
     }
     
+    // ========== TÂCHES DE FOND (asynchrones, annulables) ==========
+    
+    private Taches taches() {
+        if (taches == null) {
+            // Un cœur reste à la console
+            taches = new Taches(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        }
+        return taches;
+    }
+    
+    /**
+     * Lance le travail sur un worker. Son résultat est mis en file avant la fin
+     * du futur, puis appliqué par le thread de la console (publierTaches) :
+     * l'état de Musique n'est jamais modifié depuis un worker.
+     */
+    private <T> Taches.Tache<T> lancer(String nom, Taches.Travail<T> travail, Consumer<T> publication) {
+        Taches.Tache<T> tache = taches().lancer(nom, t -> {
+            T resultat = travail.executer(t);
+            t.verifier();
+            publications.add(() -> {
+                if (!t.futur().isCancelled()) {
+                    publication.accept(resultat);
+                }
+            });
+            return resultat;
+        });
+        System.out.println("✓ Tâche #" + tache.numero + " lancée: " + nom);
+        tache.futur().whenComplete((resultat, erreur) -> {
+            if (erreur == null) {
+                System.out.println("\n✓ Tâche " + tache + " (appliquée au retour au menu)");
+            } else if (tache.futur().isCancelled()) {
+                System.out.println("\n✗ Tâche #" + tache.numero + " " + tache.nom + " annulée");
+            } else {
+                System.out.println("\n❌ Tâche #" + tache.numero + " " + tache.nom + " en échec: " + erreur.getMessage());
+            }
+        });
+        return tache;
+    }
+    
+    /** Applique les résultats des tâches terminées, dans l'ordre (thread de la console). */
+    void publierTaches() {
+        Runnable publication;
+        while ((publication = publications.poll()) != null) {
+            publication.run();
+        }
+    }
+    
+    /** Vrai (et message) si des chansons ont été ajoutées ou retirées depuis le lancement de la tâche. */
+    private boolean perime(String nom, long version) {
+        if (index.version() == version) {
+            return false;
+        }
+        System.out.println("⚠ " + nom + ": les chansons ont changé depuis le lancement, résultat abandonné");
+        return true;
+    }
+    
+    /**
+     * Chargement en arrière-plan, avec le lecteur classique de charger().
+     * Progression en caractères lus sur la taille du fichier (les caractères
+     * accentués font 2 octets : le pourcentage est légèrement sous-estimé).
+     * Les chansons sont indexées et ajoutées à la publication.
+     */
+    public Taches.Tache<List<Song>> lancerChargement(String path) throws IOException {
+        long taille = Files.size(Path.of(path));
+        String nom = "chargement " + Path.of(path).getFileName();
+        return lancer(nom, tache -> {
+            try (Metriques.Mesure mesure = Metriques.mesurer("tache.charger")) {
+                tache.total(taille);
+                List<Song> lus = new ArrayList<>();
+                long lignes = lireClassique(path, lus::add, tache);
+                mesure.lues(lignes).emises(lus.size());
+                return lus;
+            }
+        }, lus -> {
+            appliquerOrdre();
+            long startTime = System.currentTimeMillis();
+            ajouterLot(lus, false);
+            suivre(path);
+            System.out.println("✓ " + nom + " appliqué: " + lus.size() + " chansons (indexation: "
+                + (System.currentTimeMillis() - startTime) + " ms)");
+        });
+    }
+    
+    /**
+     * Tri sélection (par popularité) en arrière-plan, sur une copie de la liste.
+     * Progression en comparaisons (n(n-1)/2 au total, ce qui donne un temps
+     * restant juste alors que les passes raccourcissent), annulation vérifiée
+     * à chaque passe. La copie triée remplace l'ordre de songs à la publication.
+     */
+    public Taches.Tache<Song[]> lancerTriSelection() {
+        appliquerOrdre();
+        Song[] copie = songs.toArray(new Song[0]);
+        long version = index.version();
+        return lancer("tri sélection", tache -> {
+            try (Metriques.Mesure mesure = Metriques.mesurer("tache.triSelection")) {
+                int n = copie.length;
+                tache.total((long) n * (n - 1) / 2);
+                Structures.triSelection(Arrays.asList(copie), PAR_POPULARITE, tache);
+                mesure.lues(n).emises(n).comparaisons((long) n * (n - 1) / 2);
+                return copie;
+            }
+        }, trie -> {
+            if (perime("Tri sélection", version)) {
+                return;
+            }
+            appliquerOrdre();
+            ListIterator<Song> it = songs.listIterator();
+            for (Song s : trie) {
+                it.next();
+                it.set(s);
+            }
+            ordreCourant = PAR_POPULARITE;
+            System.out.println("✓ Tri sélection appliqué: " + trie.length + " chansons");
+        });
+    }
+    
+    /**
+     * Requête composée en arrière-plan : le worker teste chaque chanson d'une
+     * copie de la liste (les index ne sont lus que par la console), progression
+     * en chansons. À la publication, la sélection entre dans le cache et
+     * restreint la vue comme affinerVue.
+     */
+    public Taches.Tache<BitSet> lancerRequete(String expression) {
+        Requete requete = Requete.analyser(expression); // Erreur de syntaxe : tout de suite, pas sur le worker
+        Song[] copie = songs.toArray(new Song[0]);
+        long version = index.version();
+        int taille = index.taille();
+        return lancer("requête " + requete, tache -> {
+            try (Metriques.Mesure mesure = Metriques.mesurer("tache.filtre")) {
+                tache.total(copie.length);
+                BitSet selection = new BitSet(taille);
+                for (int i = 0; i < copie.length; i++) {
+                    if (requete.test(copie[i])) {
+                        selection.set(copie[i].id);
+                    }
+                    if ((i & 4095) == 4095) {
+                        tache.avancer(4096, 4096);
+                    }
+                }
+                tache.avancer(copie.length & 4095, copie.length & 4095);
+                mesure.lues(copie.length).emises(selection.cardinality());
+                return selection;
+            }
+        }, selection -> {
+            if (perime("Requête " + requete, version)) {
+                return;
+            }
+            cache.ranger(CacheResultats.cle(requete), version, selection);
+            int initialSize = tailleVue();
+            if (vue != null) {
+                selection.and(vue);
+            }
+            vue = selection;
+            requeteVue = Requete.et(requeteVue, requete);
+            pages = null;
+            System.out.println("✓ Requête appliquée: " + (initialSize - tailleVue()) + " chansons exclues, "
+                + tailleVue() + " restantes (" + requeteVue + ")");
+        });
+    }
+    
+    /**
+     * Suppression un à un en arrière-plan : le worker vide par la tête une
+     * copie dans la même structure (une liste d'ids, qui lit l'index, est
+     * remplacée par une ArrayList), progression en chansons. La liste, les
+     * index et la vue sont vidés à la publication.
+     */
+    public Taches.Tache<Integer> lancerSuppression() {
+        appliquerOrdre();
+        List<Song> copie = structure == Structures.Structure.IDS ? new ArrayList<>() : structure.creer(index);
+        copie.addAll(songs);
+        long version = index.version();
+        return lancer("suppression un à un", tache -> {
+            try (Metriques.Mesure mesure = Metriques.mesurer("tache.suppressionUnAUn")) {
+                int n = copie.size();
+                tache.total(n);
+                Iterator<Song> it = copie.iterator();
+                for (int i = 1; it.hasNext(); i++) {
+                    it.next();
+                    it.remove();
+                    if ((i & 4095) == 0) {
+                        tache.avancer(4096, 4096);
+                    }
+                }
+                tache.avancer(n & 4095, n & 4095);
+                mesure.lues(n);
+                return n;
+            }
+        }, n -> {
+            if (perime("Suppression un à un", version)) {
+                return;
+            }
+            appliquerOrdre();
+            vider();
+            System.out.println("✓ Suppression un à un appliquée: " + n + " chansons");
+        });
+    }
+    
     // Méthodes de l'interface (non utilisées ici)
     @Override
     public void printRow(int index) {}
@@ -407,12 +1384,91 @@ public class Musique implements MusiqueInterface {
     @Override
     public void printColumn(int index) {}
     
+    // ========== MODE FLUX (fichiers plus grands que la mémoire) ==========
+    
+    /** Requête du mode flux, ou null si l'expression est vide. */
+    private static Requete filtreFlux(String expression) {
+        return expression == null || expression.isBlank() ? null : Requete.analyser(expression);
+    }
+    
+    /** Les n premières chansons du fichier selon spec (ex. "popularite desc"), sans chargement. */
+    public static void fluxTop(String path, String filtre, String spec, int n) throws Exception {
+        System.out.println("\n=== FLUX : TOP " + n + " (" + TriPermutation.analyser(spec) + ") ===");
+        long startTime = System.currentTimeMillis();
+        
+        Flux.TopN top = new Flux.TopN(n, TriPermutation.analyser(spec));
+        long retenues = Flux.parcourir(path, filtreFlux(filtre), top);
+        List<Song> resultat = top.resultat();
+        
+        long endTime = System.currentTimeMillis();
+        for (int i = 0; i < resultat.size(); i++) {
+            System.out.println(i + ". " + resultat.get(i));
+        }
+        System.out.println("✓ Chansons retenues par le filtre: " + retenues);
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+    
+    /** Nombre de chansons et popularité moyenne par type, annee, artiste ou album. */
+    public static void fluxCompter(String path, String filtre, String critere) throws Exception {
+        System.out.println("\n=== FLUX : COMPTAGE PAR " + critere.toUpperCase() + " ===");
+        long startTime = System.currentTimeMillis();
+        
+        Flux.Agregat agregat = new Flux.Agregat(critere);
+        long retenues = Flux.parcourir(path, filtreFlux(filtre), agregat);
+        List<Map.Entry<String, long[]>> groupes = agregat.resultat();
+        
+        long endTime = System.currentTimeMillis();
+        int affiches = Math.min(groupes.size(), 50);
+        for (int i = 0; i < affiches; i++) {
+            long[] g = groupes.get(i).getValue();
+            System.out.println(String.format("%-40s | %8d | Pop moy: %5.1f",
+                groupes.get(i).getKey(), g[0], (double) g[1] / g[0]));
+        }
+        if (affiches < groupes.size()) {
+            System.out.println("... (" + (groupes.size() - affiches) + " autres groupes)");
+        }
+        System.out.println("✓ Chansons retenues par le filtre: " + retenues);
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+    
+    /** Tri externe du fichier vers un nouveau CSV (blocs triés déversés sur disque puis fusionnés). */
+    public static void fluxTrier(String path, String filtre, String spec, String sortie, int tailleBloc) throws Exception {
+        System.out.println("\n=== FLUX : TRI EXTERNE (" + TriPermutation.analyser(spec) + ") ===");
+        long startTime = System.currentTimeMillis();
+        
+        long ecrites;
+        int fichiers;
+        try (Flux.TriExterne tri = new Flux.TriExterne(TriPermutation.analyser(spec), tailleBloc);
+             Flux.EcritureCsv csv = new Flux.EcritureCsv(Path.of(sortie), Flux.entete(path))) {
+            Flux.parcourir(path, filtreFlux(filtre), tri, true);
+            ecrites = tri.terminer(csv);
+            fichiers = tri.getNbFichiers();
+        }
+        
+        long endTime = System.currentTimeMillis();
+        System.out.println("✓ Écrit: " + ecrites + " chansons dans " + sortie);
+        System.out.println("✓ Fichiers temporaires: " + fichiers + " (blocs de " + tailleBloc + " chansons)");
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+    
     // ========== MENU PRINCIPAL ==========
     public void menu() {
+        operations = new MusiqueMesuree.Listes(this, "");
         while (true) {
+            publierTaches();
             System.out.println("\n" + "=".repeat(60));
             System.out.println("MENU PRINCIPAL - Structure: " + currentImplementation);
             System.out.println("Chansons chargées: " + songs.size());
+            if (vue != null) {
+                System.out.println("Vue: " + tailleVue() + " chansons (" + requeteVue + ")");
+            }
+            if (taches != null) {
+                for (Taches.Tache<?> tache : taches.liste()) {
+                    if (!tache.terminee()) {
+                        System.out.println("⏳ " + tache);
+                    }
+                }
+            }
             System.out.println("=".repeat(60));
             System.out.println("1. Charger un fichier");
             System.out.println("2. Afficher les données");
@@ -420,6 +1476,11 @@ public class Musique implements MusiqueInterface {
             System.out.println("4. Filtrer");
             System.out.println("5. Rechercher");
             System.out.println("6. Tests de performance");
+            System.out.println("7. Mode flux (fichiers plus grands que la mémoire)");
+            System.out.println("8. Top-K (sans tri complet)");
+            System.out.println("9. Regroupements et agrégats");
+            System.out.println("10. Artistes (top, collaborations)");
+            System.out.println("11. Tâches de fond (charger, trier, filtrer sans bloquer)");
             System.out.println("0. Quitter");
             System.out.print("\nChoix: ");
             
@@ -429,11 +1490,16 @@ public class Musique implements MusiqueInterface {
             try {
                 switch (choix) {
                     case 1: menuCharger(); break;
-                    case 2: afficher(); break;
+                    case 2: operations.afficher(); break;
                     case 3: menuTrier(); break;
                     case 4: menuFiltrer(); break;
                     case 5: menuRechercher(); break;
                     case 6: menuPerformance(); break;
+                    case 7: menuFlux(); break;
+                    case 8: menuTop(); break;
+                    case 9: menuGrouper(); break;
+                    case 10: menuArtiste(); break;
+                    case 11: menuTaches(); break;
                     case 0: 
                         System.out.println("Au revoir!");
                         return;
@@ -453,16 +1519,48 @@ public class Musique implements MusiqueInterface {
         System.out.println("3. spotify_10000.csv");
         System.out.println("4. spotify_100000.csv");
         System.out.println("5. spotify_FULL.csv");
+        System.out.println("6. Appliquer un fichier delta (upserts / suppressions)");
         System.out.print("Choix: ");
         
         int choix = scanner.nextInt();
         scanner.nextLine();
         
-        String[] files = {"", "src/spotify_100.csv", "src/spotify_1000.csv", 
-                         "src/spotify_10000.csv", "src/spotify_100000.csv", "src/spotify_FULL.csv"};
+        String[] files = FICHIERS;
         
-        if (choix >= 1 && choix <= 5) {
-            charger(files[choix]);
+        if (choix == 6) {
+            System.out.print("Fichier delta: ");
+            operations.appliquerDelta(scanner.nextLine().trim());
+        } else if (choix >= 1 && choix <= 5) {
+            if (estSuivi(files[choix])) {
+                System.out.print("Fichier déjà chargé, lire seulement les nouvelles lignes ? (O/n): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("n")) {
+                    operations.chargerAjouts(files[choix]);
+                    return;
+                }
+            }
+            if (Instantane.valide(files[choix])) {
+                System.out.print("Instantané binaire à jour trouvé, l'utiliser ? (O/n): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("n")) {
+                    operations.chargerInstantane(files[choix]);
+                    return;
+                }
+            }
+            System.out.println("Mode de lecture:");
+            System.out.println("1. Classique (BufferedReader + split)");
+            System.out.println("2. Mappé (FileChannel.map, gère les guillemets) + instantané");
+            System.out.println("3. Parallèle (mappé, tous les cœurs) + instantané");
+            System.out.print("Choix: ");
+            
+            int mode = scanner.nextInt();
+            scanner.nextLine();
+            
+            if (mode == 2) {
+                operations.chargerMappe(files[choix]);
+            } else if (mode == 3) {
+                operations.chargerParallele(files[choix]);
+            } else {
+                operations.charger(files[choix]);
+            }
         }
     }
     
@@ -470,30 +1568,52 @@ public class Musique implements MusiqueInterface {
         System.out.println("\n=== TRIER ===");
         System.out.println("1. Tri Sélection (par popularité)");
         System.out.println("2. Tri Fusion (par popularité)");
-        System.out.println("3. Tri Java - par titre");
-        System.out.println("4. Tri Java - par popularité");
-        System.out.println("5. Tri Java - par année");
+        System.out.println("3. Tri Fusion parallèle (fork/join, par popularité)");
+        System.out.println("4. Tri Java - par titre");
+        System.out.println("5. Tri Java - par popularité");
+        System.out.println("6. Tri Java - par année");
+        System.out.println("7. Tri par permutation (multi-clés)");
+        System.out.println("8. Ordre des titres : " + (index.getCollation().ignorerAccents
+            ? "distinguer les accents" : "ignorer les accents"));
         System.out.print("Choix: ");
         
         int choix = scanner.nextInt();
         scanner.nextLine();
         
         switch (choix) {
-            case 1: triSelection(); break;
-            case 2: triFusion(); break;
-            case 3: sort(0); break;
-            case 4: sort(1); break;
-            case 5: sort(2); break;
+            case 1: operations.triSelection(); break;
+            case 2: operations.triFusion(); break;
+            case 3:
+                System.out.print("Seuil séquentiel (0 = " + TriFusionParallele.SEUIL_SEQUENTIEL_DEFAUT + "): ");
+                int seuil = scanner.nextInt();
+                System.out.print("Fusion parallèle ? (1 = oui, 0 = non): ");
+                int fusion = scanner.nextInt();
+                System.out.print("Comparer au tri fusion séquentiel ? (1 = oui, 0 = non): ");
+                int reference = scanner.nextInt();
+                scanner.nextLine();
+                operations.triFusionParallele(seuil > 0 ? seuil : TriFusionParallele.SEUIL_SEQUENTIEL_DEFAUT,
+                    fusion == 1, reference == 1);
+                break;
+            case 4: operations.sort(0); break;
+            case 5: operations.sort(1); break;
+            case 6: operations.sort(2); break;
+            case 7:
+                System.out.print("Clés (ex: annee desc, popularite desc, titre): ");
+                operations.triPermutation(scanner.nextLine());
+                break;
+            case 8: ignorerAccents(!index.getCollation().ignorerAccents); break;
         }
     }
     
     private void menuFiltrer() {
         System.out.println("\n=== FILTRER ===");
-        System.out.println("1. Filtre manuel (par année)");
-        System.out.println("2. Filtre Java (par artiste)");
-        System.out.println("3. Filtre Java (par album)");
-        System.out.println("4. Filtre Java (par titre)");
-        System.out.println("5. Filtre Java (par type)");
+        System.out.println("1. Par année");
+        System.out.println("2. Par artiste");
+        System.out.println("3. Par album");
+        System.out.println("4. Par titre");
+        System.out.println("5. Par type");
+        System.out.println("6. Requête composée (ET / OU / NON)");
+        System.out.println("7. Réinitialiser la vue");
         System.out.print("Choix: ");
         
         int choix = scanner.nextInt();
@@ -502,31 +1622,265 @@ public class Musique implements MusiqueInterface {
         if (choix == 1) {
             System.out.print("Année: ");
             String annee = scanner.nextLine();
-            filter(annee, 8);
+            operations.filter(annee, 8);
         } else if (choix >= 2 && choix <= 5) {
             String[] criteres = {"", "", "artiste", "album", "titre", "type"};
             System.out.print("Valeur à rechercher: ");
             String valeur = scanner.nextLine();
-            filtreJava(criteres[choix], valeur);
+            operations.filtreJava(criteres[choix], valeur);
+        } else if (choix == 6) {
+            System.out.print("Requête (ex: annee=2020 ET (artiste~weeknd OU pop>=80)): ");
+            operations.requete(scanner.nextLine());
+        } else if (choix == 7) {
+            reinitialiserVue();
         }
     }
     
     private void menuRechercher() {
         System.out.println("\n=== RECHERCHER ===");
-        System.out.println("1. Recherche linéaire");
-        System.out.println("2. Recherche dichotomique (liste doit être triée!)");
+        System.out.println("1. Recherche par titre (index de hachage)");
+        System.out.println("2. Recherche dichotomique (index trié des titres)");
+        System.out.println("3. Albums par préfixe (index trié)");
+        System.out.println("4. Recherche par liste à sauts (titres)");
         System.out.print("Choix: ");
         
         int choix = scanner.nextInt();
         scanner.nextLine();
         
+        if (choix == 3) {
+            System.out.print("Début du nom d'album: ");
+            operations.rechercheAlbumPrefixe(scanner.nextLine());
+            return;
+        }
+        
         System.out.print("Titre à rechercher: ");
         String titre = scanner.nextLine();
         
         if (choix == 1) {
-            search(titre);
+            operations.search(titre);
         } else if (choix == 2) {
-            rechercheDichotomique(titre);
+            operations.rechercheDichotomique(titre);
+        } else if (choix == 4) {
+            operations.rechercheListeSauts(titre);
+        }
+    }
+    
+    private void menuFlux() throws Exception {
+        System.out.println("\n=== MODE FLUX (sans chargement) ===");
+        System.out.println("1-5. spotify_100 ... spotify_FULL");
+        System.out.println("6. Autre fichier");
+        System.out.print("Fichier: ");
+        int choix = scanner.nextInt();
+        scanner.nextLine();
+        
+        String path;
+        if (choix >= 1 && choix <= 5) {
+            path = FICHIERS[choix];
+        } else if (choix == 6) {
+            System.out.print("Chemin du CSV: ");
+            path = scanner.nextLine().trim();
+        } else {
+            System.out.println("❌ Choix invalide");
+            return;
+        }
+        
+        System.out.print("Filtre (ex. annee=2019, vide = aucun): ");
+        String filtre = scanner.nextLine();
+        
+        System.out.println("1. Top N (ex. popularite desc)");
+        System.out.println("2. Compter par type / annee / artiste / album");
+        System.out.println("3. Tri externe vers un CSV");
+        System.out.print("Choix: ");
+        int operation = scanner.nextInt();
+        scanner.nextLine();
+        
+        if (operation == 1) {
+            System.out.print("Ordre: ");
+            String spec = scanner.nextLine();
+            System.out.print("N: ");
+            int n = scanner.nextInt();
+            scanner.nextLine();
+            fluxTop(path, filtre, spec, n);
+        } else if (operation == 2) {
+            System.out.print("Regrouper par: ");
+            fluxCompter(path, filtre, scanner.nextLine().trim().toLowerCase());
+        } else if (operation == 3) {
+            System.out.print("Ordre: ");
+            String spec = scanner.nextLine();
+            System.out.print("Fichier de sortie [" + path + ".trie.csv]: ");
+            String sortie = scanner.nextLine().trim();
+            fluxTrier(path, filtre, spec, sortie.isEmpty() ? path + ".trie.csv" : sortie,
+                      Flux.TriExterne.tailleBlocDefaut());
+        } else {
+            System.out.println("❌ Choix invalide");
+        }
+    }
+    
+    private void menuTop() {
+        System.out.println("\n=== TOP-K ===");
+        System.out.println("Critère: 1. Popularité  2. Année  3. Durée");
+        System.out.print("Choix: ");
+        int critere = scanner.nextInt();
+        System.out.print("K (taille de page): ");
+        int k = scanner.nextInt();
+        System.out.println("Méthode: 1. Tri rapide incrémental (pages suivantes)  2. Tas  3. Quickselect");
+        System.out.print("Choix: ");
+        int methode = scanner.nextInt();
+        scanner.nextLine();
+        
+        if (methode == 2 || methode == 3) {
+            operations.topSansPages(k, critere, methode == 2);
+            return;
+        }
+        operations.top(k, critere);
+        while (!pages.finie()) {
+            System.out.print("Page suivante ? (O/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("n")) {
+                break;
+            }
+            operations.pageSuivante();
+        }
+    }
+    
+    private void menuGrouper() {
+        System.out.println("\n=== REGROUPEMENTS ET AGRÉGATS ===");
+        System.out.println("Ex.: annee: count, avg popularite, distinct artiste");
+        System.out.println("     artiste: count, max popularite, distinct album");
+        System.out.println("1. Regrouper la vue");
+        System.out.println("2. Matérialiser un cumul (mis à jour à chaque chargement)");
+        System.out.println("3. Lister les cumuls");
+        System.out.print("Choix: ");
+        
+        int choix = scanner.nextInt();
+        scanner.nextLine();
+        
+        switch (choix) {
+            case 1:
+                System.out.print("Regroupement: ");
+                operations.grouper(scanner.nextLine());
+                break;
+            case 2:
+                System.out.print("Regroupement: ");
+                materialiser(scanner.nextLine());
+                break;
+            case 3:
+                if (cumuls.isEmpty()) {
+                    System.out.println("Aucun cumul");
+                }
+                for (Agregation.Cumul cumul : cumuls.values()) {
+                    System.out.println("- " + cumul.agregation + (cumul.estPerime() ? " (périmé)" : ""));
+                }
+                break;
+            default:
+                System.out.println("❌ Choix invalide");
+        }
+    }
+    
+    private void menuArtiste() {
+        System.out.println("\n=== ARTISTES ===");
+        System.out.print("Artiste: ");
+        String nom = scanner.nextLine();
+        System.out.print("Nombre de chansons / collaborateurs affichés: ");
+        int limite = scanner.nextInt();
+        System.out.print("Collaborations : nombre de sauts (1 = directes): ");
+        int sauts = scanner.nextInt();
+        scanner.nextLine();
+        operations.artiste(nom, limite, sauts);
+    }
+    
+    private void menuTaches() throws Exception {
+        publierTaches();
+        System.out.println("\n=== TÂCHES DE FOND ===");
+        if (taches != null) {
+            for (Taches.Tache<?> tache : taches.liste()) {
+                System.out.println("- " + tache);
+            }
+        }
+        System.out.println("1. Charger un fichier");
+        System.out.println("2. Tri sélection (par popularité)");
+        System.out.println("3. Requête composée");
+        System.out.println("4. Suppression un à un");
+        System.out.println("5. Suivre la progression");
+        System.out.println("6. Annuler une tâche");
+        System.out.println("7. Attendre la fin d'une tâche");
+        System.out.println("8. Oublier les tâches terminées");
+        System.out.print("Choix: ");
+        
+        int choix = scanner.nextInt();
+        scanner.nextLine();
+        
+        switch (choix) {
+            case 1:
+                System.out.print("Fichier (1 = 100 ... 5 = FULL, ou chemin): ");
+                String fichier = scanner.nextLine().trim();
+                if (fichier.matches("[1-5]")) {
+                    fichier = FICHIERS[Integer.parseInt(fichier)];
+                }
+                lancerChargement(fichier);
+                break;
+            case 2: lancerTriSelection(); break;
+            case 3:
+                System.out.print("Requête (ex: annee=2020 ET pop>=80): ");
+                lancerRequete(scanner.nextLine());
+                break;
+            case 4: lancerSuppression(); break;
+            case 5: suivreTaches(); break;
+            case 6: {
+                Taches.Tache<?> tache = choisirTache();
+                if (tache != null) {
+                    System.out.println(tache.annuler() ? "✓ Annulation demandée" : "✗ Tâche déjà terminée");
+                }
+                break;
+            }
+            case 7: {
+                Taches.Tache<?> tache = choisirTache();
+                if (tache != null) {
+                    try {
+                        tache.futur().join();
+                    } catch (RuntimeException e) {
+                        // Annulée ou en échec : déjà signalé
+                    }
+                    publierTaches();
+                }
+                break;
+            }
+            case 8:
+                if (taches != null) {
+                    taches.oublierTerminees();
+                }
+                break;
+        }
+    }
+    
+    private Taches.Tache<?> choisirTache() {
+        System.out.print("Numéro de la tâche: ");
+        int numero = scanner.nextInt();
+        scanner.nextLine();
+        Taches.Tache<?> tache = taches == null ? null : taches.tache(numero);
+        if (tache == null) {
+            System.out.println("✗ Tâche inconnue");
+        }
+        return tache;
+    }
+    
+    /** Affiche la progression des tâches en cours au fil de l'eau, jusqu'à Entrée. */
+    private void suivreTaches() {
+        if (taches == null || taches.enCours() == 0) {
+            System.out.println("✓ Aucune tâche en cours");
+            return;
+        }
+        Consumer<Taches.Tache<?>> afficher = tache -> System.out.println("⏳ " + tache);
+        List<Taches.Tache<?>> suivies = new ArrayList<>();
+        for (Taches.Tache<?> tache : taches.liste()) {
+            if (!tache.terminee()) {
+                tache.ecouter(afficher);
+                suivies.add(tache);
+            }
+        }
+        System.out.println("(Entrée pour revenir au menu)");
+        scanner.nextLine();
+        for (Taches.Tache<?> tache : suivies) {
+            tache.oublier(afficher);
         }
     }
     
@@ -534,33 +1888,88 @@ public class Musique implements MusiqueInterface {
         System.out.println("\n=== TESTS DE PERFORMANCE ===");
         System.out.println("1. Test suppression un à un");
         System.out.println("2. Comparer tous les tris");
+        System.out.println("3. Métriques des opérations");
+        System.out.println("4. Exporter les métriques (JSON)");
+        System.out.println("5. Remettre les métriques à zéro");
+        System.out.println("6. Comparer les structures de liste");
+        System.out.println("7. Cache des requêtes (compteurs, vider)");
         System.out.print("Choix: ");
         
         int choix = scanner.nextInt();
         scanner.nextLine();
         
         if (choix == 1) {
-            suppressionUnAUn();
+            operations.suppressionUnAUn();
         } else if (choix == 2) {
             // Sauvegarder une copie
             System.out.println("⚠ Cette opération va trier la liste 3 fois");
+        } else if (choix == 3) {
+            Metriques.afficher();
+        } else if (choix == 4) {
+            System.out.print("Fichier (Entrée = metriques.json): ");
+            String fichier = scanner.nextLine().trim();
+            Path cible = Path.of(fichier.isEmpty() ? "metriques.json" : fichier);
+            try {
+                Metriques.exporter(cible);
+                System.out.println("✓ Métriques exportées: " + cible.toAbsolutePath());
+            } catch (IOException e) {
+                System.out.println("❌ Export impossible: " + e.getMessage());
+            }
+        } else if (choix == 5) {
+            Metriques.reinitialiser();
+            System.out.println("✓ Métriques remises à zéro");
+        } else if (choix == 6) {
+            comparerStructures();
+        } else if (choix == 7) {
+            viderCache();
         }
     }
     
     // ========== MAIN ==========
     public static void main(String[] args) {
+        if (ModeLot.demande(args)) {
+            System.exit(ModeLot.executer(args));
+        }
+        if (Serveur.demande(args)) {
+            int code = Serveur.lancer(args);
+            if (code != 0) {
+                System.exit(code);
+            }
+            return; // Le serveur HTTP garde la JVM active
+        }
+        
         Scanner sc = new Scanner(System.in);
         
         System.out.println("=== SAE 1.02 - Exploration de données musicales ===");
         System.out.println("\nChoisir l'implémentation:");
         System.out.println("1. ArrayList");
         System.out.println("2. LinkedList");
+        System.out.println("3. SongTable (colonnes)");
+        System.out.println("4. Tampon circulaire indexé (modèle ArrayDeque)");
+        System.out.println("5. Liste chaînée (tri fusion sur les nœuds)");
+        System.out.println("6. Liste déroulée (blocs)");
+        System.out.println("7. Liste d'ids (int[])");
         System.out.print("Choix: ");
         
         int choix = sc.nextInt();
-        boolean useArrayList = (choix == 1);
         
-        Musique app = new Musique(useArrayList);
+        if (choix == 3) {
+            new SongTable().menu(sc);
+            sc.close();
+            return;
+        }
+        
+        Structures.Structure structure;
+        switch (choix) {
+            case 1: structure = Structures.Structure.ARRAYLIST; break;
+            case 4: structure = Structures.Structure.CIRCULAIRE; break;
+            case 5: structure = Structures.Structure.CHAINEE; break;
+            case 6: structure = Structures.Structure.DEROULEE; break;
+            case 7: structure = Structures.Structure.IDS; break;
+            default: structure = Structures.Structure.LINKEDLIST;
+        }
+        
+        Musique app = new Musique(structure);
         app.menu();
         
         sc.close();
@@ -14,4 +14,19 @@ public interface MusiqueInterface {
 	void printRow(int index);
 
 	void printColumn(int index);
+	
+	void top(int k, int critere);
+	
+	void pageSuivante();
+	
+	void grouper(String spec);
+	
+	/** Tri multi-clés, ex. "annee desc, popularite desc, titre". */
+	void triPermutation(String spec);
+	
+	/**
+	 * Reçoit les compteurs de l'opération en cours (MusiqueMesuree) et les
+	 * renseigne jusqu'au suivant ; Metriques.Compteurs.AUCUN hors mesure.
+	 */
+	void compter(Metriques.Compteurs compteurs);
 }
@@ -0,0 +1,228 @@
+package musique;
+
+/**
+ * Décorateur de MusiqueInterface qui mesure chaque opération (Metriques) :
+ * latence, octets alloués et événement JFR sont pris ici ; les lignes lues et
+ * produites et les comparaisons, que seul l'algorithme connaît, sont
+ * renseignées par la cible dans les Compteurs qu'elle reçoit le temps de
+ * l'opération.
+ *
+ * Les appels internes de la cible (chargerAjouts qui recharge tout, par
+ * exemple) ne sont pas mesurés à part : leurs compteurs vont à l'opération
+ * appelée par le menu ou le mode lot.
+ *
+ * Les opérations de MusiqueInterface, communes aux deux backends, sont
+ * mesurées ici ; Listes (Musique) et Colonnes (SongTable) ajoutent celles
+ * propres à chaque backend.
+ */
+abstract class MusiqueMesuree implements MusiqueInterface {
+
+    /** Chargement de la cible (lecture de fichier : IOException possible). */
+    @FunctionalInterface
+    interface Chargement {
+        void executer() throws Exception;
+    }
+
+    private final MusiqueInterface cible;
+    private final String prefixe;
+
+    /**
+     * @param prefixe ajouté au nom des opérations dans les métriques (ex. "table.")
+     */
+    MusiqueMesuree(MusiqueInterface cible, String prefixe) {
+        this.cible = cible;
+        this.prefixe = prefixe;
+    }
+
+    void mesurer(String operation, Runnable action) {
+        try (Metriques.Mesure mesure = Metriques.mesurer(prefixe + operation)) {
+            cible.compter(mesure);
+            action.run();
+        } finally {
+            cible.compter(Metriques.Compteurs.AUCUN);
+        }
+    }
+
+    void mesurerChargement(String operation, Chargement chargement) throws Exception {
+        try (Metriques.Mesure mesure = Metriques.mesurer(prefixe + operation)) {
+            cible.compter(mesure);
+            chargement.executer();
+        } finally {
+            cible.compter(Metriques.Compteurs.AUCUN);
+        }
+    }
+
+    @Override
+    public void compter(Metriques.Compteurs compteurs) {
+        cible.compter(compteurs);
+    }
+
+    // ========== CHARGEMENT ==========
+
+    @Override
+    public void charger(String path) throws Exception {
+        mesurerChargement("charger", () -> cible.charger(path));
+    }
+
+    // ========== AFFICHAGE ==========
+
+    @Override
+    public void afficher() {
+        mesurer("afficher", cible::afficher);
+    }
+
+    @Override
+    public void printRow(int index) {
+        cible.printRow(index);
+    }
+
+    @Override
+    public void printColumn(int index) {
+        cible.printColumn(index);
+    }
+
+    // ========== TRIS ==========
+
+    @Override
+    public void sort(int critere) {
+        mesurer("sort", () -> cible.sort(critere));
+    }
+
+    @Override
+    public void triPermutation(String spec) {
+        mesurer("triPermutation", () -> cible.triPermutation(spec));
+    }
+
+    // ========== TOP-K ET AGRÉGATS ==========
+
+    @Override
+    public void top(int k, int critere) {
+        mesurer("top", () -> cible.top(k, critere));
+    }
+
+    @Override
+    public void pageSuivante() {
+        mesurer("pageSuivante", cible::pageSuivante);
+    }
+
+    @Override
+    public void grouper(String spec) {
+        mesurer("grouper", () -> cible.grouper(spec));
+    }
+
+    // ========== FILTRES ==========
+
+    @Override
+    public void filter(String text, int index) {
+        mesurer("filtre", () -> cible.filter(text, index));
+    }
+
+    // ========== RECHERCHES ==========
+
+    @Override
+    public void search(String titre) {
+        mesurer("search", () -> cible.search(titre));
+    }
+
+    /** Opérations propres au backend listes (Musique). */
+    static final class Listes extends MusiqueMesuree {
+
+        private final Musique musique;
+
+        Listes(Musique musique, String prefixe) {
+            super(musique, prefixe);
+            this.musique = musique;
+        }
+
+        // ========== CHARGEMENT ==========
+
+        void chargerMappe(String path) throws Exception {
+            mesurerChargement("chargerMappe", () -> musique.chargerMappe(path));
+        }
+
+        void chargerParallele(String path) throws Exception {
+            mesurerChargement("chargerParallele", () -> musique.chargerParallele(path));
+        }
+
+        void chargerInstantane(String path) throws Exception {
+            mesurerChargement("chargerInstantane", () -> musique.chargerInstantane(path));
+        }
+
+        void chargerAjouts(String path) throws Exception {
+            mesurerChargement("chargerAjouts", () -> musique.chargerAjouts(path));
+        }
+
+        void appliquerDelta(String path) throws Exception {
+            mesurerChargement("delta", () -> musique.appliquerDelta(path));
+        }
+
+        // ========== TRIS ==========
+
+        void triSelection() {
+            mesurer("triSelection", musique::triSelection);
+        }
+
+        void triFusion() {
+            mesurer("triFusion", musique::triFusion);
+        }
+
+        void triFusionParallele(int seuilSequentiel, boolean fusionParallele, boolean reference) {
+            mesurer("triFusionParallele", () -> musique.triFusionParallele(seuilSequentiel, fusionParallele, reference));
+        }
+
+        // ========== TOP-K ==========
+
+        void topSansPages(int k, int critere, boolean parTas) {
+            mesurer(parTas ? "topTas" : "topQuickselect", () -> musique.topSansPages(k, critere, parTas));
+        }
+
+        // ========== FILTRES ==========
+
+        void filtreJava(String critere, String valeur) {
+            mesurer("filtre", () -> musique.filtreJava(critere, valeur));
+        }
+
+        void requete(String expression) {
+            mesurer("filtre", () -> musique.requete(expression));
+        }
+
+        // ========== RECHERCHES ==========
+
+        void rechercheDichotomique(String titre) {
+            mesurer("rechercheDichotomique", () -> musique.rechercheDichotomique(titre));
+        }
+
+        void rechercheListeSauts(String titre) {
+            mesurer("rechercheListeSauts", () -> musique.rechercheListeSauts(titre));
+        }
+
+        void rechercheAlbumPrefixe(String debut) {
+            mesurer("rechercheAlbumPrefixe", () -> musique.rechercheAlbumPrefixe(debut));
+        }
+
+        void artiste(String nom, int limite, int sauts) {
+            mesurer("artiste", () -> musique.artiste(nom, limite, sauts));
+        }
+
+        // ========== SUPPRESSION ==========
+
+        void suppressionUnAUn() {
+            mesurer("suppressionUnAUn", musique::suppressionUnAUn);
+        }
+    }
+
+    /** Opérations propres au backend en colonnes (SongTable). */
+    static final class Colonnes extends MusiqueMesuree {
+
+        private final SongTable table;
+
+        Colonnes(SongTable table, String prefixe) {
+            super(table, prefixe);
+            this.table = table;
+        }
+
+        void balayer(int anneeMin, int anneeMax, int popMin, int popMax, String type) {
+            mesurer("balayer", () -> table.balayer(anneeMin, anneeMax, popMin, popMax, type));
+        }
+    }
+}
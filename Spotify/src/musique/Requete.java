@@ -0,0 +1,366 @@
+package musique;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Requête composable sur les chansons : prédicats simples (année, artiste,
+ * album, titre, type, plage de popularité) combinés par ET / OU / NON.
+ *
+ * Une requête s'évalue en une seule passe sur les ids du catalogue
+ * (IndexChansons) et produit une sélection (BitSet d'ids) ; la liste n'est
+ * jamais modifiée. Quand c'est possible, les index fournissent un « pilote »
+ * (sur-ensemble des ids candidats) et seuls ces ids sont testés ; l'évaluation
+ * des ET/OU s'arrête dès que le résultat est connu.
+ *
+ * Syntaxe de analyser() :
+ *   annee=2020 ET (artiste~weeknd OU pop>=80) ET NON type=single
+ * Opérateurs : = (égalité, casse ignorée), ~ (contient), >, >=, <, <=, et a..b
+ * pour une plage (pop=50..80). Mots-clés ET/AND, OU/OR, NON/NOT.
+ */
+abstract class Requete {
+
+    /** Vrai si la chanson satisfait la requête. */
+    abstract boolean test(Song s);
+
+    /** Sur-ensemble des ids pouvant satisfaire la requête, ou null (tous). */
+    BitSet pilote(IndexChansons index) {
+        return null;
+    }
+
+    /**
+     * Évalue la requête en une passe.
+     * @param domaine ids admissibles (vue courante), ou null pour tout le catalogue
+     */
+    BitSet evaluer(IndexChansons index, BitSet domaine) {
+        BitSet resultat = new BitSet(index.taille());
+        BitSet candidats = pilote(index);
+        if (candidats != null && domaine != null) {
+            candidats.and(domaine);
+        } else if (candidats == null) {
+            candidats = domaine;
+        }
+
+        if (candidats != null) {
+            for (int id = candidats.nextSetBit(0); id >= 0; id = candidats.nextSetBit(id + 1)) {
+                if (index.estActif(id) && test(index.chanson(id))) {
+                    resultat.set(id);
+                }
+            }
+        } else {
+            for (int id = 0; id < index.taille(); id++) {
+                if (index.estActif(id) && test(index.chanson(id))) {
+                    resultat.set(id);
+                }
+            }
+        }
+        return resultat;
+    }
+
+    // ========== COMBINAISONS ==========
+
+    static Requete et(Requete a, Requete b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return new Requete() {
+            boolean test(Song s) { return a.test(s) && b.test(s); }
+            BitSet pilote(IndexChansons index) {
+                BitSet pa = a.pilote(index);
+                BitSet pb = b.pilote(index);
+                if (pa == null) return pb;
+                if (pb != null) pa.and(pb);
+                return pa;
+            }
+            public String toString() { return "(" + a + " ET " + b + ")"; }
+        };
+    }
+
+    static Requete ou(Requete a, Requete b) {
+        return new Requete() {
+            boolean test(Song s) { return a.test(s) || b.test(s); }
+            BitSet pilote(IndexChansons index) {
+                BitSet pa = a.pilote(index);
+                if (pa == null) return null;
+                BitSet pb = b.pilote(index);
+                if (pb == null) return null;
+                pa.or(pb);
+                return pa;
+            }
+            public String toString() { return "(" + a + " OU " + b + ")"; }
+        };
+    }
+
+    static Requete non(Requete a) {
+        return new Requete() {
+            boolean test(Song s) { return !a.test(s); }
+            public String toString() { return "NON " + a; }
+        };
+    }
+
+    // ========== PRÉDICATS ==========
+
+    static Requete annee(int annee) {
+        return new Requete() {
+            boolean test(Song s) { return s.getYear() == annee; }
+            BitSet pilote(IndexChansons index) { return index.selection("annee", String.valueOf(annee)); }
+            public String toString() { return "annee=" + annee; }
+        };
+    }
+
+    static Requete popularite(int min, int max) {
+        return new Requete() {
+            boolean test(Song s) { return s.albumPopularity >= min && s.albumPopularity <= max; }
+            public String toString() { return "pop" + bornes(min, max); }
+        };
+    }
+
+    static Requete type(String type) {
+        return new Requete() {
+            boolean test(Song s) { return s.albumType.equalsIgnoreCase(type); }
+            BitSet pilote(IndexChansons index) { return index.selection("type", type); }
+            public String toString() { return "type=" + type; }
+        };
+    }
+
+    /** Titre contenant (contient=true) ou égal au texte, casse ignorée. */
+    static Requete titre(String texte, boolean contient) {
+        String aiguille = IndexChansons.replier(texte);
+        return new Requete() {
+            boolean test(Song s) {
+                return contient ? contientSansCasse(s.trackName, aiguille) : s.trackName.equalsIgnoreCase(texte);
+            }
+            BitSet pilote(IndexChansons index) { return index.selection("titre", texte); }
+            public String toString() { return "titre" + (contient ? "~" : "=") + texte; }
+        };
+    }
+
+    static Requete album(String texte, boolean contient) {
+        String aiguille = IndexChansons.replier(texte);
+        return new Requete() {
+            boolean test(Song s) {
+                return contient ? contientSansCasse(s.albumName, aiguille) : s.albumName.equalsIgnoreCase(texte);
+            }
+            BitSet pilote(IndexChansons index) { return index.selection("album", texte); }
+            public String toString() { return "album" + (contient ? "~" : "=") + texte; }
+        };
+    }
+
+    /**
+     * Un des artistes contient (ou vaut) le texte ; sans artiste, on compare à "Unknown".
+     * Une sous-chaîne avec une virgule ou des espaces aux bords peut chevaucher
+     * deux artistes : elle est cherchée dans getArtistsString().
+     */
+    static Requete artiste(String texte, boolean contient) {
+        String aiguille = IndexChansons.replier(texte);
+        boolean chevauche = contient
+            && (aiguille.contains(",") || aiguille.startsWith(" ") || aiguille.endsWith(" "));
+        return new Requete() {
+            boolean test(Song s) {
+                if (chevauche) {
+                    return contientSansCasse(s.getArtistsString(), aiguille);
+                }
+                if (s.artists.length == 0) {
+                    return contient ? contientSansCasse("Unknown", aiguille) : "Unknown".equalsIgnoreCase(texte);
+                }
+                for (String a : s.artists) {
+                    if (contient ? contientSansCasse(a, aiguille) : a.equalsIgnoreCase(texte)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            BitSet pilote(IndexChansons index) { return index.selection("artiste", texte); }
+            public String toString() { return "artiste" + (contient ? "~" : "=") + texte; }
+        };
+    }
+
+    private static String bornes(int min, int max) {
+        if (max == Integer.MAX_VALUE) return ">=" + min;
+        if (min == Integer.MIN_VALUE) return "<=" + max;
+        return min == max ? "=" + min : "=" + min + ".." + max;
+    }
+
+    /** Sous-chaîne sans casse et sans allocation (aiguille déjà repliée). */
+    static boolean contientSansCasse(String texte, String aiguille) {
+        int m = aiguille.length();
+        for (int i = 0; i + m <= texte.length(); i++) {
+            if (texte.regionMatches(true, i, aiguille, 0, m)) {
+                return true;
+            }
+        }
+        return m == 0;
+    }
+
+    // ========== ANALYSE DU TEXTE ==========
+
+    /**
+     * Analyse une expression de requête.
+     * @throws IllegalArgumentException si l'expression est invalide
+     */
+    static Requete analyser(String texte) {
+        Analyseur a = new Analyseur(decouper(texte));
+        Requete r = a.expression();
+        if (a.pos < a.jetons.size()) {
+            throw new IllegalArgumentException("Jeton inattendu: '" + a.jetons.get(a.pos) + "'");
+        }
+        return r;
+    }
+
+    private static List<String> decouper(String texte) {
+        List<String> jetons = new ArrayList<>();
+        int i = 0;
+        while (i < texte.length()) {
+            char c = texte.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                jetons.add(String.valueOf(c));
+                i++;
+            } else {
+                // Un jeton s'arrête à un espace ou une parenthèse, sauf entre guillemets
+                StringBuilder sb = new StringBuilder();
+                boolean guillemets = false;
+                while (i < texte.length()) {
+                    c = texte.charAt(i);
+                    if (c == '"') {
+                        guillemets = !guillemets;
+                    } else if (!guillemets && (Character.isWhitespace(c) || c == '(' || c == ')')) {
+                        break;
+                    } else {
+                        sb.append(c);
+                    }
+                    i++;
+                }
+                jetons.add(sb.toString());
+            }
+        }
+        return jetons;
+    }
+
+    private static final class Analyseur {
+        final List<String> jetons;
+        int pos;
+
+        Analyseur(List<String> jetons) {
+            this.jetons = jetons;
+        }
+
+        boolean motCle(String... mots) {
+            if (pos < jetons.size()) {
+                for (String m : mots) {
+                    if (jetons.get(pos).equalsIgnoreCase(m)) {
+                        pos++;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        Requete expression() {
+            Requete r = terme();
+            while (motCle("OU", "OR", "||")) {
+                r = ou(r, terme());
+            }
+            return r;
+        }
+
+        Requete terme() {
+            Requete r = facteur();
+            while (motCle("ET", "AND", "&&")) {
+                r = et(r, facteur());
+            }
+            return r;
+        }
+
+        Requete facteur() {
+            if (motCle("NON", "NOT", "!")) {
+                return non(facteur());
+            }
+            if (motCle("(")) {
+                Requete r = expression();
+                if (!motCle(")")) {
+                    throw new IllegalArgumentException("Parenthèse fermante manquante");
+                }
+                return r;
+            }
+            if (pos >= jetons.size()) {
+                throw new IllegalArgumentException("Prédicat attendu en fin de requête");
+            }
+            return predicat(jetons.get(pos++));
+        }
+    }
+
+    /** Analyse un prédicat du type champ=valeur, champ~valeur, champ>=valeur... */
+    static Requete predicat(String jeton) {
+        int i = 0;
+        while (i < jeton.length() && "=~<>".indexOf(jeton.charAt(i)) < 0) {
+            i++;
+        }
+        int j = i;
+        while (j < jeton.length() && "=~<>".indexOf(jeton.charAt(j)) >= 0) {
+            j++;
+        }
+        if (i == 0 || i == jeton.length()) {
+            throw new IllegalArgumentException("Prédicat invalide: '" + jeton + "'");
+        }
+        String champ = jeton.substring(0, i).toLowerCase();
+        String op = jeton.substring(i, j);
+        String valeur = jeton.substring(j);
+
+        switch (champ) {
+            case "annee": case "année": case "year":
+                int[] plage = plage(op, valeur, jeton);
+                if (plage[0] == plage[1]) {
+                    return annee(plage[0]);
+                }
+                return new Requete() {
+                    boolean test(Song s) { int y = s.getYear(); return y >= plage[0] && y <= plage[1]; }
+                    public String toString() { return "annee" + bornes(plage[0], plage[1]); }
+                };
+            case "pop": case "popularite": case "popularité": case "popularity":
+                int[] p = plage(op, valeur, jeton);
+                return popularite(p[0], p[1]);
+            case "type":
+                return type(valeur);
+            case "titre": case "title":
+                return titre(valeur, texte(op, jeton));
+            case "album":
+                return album(valeur, texte(op, jeton));
+            case "artiste": case "artist":
+                return artiste(valeur, texte(op, jeton));
+            default:
+                throw new IllegalArgumentException("Champ inconnu: '" + champ + "'");
+        }
+    }
+
+    /** true pour ~ (contient), false pour = (égalité). */
+    private static boolean texte(String op, String jeton) {
+        if (op.equals("~")) return true;
+        if (op.equals("=")) return false;
+        throw new IllegalArgumentException("Opérateur invalide pour un texte: '" + jeton + "'");
+    }
+
+    /** Convertit un opérateur numérique en plage [min, max]. */
+    private static int[] plage(String op, String valeur, String jeton) {
+        try {
+            if (op.equals("=") && valeur.contains("..")) {
+                String[] bornes = valeur.split("\\.\\.");
+                return new int[] {Integer.parseInt(bornes[0]), Integer.parseInt(bornes[1])};
+            }
+            int v = Integer.parseInt(valeur);
+            switch (op) {
+                case "=": return new int[] {v, v};
+                case ">=": return new int[] {v, Integer.MAX_VALUE};
+                case ">": return new int[] {v + 1, Integer.MAX_VALUE};
+                case "<=": return new int[] {Integer.MIN_VALUE, v};
+                case "<": return new int[] {Integer.MIN_VALUE, v - 1};
+                default: break;
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // Traité ci-dessous
+        }
+        throw new IllegalArgumentException("Valeur numérique invalide: '" + jeton + "'");
+    }
+}
@@ -0,0 +1,173 @@
+package musique;
+
+/**
+ * Noyaux de balayage sur les colonnes primitives de SongTable : prédicats de
+ * plage et d'égalité -> sélection en bitmap (bit i du mot i / 64 = id i),
+ * puis comptes et sommes sur une sélection.
+ *
+ * Aucune branche par ligne : une comparaison de plage est une soustraction
+ * non signée dont on garde le bit de signe, 64 résultats sont assemblés dans
+ * un long avant d'être écrits, et les sommes masquent la valeur au lieu de
+ * la tester. L'assemblage des bits (décalage variable) empêche C2 de
+ * vectoriser ces boucles : elles traitent une ligne par itération.
+ *
+ * Si le module jdk.incubator.vector est chargé à l'exécution (java
+ * --add-modules jdk.incubator.vector ; javac en a besoin dans tous les cas),
+ * prédicats, comptes et sommes passent par ScanColonnesVecteur et l'API
+ * Vector : une opération par vecteur de 4 à 32 lignes. Sinon, ou avec
+ * -Dmusique.scalaire=true, les boucles scalaires ci-dessous sont utilisées.
+ */
+final class ScanColonnes {
+
+    /**
+     * Prédicats et agrégats sur les lignes [debut, n) ; debut est un multiple
+     * de 64 (début de mot de la sélection).
+     */
+    interface Noyaux {
+        void plage(short[] colonne, int debut, int n, short min, short max, long[] mots);
+
+        void egal(int[] colonne, int debut, int n, int code, long[] mots);
+
+        /** Bits à 1 des mots [debut, mots.length) (debut en mots). */
+        int compter(long[] mots, int debut);
+
+        long somme(short[] colonne, int debut, int n, long[] selection);
+
+        long somme(int[] colonne, int debut, int n, long[] selection);
+    }
+
+    static final Noyaux SCALAIRES = new Scalaires();
+    static final Noyaux VECTORIELS = vectoriels();           // null sans le module
+    private static final Noyaux NOYAUX = VECTORIELS != null ? VECTORIELS : SCALAIRES;
+
+    private ScanColonnes() {}
+
+    /**
+     * Noyaux de ScanColonnesVecteur si le module est chargé. Sans lui, cette
+     * classe n'est jamais chargée (la JVM ne résout new qu'à son exécution) :
+     * l'application tourne sans le module incubateur.
+     */
+    private static Noyaux vectoriels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()
+                || Boolean.getBoolean("musique.scalaire")) {
+            return null;
+        }
+        try {
+            return new ScanColonnesVecteur();
+        } catch (LinkageError | IllegalStateException e) {
+            return null; // Vecteurs de taille incompatible
+        }
+    }
+
+    /** "vectoriels (API Vector)" ou "scalaires", pour l'affichage. */
+    static String description() {
+        return NOYAUX == SCALAIRES ? "scalaires" : "vectoriels (API Vector)";
+    }
+
+    static int nbMots(int n) {
+        return (n + 63) >>> 6;
+    }
+
+    /** Ids de [0, n) dont la valeur est dans [min, max]. */
+    static long[] plage(short[] colonne, int n, int min, int max) {
+        long[] mots = new long[nbMots(n)];
+        min = Math.max(min, Short.MIN_VALUE);
+        max = Math.min(max, Short.MAX_VALUE);
+        if (min <= max) {
+            NOYAUX.plage(colonne, 0, n, (short) min, (short) max, mots);
+        }
+        return mots;
+    }
+
+    /** Ids de [0, n) dont le code vaut code. */
+    static long[] egal(int[] colonne, int n, int code) {
+        long[] mots = new long[nbMots(n)];
+        NOYAUX.egal(colonne, 0, n, code, mots);
+        return mots;
+    }
+
+    /** Boucles sans branche par ligne, sans dépendance au module vector. */
+    private static final class Scalaires implements Noyaux {
+        @Override
+        public void plage(short[] colonne, int debut, int n, short min, short max, long[] mots) {
+            long largeur = (long) max - min + 1;
+            for (int w = debut >>> 6; debut < n; debut += 64, w++) {
+                int fin = Math.min(debut + 64, n);
+                long mot = 0;
+                for (int i = debut; i < fin; i++) {
+                    long ecart = (colonne[i] - min) & 0xFFFFFFFFL;     // Négatif -> très grand
+                    mot |= ((ecart - largeur) >>> 63) << i;          // 1 si ecart < largeur
+                }
+                mots[w] = mot;
+            }
+        }
+
+        @Override
+        public void egal(int[] colonne, int debut, int n, int code, long[] mots) {
+            for (int w = debut >>> 6; debut < n; debut += 64, w++) {
+                int fin = Math.min(debut + 64, n);
+                long mot = 0;
+                for (int i = debut; i < fin; i++) {
+                    int x = colonne[i] ^ code;
+                    mot |= (((long) (x | -x) >>> 63) ^ 1) << i;   // 1 si x == 0
+                }
+                mots[w] = mot;
+            }
+        }
+
+        @Override
+        public int compter(long[] mots, int debut) {
+            int n = 0;
+            for (int w = debut; w < mots.length; w++) {
+                n += Long.bitCount(mots[w]);
+            }
+            return n;
+        }
+
+        /** La valeur est masquée, pas testée. */
+        @Override
+        public long somme(short[] colonne, int debut, int n, long[] selection) {
+            long s = 0;
+            for (int i = debut; i < n; i++) {
+                s += colonne[i] & -((selection[i >>> 6] >>> i) & 1);
+            }
+            return s;
+        }
+
+        @Override
+        public long somme(int[] colonne, int debut, int n, long[] selection) {
+            long s = 0;
+            for (int i = debut; i < n; i++) {
+                s += colonne[i] & -((selection[i >>> 6] >>> i) & 1);
+            }
+            return s;
+        }
+    }
+
+    /** a &= b */
+    static void et(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            a[w] &= b[w];
+        }
+    }
+
+    /** a |= b */
+    static void ou(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            a[w] |= b[w];
+        }
+    }
+
+    static int compter(long[] selection) {
+        return NOYAUX.compter(selection, 0);
+    }
+
+    /** Somme des valeurs sélectionnées parmi les lignes [0, n). */
+    static long somme(short[] colonne, int n, long[] selection) {
+        return NOYAUX.somme(colonne, 0, n, selection);
+    }
+
+    static long somme(int[] colonne, int n, long[] selection) {
+        return NOYAUX.somme(colonne, 0, n, selection);
+    }
+}
@@ -0,0 +1,130 @@
+package musique;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Prédicats de ScanColonnes avec l'API Vector (module incubateur
+ * jdk.incubator.vector, à passer avec --add-modules à javac et à java).
+ *
+ * Chaque mot de 64 lignes est fait de 64 / L comparaisons vectorielles de L
+ * lignes (L = 8 à 32 selon la largeur des registres) ; le masque de chaque
+ * comparaison (VectorMask.toLong) donne L bits consécutifs du mot. Les sommes
+ * font le chemin inverse : les bits du mot deviennent le masque d'une addition
+ * dans des voies long (sans débordement). Le compte additionne le nombre de
+ * bits de plusieurs mots à la fois. La fin de colonne (moins de 64 lignes)
+ * passe par les noyaux scalaires.
+ *
+ * ScanColonnes ne crée cette classe que si le module est chargé à
+ * l'exécution ; sinon elle n'est jamais chargée et les boucles scalaires
+ * sont utilisées.
+ */
+final class ScanColonnesVecteur implements ScanColonnes.Noyaux {
+
+    private static final VectorSpecies<Short> COURTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> ENTIERS = IntVector.SPECIES_PREFERRED;
+    // Sommes : voies long, chargées depuis des short ou des int de même nombre de voies
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> COURTS_LONGS =
+            VectorSpecies.of(short.class, VectorShape.forBitSize(LONGS.length() * Short.SIZE));
+    private static final VectorSpecies<Integer> ENTIERS_LONGS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.length() * Integer.SIZE));
+
+    ScanColonnesVecteur() {
+        if (64 % COURTS.length() != 0 || 64 % ENTIERS.length() != 0 || 64 % LONGS.length() != 0) {
+            throw new IllegalStateException("Vecteurs de " + COURTS.vectorBitSize() + " bits non gérés");
+        }
+    }
+
+    @Override
+    public void plage(short[] colonne, int debut, int n, short min, short max, long[] mots) {
+        int pas = COURTS.length();
+        int complets = debut + ((n - debut) & ~63);
+        for (; debut < complets; debut += 64) {
+            long mot = 0;
+            for (int j = 0; j < 64; j += pas) {
+                ShortVector v = ShortVector.fromArray(COURTS, colonne, debut + j);
+                long bits = v.compare(VectorOperators.GE, min).and(v.compare(VectorOperators.LE, max)).toLong();
+                mot |= bits << j;
+            }
+            mots[debut >>> 6] = mot;
+        }
+        if (debut < n) {
+            ScanColonnes.SCALAIRES.plage(colonne, debut, n, min, max, mots);
+        }
+    }
+
+    @Override
+    public void egal(int[] colonne, int debut, int n, int code, long[] mots) {
+        int pas = ENTIERS.length();
+        int complets = debut + ((n - debut) & ~63);
+        for (; debut < complets; debut += 64) {
+            long mot = 0;
+            for (int j = 0; j < 64; j += pas) {
+                mot |= IntVector.fromArray(ENTIERS, colonne, debut + j).compare(VectorOperators.EQ, code).toLong() << j;
+            }
+            mots[debut >>> 6] = mot;
+        }
+        if (debut < n) {
+            ScanColonnes.SCALAIRES.egal(colonne, debut, n, code, mots);
+        }
+    }
+
+    @Override
+    public int compter(long[] mots, int debut) {
+        int pas = LONGS.length();
+        LongVector bits = LongVector.zero(LONGS);
+        int fin = debut + (mots.length - debut) / pas * pas;
+        for (; debut < fin; debut += pas) {
+            bits = bits.add(LongVector.fromArray(LONGS, mots, debut).lanewise(VectorOperators.BIT_COUNT));
+        }
+        return (int) bits.reduceLanes(VectorOperators.ADD) + ScanColonnes.SCALAIRES.compter(mots, debut);
+    }
+
+    @Override
+    public long somme(short[] colonne, int debut, int n, long[] selection) {
+        int pas = LONGS.length();
+        LongVector total = LongVector.zero(LONGS);
+        int complets = debut + ((n - debut) & ~63);
+        for (; debut < complets; debut += 64) {
+            long mot = selection[debut >>> 6];
+            if (mot == 0) {
+                continue; // Mot sans ligne sélectionnée
+            }
+            for (int j = 0; j < 64; j += pas) {
+                VectorMask<Long> m = VectorMask.fromLong(LONGS, mot >>> j);
+                LongVector v = (LongVector) ShortVector.fromArray(COURTS_LONGS, colonne, debut + j)
+                        .convertShape(VectorOperators.S2L, LONGS, 0);
+                total = total.add(v, m);
+            }
+        }
+        long s = total.reduceLanes(VectorOperators.ADD);
+        return debut < n ? s + ScanColonnes.SCALAIRES.somme(colonne, debut, n, selection) : s;
+    }
+
+    @Override
+    public long somme(int[] colonne, int debut, int n, long[] selection) {
+        int pas = LONGS.length();
+        LongVector total = LongVector.zero(LONGS);
+        int complets = debut + ((n - debut) & ~63);
+        for (; debut < complets; debut += 64) {
+            long mot = selection[debut >>> 6];
+            if (mot == 0) {
+                continue;
+            }
+            for (int j = 0; j < 64; j += pas) {
+                VectorMask<Long> m = VectorMask.fromLong(LONGS, mot >>> j);
+                LongVector v = (LongVector) IntVector.fromArray(ENTIERS_LONGS, colonne, debut + j)
+                        .convertShape(VectorOperators.I2L, LONGS, 0);
+                total = total.add(v, m);
+            }
+        }
+        long s = total.reduceLanes(VectorOperators.ADD);
+        return debut < n ? s + ScanColonnes.SCALAIRES.somme(colonne, debut, n, selection) : s;
+    }
+}
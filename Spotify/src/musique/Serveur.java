@@ -0,0 +1,398 @@
+package musique;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Serveur HTTP/JSON local : plusieurs clients interrogent le même jeu chargé.
+ *
+ *   java musique.Musique --serveur [--port 8080] [--hote 127.0.0.1] [--charger FULL]
+ *
+ * Points d'entrée (GET sauf /reload) :
+ *   /search?titre=...                        recherche exacte (casse ignorée)
+ *   /filter?q=<requête>&offset=0&limite=50   nombre de résultats et une page
+ *   /top?q=...&tri=popularity desc&n=50      N premières selon le tri (tas)
+ *   /count?critere=type&q=...                effectif et popularité moyenne par groupe
+ *   /group?g=annee: count, avg popularite&q=  agrégats par groupe (Agregation)
+ *   /stats                                   version et taille du catalogue
+ *   /metriques                               Metriques.json()
+ *   POST /reload?fichier=FULL                recharge le catalogue
+ *
+ * Les requêtes lisent un Catalogue immuable (chansons + index, jamais modifiés
+ * après construction) obtenu par une seule lecture de l'AtomicReference : une
+ * requête voit donc toujours un catalogue entier. /reload construit un nouveau
+ * catalogue à côté puis remplace la référence ; les lectures en cours finissent
+ * sur l'ancien, aucune n'est bloquée. Chaque échange est traité sur un thread
+ * virtuel.
+ */
+final class Serveur {
+
+    static final int PORT_DEFAUT = 8080;
+    private static final int LIMITE_DEFAUT = 50;
+    private static final int LIMITE_MAX = 10_000;
+
+    /** Jeu de chansons immuable partagé par toutes les requêtes. */
+    static final class Catalogue {
+        final long version;
+        final String source;
+        final List<Song> chansons;
+        final IndexChansons index;
+        final long chargeMs;
+        final CacheResultats cache = new CacheResultats(CacheResultats.BUDGET_DEFAUT); // Neuf à chaque rechargement
+
+        private Catalogue(long version, String source, List<Song> chansons, IndexChansons index, long chargeMs) {
+            this.version = version;
+            this.source = source;
+            this.chansons = Collections.unmodifiableList(chansons);
+            this.index = index;
+            this.chargeMs = chargeMs;
+        }
+
+        /** Lit le CSV (ou son instantané à jour) dans des objets neufs. */
+        static Catalogue charger(String fichier, long version) throws IOException {
+            long startTime = System.currentTimeMillis();
+            IndexChansons index = new IndexChansons();
+            List<Song> chansons;
+            if (Instantane.valide(fichier)) {
+                chansons = Instantane.lire(fichier, index);
+            } else {
+                chansons = new ArrayList<>();
+                LecteurCsv.lire(fichier, chansons::add);
+                index.ajouterTous(chansons);
+            }
+            return new Catalogue(version, fichier, chansons, index, System.currentTimeMillis() - startTime);
+        }
+
+        /** Ids sélectionnés par la requête (en cache si déjà demandée), ou null pour tout le catalogue. */
+        BitSet selection(String requete) {
+            if (requete == null || requete.isBlank()) {
+                return null;
+            }
+            return cache.selection(Requete.analyser(requete), index);
+        }
+
+        int taille(BitSet ids) {
+            return ids == null ? chansons.size() : ids.cardinality();
+        }
+
+        /** Parcourt les chansons sélectionnées, dans l'ordre de chargement. */
+        void parcourir(BitSet ids, Consumer<Song> etape) {
+            if (ids == null) {
+                chansons.forEach(etape);
+            } else {
+                for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                    etape.accept(index.chanson(id));
+                }
+            }
+        }
+    }
+
+    private final AtomicReference<Catalogue> courant = new AtomicReference<>();
+    private final ReentrantLock rechargement = new ReentrantLock();
+    private HttpServer http;
+
+    private Serveur(Catalogue initial) {
+        courant.set(initial);
+    }
+
+    /** Vrai si les arguments de main demandent le mode serveur. */
+    static boolean demande(String[] args) {
+        return args.length > 0 && (args[0].equals("--serveur") || args[0].equals("--server"));
+    }
+
+    /** Charge le fichier demandé et démarre le serveur (retourne aussitôt). */
+    static int lancer(String[] args) {
+        String hote = InetAddress.getLoopbackAddress().getHostAddress(), fichier = "FULL";
+        int port = PORT_DEFAUT;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port": port = Integer.parseInt(args[++i]); break;
+                    case "--hote": case "--host": hote = args[++i]; break;
+                    case "--charger": case "--load": fichier = args[++i]; break;
+                    default: throw new IllegalArgumentException("Option inconnue: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.err.println("Usage: --serveur [--port 8080] [--hote 127.0.0.1] [--charger FULL|chemin]");
+            return 2;
+        }
+
+        try {
+            Catalogue catalogue = Catalogue.charger(ModeLot.fichier(fichier), 1);
+            System.out.println("✓ Catalogue: " + catalogue.chansons.size() + " chansons (" + catalogue.source
+                    + ", " + catalogue.chargeMs + " ms)");
+            Serveur serveur = new Serveur(catalogue);
+            serveur.demarrer(new InetSocketAddress(hote, port));
+            System.out.println("✓ Serveur à l'écoute sur http://" + hote + ":" + serveur.http.getAddress().getPort());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> serveur.http.stop(1)));
+            return 0;
+        } catch (IOException e) {
+            System.err.println("❌ " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private void demarrer(InetSocketAddress adresse) throws IOException {
+        http = HttpServer.create(adresse, 0);
+        http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        http.createContext("/search", e -> repondre(e, "http.search", this::search));
+        http.createContext("/filter", e -> repondre(e, "http.filter", this::filter));
+        http.createContext("/top", e -> repondre(e, "http.top", this::top));
+        http.createContext("/count", e -> repondre(e, "http.count", this::count));
+        http.createContext("/group", e -> repondre(e, "http.group", this::group));
+        http.createContext("/artist", e -> repondre(e, "http.artist", this::artist));
+        http.createContext("/stats", e -> repondre(e, "http.stats", this::stats));
+        http.createContext("/metriques", e -> repondre(e, "http.metriques", (p, m) -> Metriques.json()));
+        http.createContext("/reload", this::reload);
+        http.start();
+    }
+
+    // ========== POINTS D'ENTRÉE ==========
+
+    /** Traitement d'une requête de lecture : paramètres -> corps JSON. */
+    private interface Lecture {
+        String traiter(Map<String, String> parametres, Metriques.Mesure mesure) throws Exception;
+    }
+
+    private String search(Map<String, String> p, Metriques.Mesure mesure) {
+        Catalogue c = courant.get();
+        Song trouvee = c.index.chercherTitre(obligatoire(p, "titre"), null);
+        mesure.lues(1).emises(trouvee == null ? 0 : 1);
+        StringBuilder sb = entete(c).append(", \"trouve\": ").append(trouvee != null);
+        if (trouvee != null) {
+            ModeLot.chansonJson(sb.append(", \"resultat\": "), trouvee);
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private String filter(Map<String, String> p, Metriques.Mesure mesure) {
+        Catalogue c = courant.get();
+        BitSet ids = c.selection(p.get("q"));
+        int offset = entier(p, "offset", 0, 0, Integer.MAX_VALUE);
+        int limite = entier(p, "limite", LIMITE_DEFAUT, 0, LIMITE_MAX);
+        List<Song> page = new ArrayList<>(Math.min(limite, c.taille(ids)));
+        int[] rang = {0};
+        c.parcourir(ids, s -> {
+            if (rang[0]++ >= offset && page.size() < limite) {
+                page.add(s);
+            }
+        });
+        mesure.lues(c.chansons.size()).emises(page.size());
+        return chansons(entete(c).append(", \"total\": ").append(c.taille(ids)), page);
+    }
+
+    private String top(Map<String, String> p, Metriques.Mesure mesure) {
+        Catalogue c = courant.get();
+        BitSet ids = c.selection(p.get("q"));
+        List<TriPermutation.Cle> cles = TriPermutation.analyser(p.getOrDefault("tri", "popularity desc"));
+        int n = entier(p, "n", LIMITE_DEFAUT, 1, LIMITE_MAX);
+        Flux.TopN top = new Flux.TopN(n, cles);
+        c.parcourir(ids, top);
+        List<Song> resultat = top.resultat();
+        mesure.lues(c.taille(ids)).emises(resultat.size());
+        return chansons(entete(c).append(", \"total\": ").append(c.taille(ids)), resultat);
+    }
+
+    private String count(Map<String, String> p, Metriques.Mesure mesure) {
+        Catalogue c = courant.get();
+        BitSet ids = c.selection(p.get("q"));
+        Flux.Agregat agregat = new Flux.Agregat(p.getOrDefault("critere", "type").toLowerCase());
+        c.parcourir(ids, agregat);
+        List<Map.Entry<String, long[]>> groupes = agregat.resultat();
+        int limite = entier(p, "limite", LIMITE_MAX, 1, Integer.MAX_VALUE);
+        mesure.lues(c.taille(ids)).emises(Math.min(limite, groupes.size()));
+        StringBuilder sb = entete(c).append(", \"groupes\": ").append(groupes.size()).append(", \"resultats\": [");
+        for (int i = 0; i < Math.min(limite, groupes.size()); i++) {
+            ModeLot.groupeJson(sb.append(i > 0 ? "," : "").append("\n  "), groupes.get(i));
+        }
+        return sb.append(groupes.isEmpty() ? "]}\n" : "\n]}\n").toString();
+    }
+
+    private String group(Map<String, String> p, Metriques.Mesure mesure) {
+        Catalogue c = courant.get();
+        BitSet ids = c.selection(p.get("q"));
+        Agregation agregation = Agregation.analyser(obligatoire(p, "g"));
+        List<Song> chansons = new ArrayList<>(c.taille(ids));
+        c.parcourir(ids, chansons::add);
+        List<Map.Entry<String, Agregation.Groupe>> groupes = agregation.trier(agregation.calculer(chansons.toArray(new Song[0])));
+        int limite = entier(p, "limite", LIMITE_MAX, 1, Integer.MAX_VALUE);
+        mesure.lues(chansons.size()).emises(Math.min(limite, groupes.size()));
+        String[] entetes = agregation.entetes();
+        StringBuilder sb = entete(c).append(", \"groupes\": ").append(groupes.size()).append(", \"resultats\": [");
+        for (int i = 0; i < Math.min(limite, groupes.size()); i++) {
+            ModeLot.agregatJson(sb.append(i > 0 ? "," : "").append("\n  "), entetes, groupes.get(i));
+        }
+        return sb.append(groupes.isEmpty() ? "]}\n" : "\n]}\n").toString();
+    }
+
+    /** Chansons d'un artiste par popularité décroissante et collaborateurs à au plus sauts. */
+    private String artist(Map<String, String> p, Metriques.Mesure mesure) {
+        Catalogue c = courant.get();
+        GrapheArtistes graphe = c.index.graphe();
+        String nom = obligatoire(p, "nom");
+        int a = graphe.artiste(nom);
+        if (a < 0) {
+            throw new IllegalArgumentException("Artiste inconnu: " + nom);
+        }
+        int limite = entier(p, "limite", LIMITE_DEFAUT, 0, LIMITE_MAX);
+        int sauts = entier(p, "sauts", 1, 0, 6);
+        int[] ids = graphe.chansons(a);
+        List<Song> page = new ArrayList<>(Math.min(limite, ids.length));
+        for (int i = 0; i < Math.min(limite, ids.length); i++) {
+            page.add(c.index.chanson(ids[i]));
+        }
+        List<GrapheArtistes.Collaborateur> collaborateurs = graphe.collaborateurs(a, sauts, limite);
+        mesure.lues(ids.length).emises(page.size() + collaborateurs.size());
+        StringBuilder sb = entete(c).append(", \"artiste\": ").append(ModeLot.chaineJson(graphe.nom(a)))
+                .append(", \"total\": ").append(ids.length).append(", \"collaborateurs\": [");
+        for (int i = 0; i < collaborateurs.size(); i++) {
+            ModeLot.collaborateurJson(sb.append(i > 0 ? "," : "").append("\n  "), collaborateurs.get(i));
+        }
+        return chansons(sb.append(collaborateurs.isEmpty() ? "]" : "\n]"), page);
+    }
+
+    private String stats(Map<String, String> p, Metriques.Mesure mesure) {
+        Catalogue c = courant.get();
+        StringBuilder sb = entete(c).append(", \"source\": ").append(ModeLot.chaineJson(c.source))
+                .append(", \"chansons\": ").append(c.chansons.size())
+                .append(", \"chargement_ms\": ").append(c.chargeMs);
+        c.cache.json(sb.append(", \"cache\": "));
+        return sb.append("}\n").toString();
+    }
+
+    /**
+     * Construit le nouveau catalogue sans toucher à l'ancien puis l'échange.
+     * Un seul rechargement à la fois (409 sinon).
+     */
+    private void reload(HttpExchange e) throws IOException {
+        if (!e.getRequestMethod().equals("POST")) {
+            envoyer(e, 405, erreur("Méthode non autorisée, utiliser POST"));
+            return;
+        }
+        if (!rechargement.tryLock()) {
+            envoyer(e, 409, erreur("Rechargement déjà en cours"));
+            return;
+        }
+        try (Metriques.Mesure mesure = Metriques.mesurer("http.reload")) {
+            Map<String, String> p = parametres(e);
+            String fichier = ModeLot.fichier(p.getOrDefault("fichier", courant.get().source));
+            Catalogue nouveau = Catalogue.charger(fichier, courant.get().version + 1);
+            courant.set(nouveau);
+            mesure.lues(nouveau.chansons.size()).emises(nouveau.chansons.size());
+            envoyer(e, 200, stats(p, mesure));
+        } catch (IOException | RuntimeException ex) {
+            envoyer(e, 400, erreur(ex.getMessage()));
+        } finally {
+            rechargement.unlock();
+        }
+    }
+
+    // ========== ÉCHANGES HTTP ==========
+
+    private void repondre(HttpExchange e, String operation, Lecture lecture) throws IOException {
+        if (!e.getRequestMethod().equals("GET")) {
+            envoyer(e, 405, erreur("Méthode non autorisée, utiliser GET"));
+            return;
+        }
+        if (!e.getRequestURI().getPath().equals(e.getHttpContext().getPath())) {
+            envoyer(e, 404, erreur("Ressource inconnue: " + e.getRequestURI().getPath()));
+            return;
+        }
+        int code;
+        String corps;
+        try (Metriques.Mesure mesure = Metriques.mesurer(operation)) {
+            corps = lecture.traiter(parametres(e), mesure);
+            code = 200;
+        } catch (IllegalArgumentException ex) {
+            code = 400;
+            corps = erreur(ex.getMessage());
+        } catch (Exception ex) {
+            code = 500;
+            corps = erreur(ex.toString());
+        }
+        envoyer(e, code, corps);
+    }
+
+    private static void envoyer(HttpExchange e, int code, String corps) throws IOException {
+        byte[] octets = corps.getBytes(StandardCharsets.UTF_8);
+        e.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        e.sendResponseHeaders(code, octets.length);
+        try (OutputStream out = e.getResponseBody()) {
+            out.write(octets);
+        }
+    }
+
+    private static Map<String, String> parametres(HttpExchange e) {
+        Map<String, String> p = new HashMap<>();
+        String requete = e.getRequestURI().getRawQuery();
+        if (requete == null) {
+            return p;
+        }
+        for (String paire : requete.split("&")) {
+            if (paire.isEmpty()) {
+                continue;
+            }
+            int egal = paire.indexOf('=');
+            String cle = egal < 0 ? paire : paire.substring(0, egal);
+            String valeur = egal < 0 ? "" : paire.substring(egal + 1);
+            p.put(URLDecoder.decode(cle, StandardCharsets.UTF_8), URLDecoder.decode(valeur, StandardCharsets.UTF_8));
+        }
+        return p;
+    }
+
+    private static String obligatoire(Map<String, String> p, String nom) {
+        String v = p.get(nom);
+        if (v == null || v.isEmpty()) {
+            throw new IllegalArgumentException("Paramètre manquant: " + nom);
+        }
+        return v;
+    }
+
+    private static int entier(Map<String, String> p, String nom, int defaut, int min, int max) {
+        String v = p.get(nom);
+        if (v == null) {
+            return defaut;
+        }
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(v.trim())));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Paramètre " + nom + " invalide: '" + v + "'");
+        }
+    }
+
+    // ========== JSON ==========
+
+    private static StringBuilder entete(Catalogue c) {
+        return new StringBuilder("{\"version\": ").append(c.version);
+    }
+
+    private static String chansons(StringBuilder sb, List<Song> chansons) {
+        sb.append(", \"resultats\": [");
+        for (int i = 0; i < chansons.size(); i++) {
+            ModeLot.chansonJson(sb.append(i > 0 ? "," : "").append("\n  "), chansons.get(i));
+        }
+        return sb.append(chansons.isEmpty() ? "]}\n" : "\n]}\n").toString();
+    }
+
+    private static String erreur(String message) {
+        return "{\"erreur\": " + ModeLot.chaineJson(String.valueOf(message)) + "}\n";
+    }
+}
@@ -0,0 +1,112 @@
+package musique;
+
+import java.util.ArrayList;
+
+/**
+ * Classe Song - Représente une chanson du fichier CSV Spotify
+ */
+class Song {
+    String trackName;           // Nom de la chanson
+    String albumName;           // Nom de l'album
+    String albumType;           // Type d'album (single, album, compilation)
+    String releaseDate;         // Date de sortie
+    String durationMs;          // Durée en millisecondes
+    String[] artists;           // Tableau des artistes (jusqu'à 12)
+    int albumPopularity;        // Popularité (0-100)
+    String[] allFields;         // Tous les champs CSV (null si chargé par LecteurCsv, sauf en mode flux)
+    int id;                     // Id attribué par IndexChansons (ordre de chargement)
+    Collation.Cle cleTitre;     // Clé de collation du titre (null tant que non indexée)
+    
+    public Song(String[] fields) {
+        this.allFields = fields;
+        this.trackName = getFieldSafe(fields, 0);
+        this.albumName = getFieldSafe(fields, 7);
+        this.albumType = getFieldSafe(fields, 4);
+        this.releaseDate = getFieldSafe(fields, 8);
+        this.durationMs = getFieldSafe(fields, 3);
+        
+        // Construction du tableau d'artistes (colonnes 13-24)
+        ArrayList<String> artistList = new ArrayList<>();
+        for (int i = 13; i <= 24; i++) {
+            String artist = getFieldSafe(fields, i);
+            if (!artist.isEmpty()) {
+                artistList.add(artist);
+            }
+        }
+        this.artists = artistList.toArray(new String[0]);
+        
+        // Popularité
+        try {
+            this.albumPopularity = Integer.parseInt(getFieldSafe(fields, 10));
+        } catch (NumberFormatException e) {
+            this.albumPopularity = 0;
+        }
+    }
+    
+    /**
+     * Constructeur utilisé par LecteurCsv : seules les colonnes utiles ont été
+     * décodées, allFields reste donc null (sauf LecteurCsv.lireComplet).
+     */
+    Song(String trackName, String albumName, String albumType, String releaseDate,
+         String durationMs, String[] artists, int albumPopularity) {
+        this.trackName = trackName;
+        this.albumName = albumName;
+        this.albumType = albumType;
+        this.releaseDate = releaseDate;
+        this.durationMs = durationMs;
+        this.artists = artists;
+        this.albumPopularity = albumPopularity;
+    }
+    
+    /**
+     * Copie non indexée (id et clé de titre à attribuer) : les champs que
+     * IndexChansons réécrit ne sont pas partagés avec l'original.
+     */
+    Song(Song autre) {
+        this(autre.trackName, autre.albumName, autre.albumType, autre.releaseDate,
+             autre.durationMs, autre.artists.clone(), autre.albumPopularity);
+        this.allFields = autre.allFields;
+    }
+    
+    private String getFieldSafe(String[] fields, int index) {
+        return (index >= 0 && index < fields.length) ? fields[index] : "";
+    }
+    
+    public String getArtistsString() {
+        return artists.length > 0 ? String.join(", ", artists) : "Unknown";
+    }
+    
+    public int getYear() {
+        try {
+            return Integer.parseInt(releaseDate.substring(0, 4));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%-40s | %-30s | %-20s | %4d | Pop: %3d", 
+            truncate(trackName, 40),
+            artistesTronques(30),
+            truncate(albumName, 20),
+            getYear(),
+            albumPopularity);
+    }
+    
+    private String truncate(String s, int length) {
+        return s.length() > length ? s.substring(0, length-3) + "..." : s;
+    }
+    
+    /** truncate(getArtistsString(), length) sans joindre les artistes au-delà de length. */
+    private String artistesTronques(int length) {
+        if (artists.length == 1) {
+            return truncate(artists[0], length);
+        }
+        StringBuilder sb = new StringBuilder(length + 16);
+        for (int i = 0; i < artists.length && sb.length() <= length; i++) {
+            sb.append(i > 0 ? ", " : "").append(artists[i]);
+        }
+        return truncate(artists.length == 0 ? "Unknown" : sb.toString(), length);
+    }
+}
@@ -0,0 +1,553 @@
+package musique;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Backend en colonnes (struct-of-arrays) de MusiqueInterface.
+ *
+ * Une chanson n'est plus un objet mais un identifiant (0..taille-1) : l'année,
+ * la popularité et la durée sont stockées dans des tableaux primitifs, les titres,
+ * albums, types, dates et artistes dans des dictionnaires (DictionnaireChaines)
+ * dont seules les clés int sont conservées par ligne. Les artistes d'une chanson
+ * sont rangés au format CSR : artistes[artistesDebut[id] .. artistesDebut[id+1]).
+ *
+ * Le tri, le filtre et la recherche agissent sur une permutation d'ids (ordre),
+ * les colonnes ne sont jamais déplacées.
+ */
+public class SongTable implements MusiqueInterface {
+
+    private int taille;
+    private short[] annee = new short[1024];
+    private short[] popularite = new short[1024];
+    private int[] duree = new int[1024];
+    private int[] titre = new int[1024];
+    private int[] album = new int[1024];
+    private int[] type = new int[1024];
+    private int[] date = new int[1024];
+    private int[] artistesDebut = new int[1025];
+    private int[] artistes = new int[1024];
+
+    final DictionnaireChaines titres = new DictionnaireChaines();
+    final DictionnaireChaines albums = new DictionnaireChaines();
+    final DictionnaireChaines types = new DictionnaireChaines();
+    final DictionnaireChaines dates = new DictionnaireChaines();
+    final DictionnaireChaines noms = new DictionnaireChaines();
+
+    // Vue courante : ids affichés, dans l'ordre du dernier tri
+    private int[] ordre = new int[1024];
+    private int nbOrdre;
+    private final TriPermutation moteurTri = new TriPermutation();
+
+    // Top-K en cours : ids de la vue au moment du top, pages produites à la demande
+    private TopK.Pages pages;
+    private int[] pagesIds;
+    private int taillePage;
+
+    private Scanner scanner;
+
+    // Compteurs de l'opération mesurée en cours ; le menu passe par le décorateur de métriques
+    private Metriques.Compteurs compteurs = Metriques.Compteurs.AUCUN;
+    private MusiqueMesuree.Colonnes operations;
+
+    // ========== ACCÈS AUX COLONNES ==========
+    int taille() { return taille; }
+    int annee(int id) { return annee[id]; }
+    int popularite(int id) { return popularite[id]; }
+    int duree(int id) { return duree[id]; }
+    int titre(int id) { return titre[id]; }
+    int album(int id) { return album[id]; }
+    int type(int id) { return type[id]; }
+    int premierArtiste(int id) { return artistesDebut[id]; }
+    int finArtistes(int id) { return artistesDebut[id + 1]; }
+    int artiste(int lien) { return artistes[lien]; }
+
+    /** Ajoute une chanson à la fin des colonnes (et de la vue courante). */
+    void ajouter(Song s) {
+        if (taille == titre.length) {
+            int capacite = taille * 2;
+            annee = Arrays.copyOf(annee, capacite);
+            popularite = Arrays.copyOf(popularite, capacite);
+            duree = Arrays.copyOf(duree, capacite);
+            titre = Arrays.copyOf(titre, capacite);
+            album = Arrays.copyOf(album, capacite);
+            type = Arrays.copyOf(type, capacite);
+            date = Arrays.copyOf(date, capacite);
+            artistesDebut = Arrays.copyOf(artistesDebut, capacite + 1);
+        }
+        int id = taille;
+        annee[id] = (short) s.getYear();
+        popularite[id] = (short) s.albumPopularity;
+        duree[id] = entier(s.durationMs);
+        titre[id] = titres.ajouter(s.trackName);
+        album[id] = albums.ajouter(s.albumName);
+        type[id] = types.ajouter(s.albumType);
+        date[id] = dates.ajouter(s.releaseDate);
+
+        int lien = artistesDebut[id];
+        if (lien + s.artists.length > artistes.length) {
+            artistes = Arrays.copyOf(artistes, Math.max(artistes.length * 2, lien + s.artists.length));
+        }
+        for (String nom : s.artists) {
+            artistes[lien++] = noms.ajouter(nom);
+        }
+        artistesDebut[id + 1] = lien;
+        taille++;
+
+        if (nbOrdre == ordre.length) {
+            ordre = Arrays.copyOf(ordre, nbOrdre * 2);
+        }
+        ordre[nbOrdre++] = id;
+        pages = null;
+    }
+
+    /** Reconstruit un objet Song (pour l'affichage uniquement). */
+    Song ligne(int id) {
+        String[] liste = new String[artistesDebut[id + 1] - artistesDebut[id]];
+        for (int i = 0; i < liste.length; i++) {
+            liste[i] = noms.chaine(artistes[artistesDebut[id] + i]);
+        }
+        return new Song(titres.chaine(titre[id]), albums.chaine(album[id]), types.chaine(type[id]),
+                dates.chaine(date[id]), String.valueOf(duree[id]), liste, popularite[id]);
+    }
+
+    private static int entier(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void compter(Metriques.Compteurs compteurs) {
+        this.compteurs = compteurs;
+    }
+
+    // ========== CHARGEMENT ==========
+    @Override
+    public void charger(String path) throws Exception {
+        System.out.println("\n=== CHARGEMENT avec SongTable (colonnes) ===");
+        long startTime = System.currentTimeMillis();
+
+        int count = LecteurCsv.lire(path, this::ajouter);
+        compteurs.lues(count).emises(count);
+
+        long endTime = System.currentTimeMillis();
+
+        System.out.println("✓ Chargé: " + count + " chansons");
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+        System.out.println("✓ Dictionnaires: " + titres.taille() + " titres, " + albums.taille()
+                + " albums, " + noms.taille() + " artistes");
+        System.out.println("✓ Structure: SongTable");
+    }
+
+    @Override
+    public void afficher() {
+        System.out.println("\n=== AFFICHAGE (" + nbOrdre + " chansons) ===");
+        System.out.println(String.format("%-40s | %-30s | %-20s | %4s | %s",
+            "TITRE", "ARTISTE", "ALBUM", "ANNÉE", "POP"));
+        System.out.println("-".repeat(120));
+
+        int displayCount = nbOrdre > 1000 ? nbOrdre / 100 :
+                          nbOrdre > 100 ? 50 : nbOrdre;
+
+        for (int i = 0; i < displayCount; i++) {
+            System.out.println(i + ". " + ligne(ordre[i]));
+        }
+
+        if (displayCount < nbOrdre) {
+            System.out.println("... (" + (nbOrdre - displayCount) + " autres chansons)");
+        }
+        compteurs.lues(nbOrdre).emises(displayCount);
+    }
+
+    // ========== TRI (sur les ids, clés primitives) ==========
+    @Override
+    public void sort(int criteria) {
+        switch (criteria) {
+            case 0: triPermutation("titre"); break;
+            case 1: triPermutation("popularite"); break;
+            case 2: triPermutation("annee"); break;
+            default: System.out.println("Critère invalide");
+        }
+    }
+
+    /** Tri multi-clés de la vue, ex. "annee desc, popularite desc, titre". */
+    @Override
+    public void triPermutation(String spec) {
+        List<TriPermutation.Cle> cles = TriPermutation.analyser(spec);
+        System.out.println("\n=== TRI SONGTABLE (" + cles + ") ===");
+        long startTime = System.currentTimeMillis();
+
+        int[][] colonnes = new int[cles.size()][];
+        boolean[] decroissant = new boolean[cles.size()];
+        for (int k = 0; k < cles.size(); k++) {
+            colonnes[k] = colonne(cles.get(k).critere);
+            decroissant[k] = cles.get(k).decroissant;
+        }
+        moteurTri.trier(ordre, nbOrdre, colonnes, decroissant);
+        compteurs.lues(nbOrdre).emises(nbOrdre);
+
+        long endTime = System.currentTimeMillis();
+        System.out.println("✓ Tri terminé en " + (endTime - startTime) + " ms");
+    }
+
+    /** Colonne de clés int indexée par id pour le moteur de tri. */
+    int[] colonne(TriPermutation.Critere critere) {
+        int[] cle = new int[taille];
+        switch (critere) {
+            case TITRE: // Rang du titre dans le dictionnaire trié
+                int[] rangs = titres.rangs();
+                for (int id = 0; id < taille; id++) cle[id] = rangs[titre[id]];
+                break;
+            case POPULARITE:
+                for (int id = 0; id < taille; id++) cle[id] = popularite[id];
+                break;
+            case ANNEE:
+                for (int id = 0; id < taille; id++) cle[id] = annee[id];
+                break;
+            case DUREE:
+                System.arraycopy(duree, 0, cle, 0, taille);
+                break;
+        }
+        return cle;
+    }
+
+    // ========== TOP-K (sans tri complet) ==========
+    @Override
+    public void top(int k, int criteria) {
+        TriPermutation.Critere critere = Musique.critereTop(criteria);
+        if (k <= 0) {
+            throw new IllegalArgumentException("K doit être positif");
+        }
+        long startTime = System.currentTimeMillis();
+        int[] colonne = colonne(critere);
+        pagesIds = Arrays.copyOf(ordre, nbOrdre);
+        int[] cles = new int[nbOrdre];
+        for (int i = 0; i < nbOrdre; i++) {
+            cles[i] = colonne[pagesIds[i]];
+        }
+        pages = new TopK.Pages(cles, nbOrdre);
+        taillePage = k;
+        compteurs.lues(nbOrdre);
+        System.out.println("\n=== TOP " + k + " SONGTABLE (" + critere.name().toLowerCase() + " décroissant) ===");
+        System.out.println("✓ Clés extraites en " + (System.currentTimeMillis() - startTime) + " ms");
+        pageSuivante();
+    }
+
+    @Override
+    public void pageSuivante() {
+        if (pages == null) {
+            System.out.println("❌ Aucun top en cours (ou vue modifiée depuis)");
+            return;
+        }
+        if (pages.finie()) {
+            System.out.println("✓ Toutes les chansons ont été affichées");
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        int premier = pages.getSorties();
+        int[] page = pages.suivante(taillePage);
+        long endTime = System.currentTimeMillis();
+        compteurs.emises(page.length);
+
+        for (int i = 0; i < page.length; i++) {
+            System.out.println((premier + i) + ". " + ligne(pagesIds[page[i]]));
+        }
+        System.out.println("✓ Rangs " + premier + " à " + (premier + page.length - 1) + " sur " + pagesIds.length);
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+
+    // ========== REGROUPEMENTS ET AGRÉGATS ==========
+    @Override
+    public void grouper(String spec) {
+        Agregation agregation = Agregation.analyser(spec);
+        System.out.println("\n=== REGROUPEMENT SONGTABLE (" + agregation + ") ===");
+        long startTime = System.currentTimeMillis();
+        Song[] lignes = new Song[nbOrdre];
+        for (int i = 0; i < nbOrdre; i++) {
+            lignes[i] = ligne(ordre[i]);
+        }
+        List<Map.Entry<String, Agregation.Groupe>> groupes = agregation.trier(agregation.calculer(lignes));
+        long endTime = System.currentTimeMillis();
+        compteurs.lues(nbOrdre).emises(groupes.size());
+
+        agregation.afficher(groupes, 50);
+        System.out.println("✓ Groupes: " + groupes.size() + " sur " + nbOrdre + " chansons");
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+
+    // ========== FILTRE (par année) ==========
+    @Override
+    public void filter(String text, int columnIndex) {
+        System.out.println("\n=== FILTRE SONGTABLE (par année) ===");
+        long startTime = System.currentTimeMillis();
+
+        try {
+            int year = Integer.parseInt(text.trim());
+            int initialSize = nbOrdre;
+
+            int k = restreindre(ScanColonnes.plage(annee, taille, year, year));
+            compteurs.lues(initialSize).emises(k);
+
+            long endTime = System.currentTimeMillis();
+            System.out.println("✓ Filtré: " + (initialSize - nbOrdre) + " chansons retirées de la vue");
+            System.out.println("✓ Restantes: " + nbOrdre + " chansons");
+            System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+        } catch (NumberFormatException e) {
+            System.out.println("❌ Année invalide");
+        }
+    }
+
+    // ========== BALAYAGE DES COLONNES (année, popularité, type) ==========
+
+    /**
+     * Sélection des chansons dont l'année et la popularité sont dans les
+     * plages et dont le type vaut type (casse ignorée, null ou vide = tous),
+     * en bitmap sur tous les ids (ScanColonnes).
+     */
+    long[] selectionner(int anneeMin, int anneeMax, int popMin, int popMax, String type) {
+        long[] selection = ScanColonnes.plage(annee, taille, anneeMin, anneeMax);
+        ScanColonnes.et(selection, ScanColonnes.plage(popularite, taille, popMin, popMax));
+        if (type != null && !type.isBlank()) {
+            // Un balayage par code de type égal à la casse près (il y en a peu)
+            long[] parType = new long[selection.length];
+            for (int code = 0; code < types.taille(); code++) {
+                if (types.chaine(code).equalsIgnoreCase(type.trim())) {
+                    ScanColonnes.ou(parType, ScanColonnes.egal(this.type, taille, code));
+                }
+            }
+            ScanColonnes.et(selection, parType);
+        }
+        return selection;
+    }
+
+    /** Garde dans la vue (dans son ordre) les ids sélectionnés. @return nouvelle taille */
+    private int restreindre(long[] selection) {
+        int k = 0;
+        for (int i = 0; i < nbOrdre; i++) {
+            int id = ordre[i];
+            if ((selection[id >>> 6] & (1L << id)) != 0) {
+                ordre[k++] = id;
+            }
+        }
+        nbOrdre = k;
+        pages = null;
+        return k;
+    }
+
+    /**
+     * Restreint la vue aux plages d'année et de popularité et au type, puis
+     * affiche nombre, popularité et durée moyennes de la sélection.
+     */
+    public void balayer(int anneeMin, int anneeMax, int popMin, int popMax, String type) {
+        System.out.println("\n=== BALAYAGE DES COLONNES (année " + anneeMin + ".." + anneeMax
+                + ", popularité " + popMin + ".." + popMax
+                + (type == null || type.isBlank() ? "" : ", type " + type.trim()) + ") ===");
+        long startTime = System.nanoTime();
+        long[] selection = selectionner(anneeMin, anneeMax, popMin, popMax, type);
+        long scanTime = System.nanoTime();
+        int n = ScanColonnes.compter(selection);
+        long sommePop = ScanColonnes.somme(popularite, taille, selection);
+        long sommeDuree = ScanColonnes.somme(duree, taille, selection);
+        long aggTime = System.nanoTime();
+        int initialSize = nbOrdre;
+        int k = restreindre(selection);
+        long endTime = System.nanoTime();
+        compteurs.lues(taille).emises(k);
+
+        System.out.println("✓ Sélection (toutes les chansons): " + n + " sur " + taille);
+        if (n > 0) {
+            System.out.println(String.format("✓ Popularité moyenne: %.1f | Durée moyenne: %.1f s",
+                    (double) sommePop / n, sommeDuree / 1000.0 / n));
+        }
+        System.out.println("✓ Vue: " + k + " chansons (" + (initialSize - k) + " retirées)");
+        System.out.println(String.format("✓ Balayage (noyaux %s): %.3f ms | Agrégats: %.3f ms | Vue: %.3f ms",
+                ScanColonnes.description(), (scanTime - startTime) / 1e6, (aggTime - scanTime) / 1e6,
+                (endTime - aggTime) / 1e6));
+    }
+
+    /** Remet toutes les chansons dans la vue (ordre de chargement). */
+    public void reinitialiserVue() {
+        if (ordre.length < taille) {
+            ordre = new int[taille];
+        }
+        for (int id = 0; id < taille; id++) {
+            ordre[id] = id;
+        }
+        nbOrdre = taille;
+        pages = null;
+    }
+
+    // ========== RECHERCHE ==========
+    @Override
+    public void search(String titreRecherche) {
+        System.out.println("\n=== RECHERCHE SONGTABLE ===");
+        long startTime = System.currentTimeMillis();
+
+        // Comparaison de chaînes une seule fois par titre distinct
+        boolean[] correspond = new boolean[titres.taille()];
+        for (int t = 0; t < correspond.length; t++) {
+            correspond[t] = titres.chaine(t).equalsIgnoreCase(titreRecherche);
+        }
+
+        int comparisons = 0;
+        int found = -1;
+        for (int i = 0; i < nbOrdre; i++) {
+            comparisons++;
+            if (correspond[titre[ordre[i]]]) {
+                found = ordre[i];
+                break;
+            }
+        }
+
+        long endTime = System.currentTimeMillis();
+        compteurs.lues(comparisons).emises(found >= 0 ? 1 : 0).comparaisons(correspond.length + comparisons);
+
+        if (found >= 0) {
+            System.out.println("✓ Trouvé: " + ligne(found));
+        } else {
+            System.out.println("✗ Titre non trouvé");
+        }
+        System.out.println("✓ Comparaisons: " + comparisons);
+        System.out.println("✓ Temps: " + (endTime - startTime) + " ms");
+    }
+
+    @Override
+    public void printRow(int index) {
+        if (index >= 0 && index < nbOrdre) {
+            System.out.println(index + ". " + ligne(ordre[index]));
+        }
+    }
+
+    @Override
+    public void printColumn(int index) {
+        int displayCount = Math.min(nbOrdre, 50);
+        for (int i = 0; i < displayCount; i++) {
+            int id = ordre[i];
+            switch (index) {
+                case 0: System.out.println(titres.chaine(titre[id])); break;
+                case 3: System.out.println(duree[id]); break;
+                case 4: System.out.println(types.chaine(type[id])); break;
+                case 7: System.out.println(albums.chaine(album[id])); break;
+                case 8: System.out.println(dates.chaine(date[id])); break;
+                case 10: System.out.println(popularite[id]); break;
+                default:
+                    System.out.println("❌ Colonne non stockée");
+                    return;
+            }
+        }
+    }
+
+    // ========== MENU ==========
+    public void menu(Scanner scanner) {
+        this.scanner = scanner;
+        this.operations = new MusiqueMesuree.Colonnes(this, "table.");
+        while (true) {
+            System.out.println("\n" + "=".repeat(60));
+            System.out.println("MENU PRINCIPAL - Structure: SongTable (colonnes)");
+            System.out.println("Chansons chargées: " + taille + " (vue: " + nbOrdre + ")");
+            System.out.println("=".repeat(60));
+            System.out.println("1. Charger un fichier");
+            System.out.println("2. Afficher les données");
+            System.out.println("3. Trier");
+            System.out.println("4. Filtrer (par année)");
+            System.out.println("5. Rechercher");
+            System.out.println("6. Réinitialiser la vue");
+            System.out.println("7. Métriques des opérations");
+            System.out.println("8. Top-K (sans tri complet)");
+            System.out.println("9. Page suivante du top");
+            System.out.println("10. Regroupements et agrégats");
+            System.out.println("11. Balayage des colonnes (année, popularité, type)");
+            System.out.println("0. Quitter");
+            System.out.print("\nChoix: ");
+
+            int choix = scanner.nextInt();
+            scanner.nextLine();
+
+            try {
+                switch (choix) {
+                    case 1: menuCharger(); break;
+                    case 2: operations.afficher(); break;
+                    case 3: menuTrier(); break;
+                    case 4:
+                        System.out.print("Année: ");
+                        operations.filter(scanner.nextLine(), 8);
+                        break;
+                    case 5:
+                        System.out.print("Titre à rechercher: ");
+                        operations.search(scanner.nextLine());
+                        break;
+                    case 6: reinitialiserVue(); break;
+                    case 7: Metriques.afficher(); break;
+                    case 8:
+                        System.out.print("Critère (1. Popularité  2. Année  3. Durée): ");
+                        int critere = scanner.nextInt();
+                        System.out.print("K: ");
+                        int k = scanner.nextInt();
+                        scanner.nextLine();
+                        operations.top(k, critere);
+                        break;
+                    case 9: operations.pageSuivante(); break;
+                    case 10:
+                        System.out.print("Regroupement (ex. annee: count, avg popularite): ");
+                        operations.grouper(scanner.nextLine());
+                        break;
+                    case 11:
+                        System.out.print("Années (min max): ");
+                        int anneeMin = scanner.nextInt(), anneeMax = scanner.nextInt();
+                        System.out.print("Popularité (min max): ");
+                        int popMin = scanner.nextInt(), popMax = scanner.nextInt();
+                        scanner.nextLine();
+                        System.out.print("Type (album, single, compilation, vide = tous): ");
+                        operations.balayer(anneeMin, anneeMax, popMin, popMax, scanner.nextLine());
+                        break;
+                    case 0:
+                        System.out.println("Au revoir!");
+                        return;
+                    default:
+                        System.out.println("❌ Choix invalide");
+                }
+            } catch (Exception e) {
+                System.out.println("❌ Erreur: " + e.getMessage());
+            }
+        }
+    }
+
+    private void menuCharger() throws Exception {
+        System.out.println("\n=== CHARGER UN FICHIER ===");
+        for (int i = 1; i < Musique.FICHIERS.length; i++) {
+            System.out.println(i + ". " + Musique.FICHIERS[i].substring(4));
+        }
+        System.out.print("Choix: ");
+
+        int choix = scanner.nextInt();
+        scanner.nextLine();
+
+        if (choix >= 1 && choix < Musique.FICHIERS.length) {
+            operations.charger(Musique.FICHIERS[choix]);
+        }
+    }
+
+    private void menuTrier() {
+        System.out.println("\n=== TRIER ===");
+        System.out.println("1. Par titre");
+        System.out.println("2. Par popularité");
+        System.out.println("3. Par année");
+        System.out.println("4. Multi-clés");
+        System.out.print("Choix: ");
+
+        int choix = scanner.nextInt();
+        scanner.nextLine();
+
+        if (choix >= 1 && choix <= 3) {
+            operations.sort(choix - 1);
+        } else if (choix == 4) {
+            System.out.print("Clés (ex: annee desc, popularite desc, titre): ");
+            operations.triPermutation(scanner.nextLine());
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package musique;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+import java.util.RandomAccess;
+
+/**
+ * Structures de liste interchangeables pour Musique, et les algorithmes
+ * écrits pour chacune : par index sur les listes à accès direct, par curseur
+ * (ListIterator) sur les listes chaînées, où get(i) et set(i) coûtent O(n).
+ */
+final class Structures {
+
+    private Structures() {}
+
+    enum Structure {
+        ARRAYLIST("ArrayList"),
+        LINKEDLIST("LinkedList"),
+        CIRCULAIRE("Tampon circulaire (modèle ArrayDeque)"),
+        CHAINEE("Liste chaînée (tri sur les nœuds)"),
+        DEROULEE("Liste déroulée (blocs de " + ListeDeroulee.CAPACITE + ")"),
+        IDS("Liste d'ids (int[])");
+
+        final String libelle;
+
+        Structure(String libelle) {
+            this.libelle = libelle;
+        }
+
+        /** Nouvelle liste vide ; la liste d'ids résout ses chansons dans index. */
+        List<Song> creer(IndexChansons index) {
+            switch (this) {
+                case ARRAYLIST: return new ArrayList<>();
+                case LINKEDLIST: return new LinkedList<>();
+                case CIRCULAIRE: return new ListeCirculaire();
+                case CHAINEE: return new ListeChainee();
+                case DEROULEE: return new ListeDeroulee();
+                default: return new ListeIds(index);
+            }
+        }
+
+        /** Structure par son nom en minuscules (arraylist, linkedlist, circulaire, chainee, deroulee, ids). */
+        static Structure analyser(String nom) {
+            for (Structure s : values()) {
+                if (s.name().equalsIgnoreCase(nom.trim())) {
+                    return s;
+                }
+            }
+            throw new IllegalArgumentException("Structure inconnue: " + nom);
+        }
+    }
+
+    // ========== ALGORITHMES ==========
+
+    /**
+     * Tri sélection. Listes à accès direct : par index. Sinon un curseur
+     * cherche le minimum de la partie non triée, puis revient en arrière
+     * jusqu'à lui pour l'échange : O(n²) pas de curseur au lieu de O(n³).
+     */
+    static void triSelection(List<Song> liste, Comparator<Song> cmp) {
+        triSelection(liste, cmp, Taches.Progression.AUCUNE);
+    }
+
+    /**
+     * Même tri ; la progression avance à chaque passe du nombre de
+     * comparaisons de la passe (n(n-1)/2 au total) et d'une chanson placée.
+     * Une Tache annulée l'interrompt entre deux passes.
+     */
+    static void triSelection(List<Song> liste, Comparator<Song> cmp, Taches.Progression progression) {
+        int n = liste.size();
+        if (liste instanceof RandomAccess) {
+            for (int i = 0; i < n - 1; i++) {
+                int minIdx = i;
+                for (int j = i + 1; j < n; j++) {
+                    if (cmp.compare(liste.get(j), liste.get(minIdx)) < 0) {
+                        minIdx = j;
+                    }
+                }
+                if (minIdx != i) {
+                    liste.set(i, liste.set(minIdx, liste.get(i)));
+                }
+                progression.avancer(n - 1 - i, 1);
+            }
+            progression.avancer(0, Math.min(n, 1)); // La dernière est à sa place
+            return;
+        }
+        ListIterator<Song> courant = liste.listIterator();
+        while (courant.nextIndex() < n - 1) {
+            Song premiere = courant.next();
+            ListIterator<Song> scan = liste.listIterator(courant.nextIndex());
+            Song min = premiere;
+            int minIdx = courant.previousIndex();
+            while (scan.hasNext()) {
+                Song s = scan.next();
+                if (cmp.compare(s, min) < 0) {
+                    min = s;
+                    minIdx = scan.previousIndex();
+                }
+            }
+            if (min != premiere) {
+                while (scan.nextIndex() > minIdx) {
+                    scan.previous();
+                }
+                scan.set(premiere);
+                courant.set(min);
+            }
+            progression.avancer(n - 1 - courant.previousIndex(), 1);
+        }
+        progression.avancer(0, Math.min(n, 1));
+    }
+
+    /**
+     * Tri fusion stable : sur les nœuds pour ListeChainee (aucune copie),
+     * sinon List.sort (tri fusion sur un tableau, en place pour ArrayList,
+     * réécrit par curseur pour les autres).
+     * @return comparaisons effectuées
+     */
+    static long trierFusion(List<Song> liste, Comparator<Song> cmp) {
+        if (liste instanceof ListeChainee) {
+            return ((ListeChainee) liste).trierFusion(cmp);
+        }
+        long[] comparaisons = new long[1];
+        liste.sort((a, b) -> {
+            comparaisons[0]++;
+            return cmp.compare(a, b);
+        });
+        return comparaisons[0];
+    }
+
+    /** Vide la liste par la tête, au curseur (jamais remove(0) sur une liste chaînée). */
+    static void viderParLaTete(List<Song> liste) {
+        Iterator<Song> it = liste.iterator();
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    // ========== COMPARAISON ==========
+
+    private static final Comparator<Song> PAR_POPULARITE = Comparator.comparingInt(s -> s.albumPopularity);
+    private static final int ACCES = 10_000, SELECTION = 2_000, TETE = 20_000;
+
+    /**
+     * Mesure chaque structure sur les mêmes chansons (déjà indexées), chacune
+     * avec son meilleur algorithme : remplissage, parcours, accès par index,
+     * tri fusion, tri sélection (SELECTION premières), filtre par removeIf,
+     * vidage par la tête (TETE premières). Temps en ms.
+     * La liste d'ids est remplie, parcourue et lue par son API int (add(int),
+     * getInt) : ces colonnes mesurent des ids sans résoudre les chansons.
+     * java.util.ArrayDeque, sans accès par index ni tri, n'est mesuré que
+     * sur le remplissage, le parcours, le filtre et le vidage par la tête.
+     */
+    static void comparer(List<Song> source, IndexChansons index) {
+        System.out.println("\n=== COMPARAISON DES STRUCTURES (" + source.size() + " chansons) ===");
+        System.out.println(String.format("%-40s | %7s | %7s | %7s | %7s | %7s | %7s | %7s",
+            "STRUCTURE", "REMPL.", "PARC.", "ACCÈS", "FUSION", "SÉLECT.", "FILTRE", "TÊTE"));
+        System.out.println("-".repeat(120));
+        Random alea = new Random(42);
+        int[] positions = new int[ACCES];
+        for (int i = 0; i < ACCES; i++) {
+            positions[i] = source.isEmpty() ? 0 : alea.nextInt(source.size());
+        }
+        long controle = 0; // Sommes des parcours, affichées : le JIT ne peut pas supprimer les boucles
+        for (Structure structure : Structure.values()) {
+            long[] temps = new long[7];
+            long debut = System.currentTimeMillis();
+            List<Song> liste = structure.creer(index);
+            ListeIds ids = liste instanceof ListeIds ? (ListeIds) liste : null;
+            if (ids != null) {
+                for (Song s : source) {
+                    ids.add(s.id);
+                }
+            } else {
+                for (Song s : source) {
+                    liste.add(s);
+                }
+            }
+            temps[0] = System.currentTimeMillis() - debut;
+
+            debut = System.currentTimeMillis();
+            long somme = 0;
+            if (ids != null) {
+                for (int i = 0; i < ids.size(); i++) {
+                    somme += ids.getInt(i);
+                }
+            } else {
+                for (Song s : liste) {
+                    somme += s.albumPopularity;
+                }
+            }
+            temps[1] = System.currentTimeMillis() - debut;
+
+            debut = System.currentTimeMillis();
+            if (!liste.isEmpty()) {
+                if (ids != null) {
+                    for (int p : positions) {
+                        somme += ids.getInt(p);
+                    }
+                } else {
+                    for (int p : positions) {
+                        somme += liste.get(p).albumPopularity;
+                    }
+                }
+            }
+            temps[2] = System.currentTimeMillis() - debut;
+            controle += somme;
+
+            debut = System.currentTimeMillis();
+            trierFusion(liste, PAR_POPULARITE);
+            temps[3] = System.currentTimeMillis() - debut;
+
+            List<Song> extrait = structure.creer(index);
+            extrait.addAll(source.subList(0, Math.min(SELECTION, source.size())));
+            debut = System.currentTimeMillis();
+            triSelection(extrait, PAR_POPULARITE);
+            temps[4] = System.currentTimeMillis() - debut;
+
+            debut = System.currentTimeMillis();
+            liste.removeIf(s -> s.albumPopularity < 50);
+            temps[5] = System.currentTimeMillis() - debut;
+
+            extrait = structure.creer(index);
+            extrait.addAll(source.subList(0, Math.min(TETE, source.size())));
+            debut = System.currentTimeMillis();
+            viderParLaTete(extrait);
+            temps[6] = System.currentTimeMillis() - debut;
+
+            System.out.println(String.format("%-40s | %7d | %7d | %7d | %7d | %7d | %7d | %7d",
+                structure.libelle, temps[0], temps[1], temps[2], temps[3], temps[4], temps[5], temps[6]));
+        }
+        controle += comparerArrayDeque(source);
+        System.out.println("✓ Accès: " + ACCES + " get(i) aléatoires | Sélection: " + SELECTION
+            + " chansons | Tête: " + TETE + " chansons | Contrôle: " + controle);
+    }
+
+    /** Ligne de java.util.ArrayDeque (pas d'accès par index ni de tri : "-"). @return somme du parcours */
+    private static long comparerArrayDeque(List<Song> source) {
+        long[] temps = new long[4];
+        long debut = System.currentTimeMillis();
+        ArrayDeque<Song> file = new ArrayDeque<>();
+        for (Song s : source) {
+            file.addLast(s);
+        }
+        temps[0] = System.currentTimeMillis() - debut;
+
+        debut = System.currentTimeMillis();
+        long somme = 0;
+        for (Song s : file) {
+            somme += s.albumPopularity;
+        }
+        temps[1] = System.currentTimeMillis() - debut;
+
+        debut = System.currentTimeMillis();
+        file.removeIf(s -> s.albumPopularity < 50);
+        temps[2] = System.currentTimeMillis() - debut;
+
+        ArrayDeque<Song> extrait = new ArrayDeque<>(source.subList(0, Math.min(TETE, source.size())));
+        debut = System.currentTimeMillis();
+        while (extrait.pollFirst() != null) {
+            // Retrait en tête O(1)
+        }
+        temps[3] = System.currentTimeMillis() - debut;
+
+        System.out.println(String.format("%-40s | %7d | %7d | %7s | %7s | %7s | %7d | %7d",
+            "java.util.ArrayDeque", temps[0], temps[1], "-", "-", "-", temps[2], temps[3]));
+        return somme;
+    }
+}
@@ -0,0 +1,93 @@
+package musique;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Position de fin et CRC32 de la partie déjà chargée d'un CSV.
+ *
+ * Un fichier qui ne fait que grandir garde le même début : si le CRC des fin
+ * premiers octets n'a pas changé, seuls les octets suivants sont à lire. Le
+ * CRC est recalculé sur tout le préfixe à chaque vérification (lecture mappée,
+ * bien moins chère que l'analyse et l'indexation), puis prolongé sur les
+ * octets ajoutés. Une ligne incomplète en fin de fichier (en cours d'écriture)
+ * est laissée pour le prochain passage.
+ */
+final class SuiviFichier {
+
+    private static final long FENETRE = 1L << 30;
+
+    final String path;
+    final long fin;          // Octets déjà chargés
+    final long crc;          // CRC32 des octets [0, fin)
+
+    /** Suivi dont le CRC est déjà connu (en-tête d'Instantane, par exemple). */
+    SuiviFichier(String path, long fin, long crc) {
+        this.path = path;
+        this.fin = fin;
+        this.crc = crc;
+    }
+
+    /** Suivi d'un fichier qui vient d'être chargé en entier. */
+    static SuiviFichier suivre(String path) throws IOException {
+        try (FileChannel canal = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long taille = canal.size();
+            return new SuiviFichier(path, taille, crc(canal, 0, taille, new CRC32()).getValue());
+        }
+    }
+
+    /**
+     * Lit les lignes ajoutées depuis le dernier chargement et retourne le
+     * suivi prolongé jusqu'à la dernière ligne complète lue.
+     * @return null si le préfixe a changé (fichier réécrit, tronqué ou dernière
+     *         ligne prolongée) : il faut alors tout recharger
+     */
+    SuiviFichier lireAjouts(Consumer<Song> sortie) throws IOException {
+        CRC32 c = new CRC32();
+        long debut;
+        long taille;
+        try (FileChannel canal = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            taille = canal.size();
+            if (taille < fin || crc(canal, 0, fin, c).getValue() != crc) {
+                return null;
+            }
+            if (taille == fin) {
+                return this;
+            }
+            debut = fin;
+            if (fin > 0 && octet(canal, fin - 1) != '\n') {
+                // Dernière ligne lue sans \n : les ajouts commencent par une fin de ligne
+                if (octet(canal, debut) == '\r' && debut + 1 < taille) {
+                    debut++;
+                }
+                if (octet(canal, debut) != '\n') {
+                    return null;
+                }
+                debut++;
+            }
+        }
+        long nouvelleFin = LecteurCsv.lireAjouts(path, debut, taille, sortie);
+        try (FileChannel canal = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            return new SuiviFichier(path, nouvelleFin, crc(canal, fin, nouvelleFin, c).getValue());
+        }
+    }
+
+    /** Prolonge crc sur les octets [debut, fin) du canal, lus par fenêtres mappées. */
+    static CRC32 crc(FileChannel canal, long debut, long fin, CRC32 crc) throws IOException {
+        for (long position = debut; position < fin; position += FENETRE) {
+            crc.update(canal.map(FileChannel.MapMode.READ_ONLY, position, Math.min(FENETRE, fin - position)));
+        }
+        return crc;
+    }
+
+    private static byte octet(FileChannel canal, long position) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(1);
+        canal.read(b, position);
+        return b.get(0);
+    }
+}
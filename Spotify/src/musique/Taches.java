@@ -0,0 +1,230 @@
+package musique;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Tâches longues (chargement, tri sélection, filtre, suppression) exécutées
+ * sur un pool de workers pendant que la console reste disponible.
+ *
+ * Une tâche travaille sur sa propre copie des données et rend un résultat
+ * (CompletableFuture) ; elle ne modifie jamais l'état partagé. C'est au
+ * thread de la console de l'appliquer (voir Musique.publierTaches), si le
+ * catalogue n'a pas changé entre-temps : jusque-là, toutes les opérations
+ * lisent l'état précédent, cohérent.
+ *
+ * Progression : la tâche déclare un total d'unités de travail (octets lus,
+ * comparaisons...) et avance au fil de l'eau ; pourcentage et temps restant
+ * en sont déduits. Les écouteurs sont prévenus au plus toutes les
+ * INTERVALLE_AVIS_MS, et à la fin. Annulation coopérative : annuler() termine
+ * le futur tout de suite, et le worker s'arrête au prochain avancer().
+ */
+final class Taches {
+
+    static final long INTERVALLE_AVIS_MS = 500;
+
+    /** Travail d'une tâche, exécuté sur un worker. */
+    interface Travail<T> {
+        T executer(Tache<T> tache) throws Exception;
+    }
+
+    /**
+     * Avancement d'un algorithme partagé entre la console et les tâches
+     * (Structures.triSelection, Musique.lireClassique) : une Tache en
+     * arrière-plan, AUCUNE au premier plan.
+     */
+    interface Progression {
+        void avancer(long travail, long lignes);
+
+        Progression AUCUNE = (travail, lignes) -> {};
+    }
+
+    static final class Tache<T> implements Progression {
+        final int numero;
+        final String nom;
+        private final CompletableFuture<T> futur = new CompletableFuture<>();
+        private final List<Consumer<Tache<?>>> ecouteurs = new CopyOnWriteArrayList<>();
+        private volatile long total = 1, fait, lignes;
+        private volatile long debut, fin;                // nanoTime, 0 = pas encore
+        private long dernierAvis;                        // Worker seulement
+
+        private Tache(int numero, String nom) {
+            this.numero = numero;
+            this.nom = nom;
+        }
+
+        CompletableFuture<T> futur() {
+            return futur;
+        }
+
+        /** Nombre d'unités de travail attendues (au moins 1). */
+        void total(long total) {
+            this.total = Math.max(1, total);
+        }
+
+        /**
+         * Avance de travail unités et lignes lignes traitées. Point d'annulation :
+         * lève CancellationException si la tâche a été annulée.
+         */
+        @Override
+        public void avancer(long travail, long lignes) {
+            fait += travail;
+            this.lignes += lignes;
+            verifier();
+            long maintenant = System.nanoTime();
+            if (maintenant - dernierAvis >= INTERVALLE_AVIS_MS * 1_000_000) {
+                dernierAvis = maintenant;
+                prevenir();
+            }
+        }
+
+        /** Lève CancellationException si la tâche a été annulée. */
+        void verifier() {
+            if (futur.isCancelled()) {
+                throw new CancellationException(nom + " annulée");
+            }
+        }
+
+        /** Annule la tâche ; faux si elle était déjà terminée. */
+        boolean annuler() {
+            return futur.cancel(false);
+        }
+
+        void ecouter(Consumer<Tache<?>> ecouteur) {
+            ecouteurs.add(ecouteur);
+        }
+
+        void oublier(Consumer<Tache<?>> ecouteur) {
+            ecouteurs.remove(ecouteur);
+        }
+
+        private void prevenir() {
+            for (Consumer<Tache<?>> e : ecouteurs) {
+                e.accept(this);
+            }
+        }
+
+        boolean terminee() {
+            return futur.isDone();
+        }
+
+        /** Part du travail effectuée, entre 0 et 1. */
+        double avancement() {
+            return futur.isDone() && !futur.isCompletedExceptionally() ? 1 : Math.min(1.0, (double) fait / total);
+        }
+
+        /** Temps écoulé depuis le démarrage sur un worker, en ms. */
+        long ecouleMs() {
+            long d = debut;
+            if (d == 0) {
+                return 0;
+            }
+            long f = fin;
+            return ((f != 0 ? f : System.nanoTime()) - d) / 1_000_000;
+        }
+
+        /**
+         * Temps restant estimé au rythme moyen depuis le début, en ms ; -1 si
+         * inconnu (moins de INTERVALLE_AVIS_MS écoulées : rythme pas encore établi).
+         */
+        long resteMs() {
+            if (futur.isDone()) {
+                return 0;
+            }
+            double a = avancement();
+            long ecoule = ecouleMs();
+            if (a <= 0 || ecoule < INTERVALLE_AVIS_MS) {
+                return -1;
+            }
+            return (long) (ecoule * (1 - a) / a);
+        }
+
+        String etat() {
+            if (futur.isCancelled()) return "annulée";
+            if (futur.isCompletedExceptionally()) return "échec";
+            if (futur.isDone()) return "terminée";
+            return debut == 0 ? "en attente" : "en cours";
+        }
+
+        /** Ex. "#2 tri sélection | en cours | 42.0 % | 126000 lignes | 12.3 s | reste ~ 17 s". */
+        @Override
+        public String toString() {
+            long reste = resteMs();
+            return String.format("#%d %s | %s | %.1f %% | %d lignes | %.1f s", numero, nom, etat(),
+                100 * avancement(), lignes, ecouleMs() / 1000.0)
+                + (!futur.isDone() && reste >= 0 ? String.format(" | reste ~ %.0f s", reste / 1000.0) : "");
+        }
+    }
+
+    private final ExecutorService workers;
+    private final List<Tache<?>> taches = new CopyOnWriteArrayList<>();
+    private final AtomicInteger numeros = new AtomicInteger();
+
+    /** Pool de nbWorkers threads démons : ils ne retiennent pas la JVM à la sortie du menu. */
+    Taches(int nbWorkers) {
+        AtomicInteger noms = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(nbWorkers, r -> {
+            Thread t = new Thread(r, "tache-" + noms.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Soumet le travail ; la tâche démarre dès qu'un worker est libre. */
+    <T> Tache<T> lancer(String nom, Travail<T> travail) {
+        Tache<T> tache = new Tache<>(numeros.incrementAndGet(), nom);
+        taches.add(tache);
+        workers.execute(() -> {
+            if (tache.futur.isCancelled()) {
+                return; // Annulée avant d'avoir démarré
+            }
+            tache.debut = System.nanoTime();
+            try {
+                T resultat = travail.executer(tache);
+                tache.fin = System.nanoTime();
+                tache.futur.complete(resultat);
+            } catch (Throwable e) {
+                tache.fin = System.nanoTime();
+                tache.futur.completeExceptionally(e);
+            }
+            tache.prevenir();
+        });
+        return tache;
+    }
+
+    /** Toutes les tâches lancées, dans l'ordre. */
+    List<Tache<?>> liste() {
+        return taches;
+    }
+
+    /** Tâche par numéro, ou null. */
+    Tache<?> tache(int numero) {
+        for (Tache<?> t : taches) {
+            if (t.numero == numero) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /** Oublie les tâches terminées (la liste ne garde que celles en cours). */
+    void oublierTerminees() {
+        taches.removeIf(Tache::terminee);
+    }
+
+    int enCours() {
+        int n = 0;
+        for (Tache<?> t : taches) {
+            if (!t.terminee()) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,190 @@
+package musique;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Les K meilleures positions selon une clé int décroissante, sans trier tout
+ * le tableau.
+ *
+ * Chaque candidat est codé dans un long : (Integer.MAX_VALUE - clé) << 31 |
+ * position. L'ordre croissant de ces longs est l'ordre « clé décroissante,
+ * puis position croissante », comme un tri stable décroissant, et les
+ * comparaisons se font sur des primitifs.
+ *  - tas()        : tas des K meilleurs, O(n log K) ;
+ *  - quickselect(): sélection du K-ième puis tri des K premiers, O(n + K log K) en moyenne ;
+ *  - Pages        : tri rapide incrémental (Paredes et Navarro), chaque page
+ *                   ne trie que ce qu'il faut pour la produire.
+ */
+final class TopK {
+
+    private static final int DECALAGE = 31;
+    private static final long MASQUE_POSITION = (1L << DECALAGE) - 1;
+
+    private TopK() {
+    }
+
+    static long coder(int cle, int position) {
+        return ((long) Integer.MAX_VALUE - cle) << DECALAGE | position;
+    }
+
+    static int position(long code) {
+        return (int) (code & MASQUE_POSITION);
+    }
+
+    /** Positions des k plus grandes clés (les meilleures d'abord), par un tas de taille k. */
+    static int[] tas(int[] cles, int n, int k) {
+        k = Math.min(k, n);
+        if (k <= 0) {
+            return new int[0];
+        }
+        // Tas max sur les codes : la racine est la moins bonne des k retenues
+        long[] tas = new long[k];
+        int taille = 0;
+        for (int i = 0; i < n; i++) {
+            long code = coder(cles[i], i);
+            if (taille < k) {
+                tas[taille] = code;
+                monter(tas, taille++);
+            } else if (code < tas[0]) {
+                tas[0] = code;
+                descendre(tas, 0, k);
+            }
+        }
+        Arrays.sort(tas);
+        return positions(tas, k);
+    }
+
+    /** Positions des k plus grandes clés (les meilleures d'abord), par sélection rapide. */
+    static int[] quickselect(int[] cles, int n, int k) {
+        k = Math.min(k, n);
+        if (k <= 0) {
+            return new int[0];
+        }
+        long[] codes = coder(cles, n);
+        int gauche = 0, droite = n - 1;
+        while (gauche < droite) {
+            int p = partitionner(codes, gauche, droite);
+            if (p == k - 1) {
+                break;
+            } else if (p < k - 1) {
+                gauche = p + 1;
+            } else {
+                droite = p - 1;
+            }
+        }
+        Arrays.sort(codes, 0, k);
+        return positions(codes, k);
+    }
+
+    /**
+     * Parcours par pages dans l'ordre des clés décroissantes. Les positions des
+     * pivots déjà placés sont gardées dans une pile : la page suivante ne
+     * partitionne que la tranche qui la contient. Produire les k premières
+     * coûte O(n + k log k) en moyenne, quelle que soit la taille des pages.
+     */
+    static final class Pages {
+        private final long[] codes;
+        private int[] pivots;           // Pile des bornes de fin des tranches non triées
+        private int nbPivots;
+        private int sorties;            // Les positions [0, sorties) sont déjà produites
+
+        Pages(int[] cles, int n) {
+            codes = coder(cles, n);
+            pivots = new int[64];
+            pivots[nbPivots++] = n;
+        }
+
+        boolean finie() {
+            return sorties == codes.length;
+        }
+
+        /** Nombre de positions déjà produites (rang de la prochaine). */
+        int getSorties() {
+            return sorties;
+        }
+
+        /** Positions des taille suivantes (moins en fin de parcours). */
+        int[] suivante(int taille) {
+            int fin = Math.min(codes.length, sorties + taille);
+            int[] page = new int[fin - sorties];
+            for (int i = 0; i < page.length; i++) {
+                page[i] = prochaine();
+            }
+            return page;
+        }
+
+        private int prochaine() {
+            while (pivots[nbPivots - 1] != sorties) {
+                int p = partitionner(codes, sorties, pivots[nbPivots - 1] - 1);
+                if (nbPivots == pivots.length) {
+                    pivots = Arrays.copyOf(pivots, nbPivots * 2); // Profondeur O(log n) attendue
+                }
+                pivots[nbPivots++] = p;
+            }
+            nbPivots--;
+            return position(codes[sorties++]);
+        }
+    }
+
+    // ========== OUTILS ==========
+
+    private static long[] coder(int[] cles, int n) {
+        long[] codes = new long[n];
+        for (int i = 0; i < n; i++) {
+            codes[i] = coder(cles[i], i);
+        }
+        return codes;
+    }
+
+    private static int[] positions(long[] codes, int k) {
+        int[] resultat = new int[k];
+        for (int i = 0; i < k; i++) {
+            resultat[i] = position(codes[i]);
+        }
+        return resultat;
+    }
+
+    /** Partition de Lomuto autour d'un pivot aléatoire ; retourne sa place finale. */
+    private static int partitionner(long[] t, int gauche, int droite) {
+        int hasard = gauche + ThreadLocalRandom.current().nextInt(droite - gauche + 1);
+        long pivot = t[hasard];
+        t[hasard] = t[droite];
+        t[droite] = pivot;
+        int place = gauche;
+        for (int i = gauche; i < droite; i++) {
+            if (t[i] < pivot) {
+                long x = t[i];
+                t[i] = t[place];
+                t[place++] = x;
+            }
+        }
+        t[droite] = t[place];
+        t[place] = pivot;
+        return place;
+    }
+
+    private static void monter(long[] tas, int i) {
+        while (i > 0 && tas[(i - 1) / 2] < tas[i]) {
+            long x = tas[i];
+            tas[i] = tas[(i - 1) / 2];
+            tas[(i - 1) / 2] = x;
+            i = (i - 1) / 2;
+        }
+    }
+
+    private static void descendre(long[] tas, int i, int taille) {
+        while (true) {
+            int g = 2 * i + 1, plus = i;
+            if (g < taille && tas[g] > tas[plus]) plus = g;
+            if (g + 1 < taille && tas[g + 1] > tas[plus]) plus = g + 1;
+            if (plus == i) {
+                return;
+            }
+            long x = tas[i];
+            tas[i] = tas[plus];
+            tas[plus] = x;
+            i = plus;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package musique;
+
+import java.util.Comparator;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tri fusion parallèle (fork/join) sur un tableau de Song.
+ *
+ * Un seul tampon auxiliaire est alloué pour tout le tri : à chaque niveau les
+ * deux moitiés sont triées dans un tableau et fusionnées dans l'autre, le sens
+ * alterne donc d'un niveau à l'autre (pas de copie dans des L/R temporaires).
+ * En dessous du seuil séquentiel la récursion continue sans créer de tâches,
+ * et les petites portions sont triées par insertion. La fusion elle-même peut
+ * être découpée en sous-tâches (fusion parallèle par recherche dichotomique).
+ */
+@SuppressWarnings("serial") // Tâches fork/join, jamais sérialisées
+final class TriFusionParallele extends RecursiveAction {
+
+    static final int SEUIL_INSERTION = 32;
+    static final int SEUIL_SEQUENTIEL_DEFAUT = 8192;
+
+    private final Song[] donnees;       // Contenu initial de toutes les portions
+    private final Song[] aux;           // Tampon de même taille
+    private final int debut, fin;       // Portion [debut, fin)
+    private final boolean versAux;      // Résultat attendu dans aux (sinon dans donnees)
+    private final Comparator<Song> cmp;
+    private final int seuilSequentiel;
+    private final boolean fusionParallele;
+
+    /** Tâche racine : trie tout le tableau en place. */
+    TriFusionParallele(Song[] donnees, Comparator<Song> cmp, int seuilSequentiel, boolean fusionParallele) {
+        this(donnees, new Song[donnees.length], 0, donnees.length, false, cmp,
+             Math.max(seuilSequentiel, SEUIL_INSERTION), fusionParallele);
+    }
+
+    private TriFusionParallele(Song[] donnees, Song[] aux, int debut, int fin, boolean versAux,
+                               Comparator<Song> cmp, int seuilSequentiel, boolean fusionParallele) {
+        this.donnees = donnees;
+        this.aux = aux;
+        this.debut = debut;
+        this.fin = fin;
+        this.versAux = versAux;
+        this.cmp = cmp;
+        this.seuilSequentiel = seuilSequentiel;
+        this.fusionParallele = fusionParallele;
+    }
+
+    @Override
+    protected void compute() {
+        if (fin - debut <= seuilSequentiel) {
+            trierSequentiel(debut, fin, versAux);
+            return;
+        }
+        int milieu = (debut + fin) >>> 1;
+        invokeAll(sousTache(debut, milieu), sousTache(milieu, fin));
+
+        Song[] src = versAux ? donnees : aux;
+        Song[] dst = versAux ? aux : donnees;
+        if (fusionParallele) {
+            new Fusion(src, dst, debut, milieu, milieu, fin, debut, cmp, seuilSequentiel).compute();
+        } else {
+            fusionner(src, dst, debut, milieu, milieu, fin, debut, cmp);
+        }
+    }
+
+    private TriFusionParallele sousTache(int d, int f) {
+        return new TriFusionParallele(donnees, aux, d, f, !versAux, cmp, seuilSequentiel, fusionParallele);
+    }
+
+    /** Même schéma de ping-pong, sans tâches. */
+    private void trierSequentiel(int d, int f, boolean versAux) {
+        if (f - d <= SEUIL_INSERTION) {
+            Song[] cible = versAux ? aux : donnees;
+            if (versAux) {
+                System.arraycopy(donnees, d, aux, d, f - d);
+            }
+            insertion(cible, d, f);
+            return;
+        }
+        int m = (d + f) >>> 1;
+        trierSequentiel(d, m, !versAux);
+        trierSequentiel(m, f, !versAux);
+        if (versAux) {
+            fusionner(donnees, aux, d, m, m, f, d, cmp);
+        } else {
+            fusionner(aux, donnees, d, m, m, f, d, cmp);
+        }
+    }
+
+    private void insertion(Song[] t, int d, int f) {
+        for (int i = d + 1; i < f; i++) {
+            Song s = t[i];
+            int j = i - 1;
+            while (j >= d && cmp.compare(t[j], s) > 0) {
+                t[j + 1] = t[j];
+                j--;
+            }
+            t[j + 1] = s;
+        }
+    }
+
+    /** Fusion stable de src[g1,f1) et src[g2,f2) dans dst à partir de k. */
+    static void fusionner(Song[] src, Song[] dst, int g1, int f1, int g2, int f2, int k, Comparator<Song> cmp) {
+        while (g1 < f1 && g2 < f2) {
+            dst[k++] = cmp.compare(src[g1], src[g2]) <= 0 ? src[g1++] : src[g2++];
+        }
+        while (g1 < f1) dst[k++] = src[g1++];
+        while (g2 < f2) dst[k++] = src[g2++];
+    }
+
+    /**
+     * Fusion parallèle : on coupe la plus longue des deux suites en son milieu,
+     * on cherche par dichotomie le point de coupe correspondant dans l'autre,
+     * puis les deux moitiés sont fusionnées indépendamment.
+     */
+    @SuppressWarnings("serial")
+    private static final class Fusion extends RecursiveAction {
+        private final Song[] src, dst;
+        private final int g1, f1, g2, f2, k;
+        private final Comparator<Song> cmp;
+        private final int seuil;
+
+        Fusion(Song[] src, Song[] dst, int g1, int f1, int g2, int f2, int k, Comparator<Song> cmp, int seuil) {
+            this.src = src;
+            this.dst = dst;
+            this.g1 = g1;
+            this.f1 = f1;
+            this.g2 = g2;
+            this.f2 = f2;
+            this.k = k;
+            this.cmp = cmp;
+            this.seuil = seuil;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = f1 - g1, n2 = f2 - g2;
+            if (n1 + n2 <= seuil) {
+                fusionner(src, dst, g1, f1, g2, f2, k, cmp);
+                return;
+            }
+            int m1, m2;
+            if (n1 >= n2) {
+                m1 = (g1 + f1) >>> 1;
+                m2 = borne(src[m1], g2, f2, false); // Premiers éléments >= pivot
+            } else {
+                m2 = (g2 + f2) >>> 1;
+                m1 = borne(src[m2], g1, f1, true);  // Premiers éléments > pivot (stabilité)
+            }
+            int km = k + (m1 - g1) + (m2 - g2);
+            invokeAll(new Fusion(src, dst, g1, m1, g2, m2, k, cmp, seuil),
+                      new Fusion(src, dst, m1, f1, m2, f2, km, cmp, seuil));
+        }
+
+        /** Première position de [d, f) dont l'élément est >= pivot (ou > pivot si strict). */
+        private int borne(Song pivot, int d, int f, boolean strict) {
+            while (d < f) {
+                int m = (d + f) >>> 1;
+                int c = cmp.compare(src[m], pivot);
+                if (c < 0 || (strict && c == 0)) {
+                    d = m + 1;
+                } else {
+                    f = m;
+                }
+            }
+            return d;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package musique;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Moteur de tri par permutation : on trie un int[] d'ids, jamais les chansons.
+ *
+ * Chaque clé est une colonne int indexée par id (popularité, année, durée, rang
+ * du titre). Les clés sont traitées de la moins significative à la plus
+ * significative, chacune par un tri par dénombrement stable (ou un tri radix
+ * 2 x 16 bits si l'étendue des valeurs est trop grande). Le tampon de
+ * permutation et le tableau de compteurs sont réutilisés d'un tri à l'autre.
+ */
+final class TriPermutation {
+
+    enum Critere { TITRE, POPULARITE, ANNEE, DUREE }
+
+    /** Une clé de tri : un critère et un sens. */
+    static final class Cle {
+        final Critere critere;
+        final boolean decroissant;
+
+        Cle(Critere critere, boolean decroissant) {
+            this.critere = critere;
+            this.decroissant = decroissant;
+        }
+
+        @Override
+        public String toString() {
+            return critere.name().toLowerCase() + (decroissant ? " desc" : "");
+        }
+    }
+
+    private static final int RADIX_BITS = 16;
+
+    private int[] tampon = new int[0];
+    private int[] compteurs = new int[0];
+
+    /**
+     * Analyse une spécification du type "annee desc, popularite desc, titre".
+     * @throws IllegalArgumentException si un critère ou un sens est inconnu
+     */
+    static List<Cle> analyser(String spec) {
+        List<Cle> cles = new ArrayList<>();
+        for (String partie : spec.trim().split("\\s*,\\s*")) {
+            String[] mots = partie.trim().toLowerCase().split("\\s+");
+            if (mots.length == 0 || mots[0].isEmpty() || mots.length > 2) {
+                throw new IllegalArgumentException("Clé de tri invalide: '" + partie + "'");
+            }
+            Critere critere;
+            switch (mots[0]) {
+                case "titre": case "title": critere = Critere.TITRE; break;
+                case "popularite": case "popularité": case "popularity": case "pop": critere = Critere.POPULARITE; break;
+                case "annee": case "année": case "year": critere = Critere.ANNEE; break;
+                case "duree": case "durée": case "duration": critere = Critere.DUREE; break;
+                default: throw new IllegalArgumentException("Critère inconnu: '" + mots[0] + "'");
+            }
+            boolean decroissant = false;
+            if (mots.length == 2) {
+                if (mots[1].equals("desc")) {
+                    decroissant = true;
+                } else if (!mots[1].equals("asc")) {
+                    throw new IllegalArgumentException("Sens inconnu: '" + mots[1] + "'");
+                }
+            }
+            cles.add(new Cle(critere, decroissant));
+        }
+        return cles;
+    }
+
+    /**
+     * Comparateur de chansons équivalent aux clés (même ordre que trier()),
+     * pour les tris qui ne disposent pas de toutes les chansons à la fois.
+     */
+    static Comparator<Song> comparateur(List<Cle> cles) {
+        Comparator<Song> cmp = null;
+        for (Cle c : cles) {
+            Comparator<Song> k;
+            switch (c.critere) {
+                case TITRE: k = Collation.PAR_TITRE; break;
+                case POPULARITE: k = Comparator.comparingInt(s -> s.albumPopularity); break;
+                case ANNEE: k = Comparator.comparingInt(Song::getYear); break;
+                default: k = Comparator.comparingInt(TriPermutation::duree); break;
+            }
+            if (c.decroissant) {
+                k = k.reversed();
+            }
+            cmp = cmp == null ? k : cmp.thenComparing(k);
+        }
+        return cmp;
+    }
+
+    static int duree(Song s) {
+        try {
+            return Integer.parseInt(s.durationMs);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** Extrait la colonne de clés d'un tableau de chansons (id = position). */
+    static int[] extraire(Song[] chansons, Critere critere) {
+        int n = chansons.length;
+        int[] cle = new int[n];
+        switch (critere) {
+            case POPULARITE:
+                for (int i = 0; i < n; i++) cle[i] = chansons[i].albumPopularity;
+                break;
+            case ANNEE:
+                for (int i = 0; i < n; i++) cle[i] = chansons[i].getYear();
+                break;
+            case DUREE:
+                for (int i = 0; i < n; i++) cle[i] = duree(chansons[i]);
+                break;
+            case TITRE:
+                Collation.Cle[] titres = new Collation.Cle[n];
+                for (int i = 0; i < n; i++) titres[i] = Collation.cle(chansons[i]);
+                cle = rangs(titres);
+                break;
+        }
+        return cle;
+    }
+
+    /**
+     * Rang de chaque clé dans l'ordre de collation : les titres égaux à la
+     * casse (ou aux accents) près ont le même rang, et seules les clés
+     * distinctes sont comparées.
+     */
+    static int[] rangs(Collation.Cle[] valeurs) {
+        HashMap<Collation.Cle, Integer> distinctes = new HashMap<>();
+        for (Collation.Cle v : valeurs) {
+            distinctes.putIfAbsent(v, 0);
+        }
+        Collation.Cle[] triees = distinctes.keySet().toArray(new Collation.Cle[0]);
+        Arrays.sort(triees, Collation::comparer);
+        for (int r = 0; r < triees.length; r++) {
+            distinctes.put(triees[r], r);
+        }
+        int[] rangs = new int[valeurs.length];
+        for (int i = 0; i < valeurs.length; i++) {
+            rangs[i] = distinctes.get(valeurs[i]);
+        }
+        return rangs;
+    }
+
+    /**
+     * Trie perm[0..n) de façon stable selon les colonnes de clés (la première
+     * est la plus significative). colonnes[k][id] donne la clé k de l'id.
+     */
+    void trier(int[] perm, int n, int[][] colonnes, boolean[] decroissant) {
+        if (tampon.length < n) {
+            tampon = new int[n];
+        }
+        int[] src = perm;
+        int[] dst = tampon;
+        for (int k = colonnes.length - 1; k >= 0; k--) {
+            int[] cle = colonnes[k];
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                int v = cle[src[i]];
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            if (n == 0 || min == max) {
+                continue; // Clé constante : rien à faire
+            }
+            long etendue = (long) max - min + 1;
+            if (etendue <= Math.max(n, 1 << RADIX_BITS)) {
+                distribuer(src, dst, n, cle, min, max, decroissant[k], 0, (int) etendue);
+                int[] t = src;
+                src = dst;
+                dst = t;
+            } else {
+                // Deux passes radix : src -> dst -> src
+                distribuer(src, dst, n, cle, min, max, decroissant[k], 0, 1 << RADIX_BITS);
+                distribuer(dst, src, n, cle, min, max, decroissant[k], RADIX_BITS, 1 << RADIX_BITS);
+            }
+        }
+        if (src != perm) {
+            System.arraycopy(src, 0, perm, 0, n);
+        }
+    }
+
+    /**
+     * Une passe de tri par dénombrement stable de src vers dst sur le chiffre
+     * (valeur normalisée >>> decalage) & (base - 1).
+     */
+    private void distribuer(int[] src, int[] dst, int n, int[] cle, int min, int max,
+                           boolean decroissant, int decalage, int base) {
+        if (compteurs.length < base + 1) {
+            compteurs = new int[base + 1];
+        } else {
+            Arrays.fill(compteurs, 0, base + 1, 0);
+        }
+        int masque = base - 1;
+        boolean puissanceDeDeux = (base & masque) == 0;
+        for (int i = 0; i < n; i++) {
+            compteurs[chiffre(cle[src[i]], min, max, decroissant, decalage, masque, puissanceDeDeux) + 1]++;
+        }
+        for (int c = 0; c < base; c++) {
+            compteurs[c + 1] += compteurs[c];
+        }
+        for (int i = 0; i < n; i++) {
+            int id = src[i];
+            dst[compteurs[chiffre(cle[id], min, max, decroissant, decalage, masque, puissanceDeDeux)]++] = id;
+        }
+    }
+
+    private static int chiffre(int v, int min, int max, boolean decroissant, int decalage,
+                               int masque, boolean puissanceDeDeux) {
+        int normalise = decroissant ? max - v : v - min; // Non signé : étendue < 2^32
+        if (!puissanceDeDeux) {
+            return normalise; // Passe unique : la valeur entière est le chiffre
+        }
+        return (normalise >>> decalage) & masque;
+    }
+}